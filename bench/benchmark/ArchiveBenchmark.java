@@ -0,0 +1,89 @@
+package benchmark;
+
+import adapter.secondary.DeterministicTimeSource;
+import adapter.secondary.InMemoryOrderRepository;
+import adapter.secondary.TieredOrderRepository;
+import domain.model.LineItems;
+import domain.model.Order;
+import domain.model.OrderStatus;
+import domain.model.Product;
+import domain.model.ProductRegistry;
+import domain.port.secondary.OrderRepository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+// Архивация завершенных заказов: запросы по поставщику до и после переноса 90% заказов
+// в архив, чтение заказа по идентификатору из живого хранилища и из архива.
+// Запуск: java -cp <классы> benchmark.ArchiveBenchmark
+public class ArchiveBenchmark {
+    private static final int ORDERS = 200_000;
+
+    public static void main(String[] args) throws IOException {
+        Path directory = Files.createTempDirectory("order-archive-bench");
+        DeterministicTimeSource clock = new DeterministicTimeSource(LocalDateTime.of(2026, 1, 1, 0, 0));
+        OrderRepository live = new InMemoryOrderRepository();
+        ProductRegistry registry = new ProductRegistry();
+        TieredOrderRepository repository = new TieredOrderRepository(live, directory, Duration.ofDays(30), clock,
+                registry);
+        Product beef = new Product("Говядина", "Мясо", "Охлажденный", 5);
+        List<String> archivedIds = new ArrayList<>();
+        List<String> liveIds = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = new Order("order-" + i, "supplier-" + (i % 20),
+                    LineItems.of(Map.of(beef, i % 40 + 1), registry), clock).nextVersion(clock);
+            if (i % 10 != 0) {
+                order.tryTransition(OrderStatus.CANCELLED, "Поставщик не подтвердил заказ");
+                archivedIds.add(order.getId());
+            } else {
+                liveIds.add(order.getId());
+            }
+            repository.save(order);
+        }
+
+        long[] sink = new long[1];
+        Bench.run("findBySupplier, " + ORDERS + " живых заказов", 3, 20, 1,
+                () -> sink[0] += repository.findBySupplier("supplier-7").size());
+        clock.advance(Duration.ofDays(31));
+        long start = System.nanoTime();
+        int archived = repository.archive();
+        System.out.printf("  архивировано %d заказов за %.0f мс, сегменты %d КБ%n", archived,
+                (System.nanoTime() - start) / 1e6, directorySize(directory) >> 10);
+        Bench.run("findBySupplier после архивации", 3, 20, 1,
+                () -> sink[0] += repository.findBySupplier("supplier-7").size());
+
+        Bench.run("findById, живой заказ", 5, 20, 10_000, () -> read(repository, liveIds, sink));
+        Bench.run("findById, заказ из архива", 5, 20, 10_000, () -> read(repository, archivedIds, sink));
+        repository.close();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+        if (sink[0] == 42) {
+            System.out.println();
+        }
+    }
+
+    private static void read(OrderRepository repository, List<String> ids, long[] sink) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < 10_000; i++) {
+            sink[0] += repository.findById(ids.get(random.nextInt(ids.size()))).orElseThrow().getVersion();
+        }
+    }
+
+    private static long directorySize(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.mapToLong(file -> file.toFile().length()).sum();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+// Минимальный измерительный стенд: прогрев, затем замер времени и объема памяти,
+// выделенной текущим потоком, в пересчете на одну операцию
+final class Bench {
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private Bench() {
+    }
+
+    record Result(String name, double nanosPerOp, double bytesPerOp) {
+        @Override
+        public String toString() {
+            return String.format("%-50s %12.1f ns/op %12.1f B/op", name, nanosPerOp, bytesPerOp);
+        }
+    }
+
+    // iteration выполняет opsPerIteration операций
+    static Result run(String name, int warmupIterations, int iterations, int opsPerIteration, Runnable iteration) {
+        for (int i = 0; i < warmupIterations; i++) {
+            iteration.run();
+        }
+        long allocatedBefore = THREADS.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            iteration.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = THREADS.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        double ops = (double) iterations * opsPerIteration;
+        Result result = new Result(name, elapsed / ops, allocated / ops);
+        System.out.println(result);
+        return result;
+    }
+
+    // Параллельный вариант: threads платформенных потоков одновременно выполняют свои
+    // итерации. Время на операцию считается по общей пропускной способности,
+    // память суммируется по всем потокам
+    static Result runConcurrent(String name, int threads, int warmupIterations, int iterations,
+                                int opsPerIteration, IntFunction<Runnable> iterationForThread) {
+        // Отметки времени ставятся действиями барьеров, а не главным потоком: иначе на
+        // одном ядре рабочие потоки успевают закончить до того, как главный поток запустится
+        AtomicLong begin = new AtomicLong();
+        AtomicLong end = new AtomicLong();
+        CyclicBarrier start = new CyclicBarrier(threads + 1);
+        CyclicBarrier warmedUp = new CyclicBarrier(threads + 1, () -> begin.set(System.nanoTime()));
+        CyclicBarrier done = new CyclicBarrier(threads + 1, () -> end.set(System.nanoTime()));
+        AtomicLong allocated = new AtomicLong();
+        for (int t = 0; t < threads; t++) {
+            Runnable iteration = iterationForThread.apply(t);
+            Thread.ofPlatform().daemon().name("bench-" + t).start(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < warmupIterations; i++) {
+                        iteration.run();
+                    }
+                    warmedUp.await();
+                    long allocatedBefore = THREADS.getCurrentThreadAllocatedBytes();
+                    for (int i = 0; i < iterations; i++) {
+                        iteration.run();
+                    }
+                    allocated.addAndGet(THREADS.getCurrentThreadAllocatedBytes() - allocatedBefore);
+                    done.await();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+        try {
+            start.await();
+            warmedUp.await();
+            done.await();
+            long elapsed = end.get() - begin.get();
+            double ops = (double) threads * iterations * opsPerIteration;
+            Result result = new Result(name, elapsed / ops, allocated.get() / ops);
+            System.out.println(result);
+            return result;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
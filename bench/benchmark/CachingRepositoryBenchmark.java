@@ -0,0 +1,73 @@
+package benchmark;
+
+import adapter.secondary.CachingOrderRepository;
+import adapter.secondary.InMemoryOrderRepository;
+import domain.model.LineItems;
+import domain.model.Order;
+import domain.model.Product;
+import domain.model.ProductRegistry;
+import domain.port.secondary.OrderRepository;
+import domain.port.secondary.TimeSource;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+// Чтение заказов по идентификатору из медленного хранилища (задержка 20 мкс на обращение)
+// напрямую и через CachingOrderRepository. 95% чтений приходится на 2% активных заказов,
+// остальные - на случайные заказы из всего хранилища.
+// Запуск: java -cp <классы> benchmark.CachingRepositoryBenchmark
+public class CachingRepositoryBenchmark {
+    private static final int ORDERS = 100_000;
+    private static final int HOT_ORDERS = ORDERS / 50;
+    private static final int CACHE_SIZE = 5_000;
+    private static final int READS = 2_000;
+    private static final long BACKEND_LATENCY_NANOS = 20_000;
+
+    public static void main(String[] args) {
+        OrderRepository backend = new SlowRepository();
+        LineItems items = LineItems.of(Map.of(new Product("Говядина", "Мясо", "Охлажденный", 5), 10),
+                new ProductRegistry());
+        String[] ids = new String[ORDERS];
+        for (int i = 0; i < ORDERS; i++) {
+            ids[i] = backend.save(new Order("order-" + i, "supplier-" + (i % 50), items, TimeSource.system())).getId();
+        }
+
+        for (int threads : new int[]{1, 8}) {
+            Bench.runConcurrent("хранилище напрямую, потоков: " + threads, threads, 1, 3, READS,
+                    t -> () -> read(backend, ids));
+            CachingOrderRepository cached = new CachingOrderRepository(backend, CACHE_SIZE);
+            Bench.runConcurrent("через кэш на " + CACHE_SIZE + ", потоков: " + threads, threads, 3, 10, READS,
+                    t -> () -> read(cached, ids));
+            System.out.println("  " + cached.stats());
+        }
+    }
+
+    private static void read(OrderRepository repository, String[] ids) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < READS; i++) {
+            int index = random.nextInt(100) < 95 ? random.nextInt(HOT_ORDERS) : random.nextInt(ORDERS);
+            if (repository.findById(ids[index]).isEmpty()) {
+                throw new IllegalStateException("Заказ " + ids[index] + " не найден");
+            }
+        }
+    }
+
+    // Хранилище в памяти с задержкой на каждое чтение, как у внешней базы данных
+    private static final class SlowRepository extends InMemoryOrderRepository {
+
+        @Override
+        public Optional<Order> findById(String orderId) {
+            LockSupport.parkNanos(BACKEND_LATENCY_NANOS);
+            return super.findById(orderId);
+        }
+
+        @Override
+        public Map<String, Order> findAllById(Collection<String> orderIds) {
+            LockSupport.parkNanos(BACKEND_LATENCY_NANOS);
+            return super.findAllById(orderIds);
+        }
+    }
+}
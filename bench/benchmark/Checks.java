@@ -0,0 +1,213 @@
+package benchmark;
+
+import adapter.secondary.DeterministicTimeSource;
+import domain.model.LineItems;
+import domain.model.Order;
+import domain.model.OrderCursor;
+import domain.model.OrderPage;
+import domain.model.OrderStatus;
+import domain.model.Product;
+import domain.model.ProductRegistry;
+import domain.port.secondary.OrderRepository;
+import domain.port.secondary.TimeSource;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+// Общее для проверок хранилищ (*Check): случайная последовательность операций, которая
+// выполняется над проверяемым хранилищем и эталонным InMemoryOrderRepository, и сравнение
+// ответов на все запросы OrderRepository. Расхождение завершает проверку IllegalStateException
+final class Checks {
+    static final int SUPPLIERS = 8;
+
+    private Checks() {
+    }
+
+    static void require(boolean condition, String what) {
+        if (!condition) {
+            throw new IllegalStateException("Расхождение: " + what);
+        }
+    }
+
+    // Все сохраняемые поля заказа
+    static String fingerprint(Order order) {
+        return order.getId() + "|" + order.getSupplierId() + "|" + order.getStatus() + "|"
+                + order.getCreatedAtMillis() + "|" + order.getUpdatedAtMillis() + "|" + order.getItems() + "|"
+                + order.getNote() + "|" + order.getQualityControlResult() + "|" + order.getVersion() + "|"
+                + order.getAuditTrail().entries();
+    }
+
+    static Set<String> fingerprints(Collection<Order> orders) {
+        Set<String> result = new HashSet<>();
+        for (Order order : orders) {
+            result.add(fingerprint(order));
+        }
+        return result;
+    }
+
+    static List<String> fingerprints(Stream<Order> orders) {
+        try (orders) {
+            return orders.map(Checks::fingerprint).toList();
+        }
+    }
+
+    // Операции над заказами из ids: создание, переход новой версии с проверкой версии
+    // (иногда с заведомо устаревшей), замена комментария, пакетное сохранение, удаление и чтение
+    static final class Operations {
+        private final Random random;
+        private final DeterministicTimeSource clock;
+        private final List<Product> products;
+        private final ProductRegistry registry = new ProductRegistry();
+        private final ProductRegistry otherRegistry = new ProductRegistry();
+        final List<String> ids = new ArrayList<>();
+
+        Operations(Random random, DeterministicTimeSource clock) {
+            this.random = random;
+            this.clock = clock;
+            this.products = List.of(
+                    new Product("p-1", "Говядина", "Мясо", "Охлажденный", 5),
+                    new Product("p-2", "Картофель", "Овощи", "Комнатная температура", 30),
+                    new Product("p-3", "Молоко \"Весёлое\"", "Молочные продукты", "Охлажденный", 7),
+                    new Product("p-4", "Хлеб", "Выпечка", null, 3));
+        }
+
+        void run(OrderRepository expected, OrderRepository actual) {
+            int operation = random.nextInt(20);
+            if (operation < 6 || ids.isEmpty()) {
+                Order order = create();
+                expected.save(order);
+                actual.save(order);
+                ids.add(order.getId());
+            } else if (operation < 15) {
+                Order current = expected.findById(randomId()).orElseThrow();
+                Order next = change(current);
+                long expectedVersion = random.nextInt(20) == 0 ? current.getVersion() + 3 : current.getVersion();
+                boolean saved = expected.save(next, expectedVersion);
+                require(actual.save(next, expectedVersion) == saved, "save с версией " + current.getId());
+            } else if (operation < 16) {
+                List<Order> batch = new ArrayList<>();
+                Set<String> picked = new HashSet<>();
+                for (int i = random.nextInt(5); i >= 0; i--) {
+                    String id = randomId();
+                    if (picked.add(id)) {
+                        batch.add(expected.findById(id).orElseThrow());
+                    }
+                }
+                long[] versions = new long[batch.size()];
+                for (int i = 0; i < versions.length; i++) {
+                    versions[i] = batch.get(i).getVersion();
+                    batch.set(i, change(batch.get(i)));
+                }
+                boolean[] saved = expected.saveAll(batch, versions);
+                require(Arrays.equals(actual.saveAll(batch, versions), saved), "saveAll с версиями");
+            } else if (operation < 17) {
+                String id = ids.remove(random.nextInt(ids.size()));
+                expected.delete(id);
+                actual.delete(id);
+            } else {
+                String id = randomId();
+                require(Objects.equals(expected.findById(id).map(Checks::fingerprint),
+                        actual.findById(id).map(Checks::fingerprint)), "findById " + id);
+            }
+        }
+
+        String randomId() {
+            return ids.get(random.nextInt(ids.size()));
+        }
+
+        Order create() {
+            if (random.nextInt(4) == 0) {
+                clock.advance(Duration.ofMillis(random.nextInt(3)));
+            }
+            Map<Product, Integer> items = new HashMap<>();
+            for (Product product : products) {
+                if (random.nextBoolean()) {
+                    items.put(product, 1 + random.nextInt(100));
+                }
+            }
+            // Часть заказов - с составом из другого реестра: хранилище перекладывает его в свой
+            LineItems lineItems = LineItems.of(items, random.nextInt(10) == 0 ? otherRegistry : registry);
+            return new Order(UUID.randomUUID().toString(), "supplier-" + random.nextInt(SUPPLIERS), lineItems, clock);
+        }
+
+        // Новая версия с несколькими случайными переходами и иногда с новым комментарием
+        Order change(Order current) {
+            clock.advance(Duration.ofMillis(random.nextInt(2)));
+            Order next = current.nextVersion(clock);
+            for (int i = random.nextInt(4); i > 0; i--) {
+                List<OrderStatus> allowed = List.copyOf(next.getStatus().allowedTransitions());
+                if (allowed.isEmpty()) {
+                    break;
+                }
+                next.tryTransition(allowed.get(random.nextInt(allowed.size())), "причина " + random.nextInt(1000));
+            }
+            if (random.nextInt(10) == 0) {
+                next = new Order(next.getId(), next.getSupplierId(), next.getStatus(), next.getCreatedAtMillis(),
+                        next.getUpdatedAtMillis(), next.getItems(), "комментарий\n".repeat(random.nextInt(20)),
+                        next.getQualityControlResult(), next.getVersion(), next.getAuditTrail());
+            }
+            return next;
+        }
+    }
+
+    // Ответы на все запросы OrderRepository, включая порядок streamAll, страниц и findCreatedBetween
+    static void compareQueries(OrderRepository expected, OrderRepository actual, LocalDateTime start) {
+        require(fingerprints(expected.findAll()).equals(fingerprints(actual.findAll())), "findAll");
+        for (OrderStatus status : OrderStatus.values()) {
+            require(fingerprints(expected.findByStatus(status)).equals(fingerprints(actual.findByStatus(status))),
+                    "findByStatus " + status);
+        }
+        for (int i = 0; i <= SUPPLIERS; i++) {
+            String supplier = "supplier-" + i;
+            require(fingerprints(expected.findBySupplier(supplier)).equals(
+                    fingerprints(actual.findBySupplier(supplier))), "findBySupplier " + supplier);
+            for (OrderStatus status : List.of(OrderStatus.CREATED, OrderStatus.CONFIRMED, OrderStatus.CANCELLED)) {
+                require(fingerprints(expected.findBySupplierAndStatus(supplier, status)).equals(
+                        fingerprints(actual.findBySupplierAndStatus(supplier, status))),
+                        "findBySupplierAndStatus " + supplier + " " + status);
+            }
+        }
+        require(fingerprints(expected.streamAll()).equals(fingerprints(actual.streamAll())), "порядок streamAll");
+
+        OrderCursor expectedCursor = null;
+        OrderCursor actualCursor = null;
+        int pages = 0;
+        do {
+            OrderPage expectedPage = expected.findPage(expectedCursor, 37);
+            OrderPage actualPage = actual.findPage(actualCursor, 37);
+            require(fingerprints(expectedPage.orders().stream()).equals(fingerprints(actualPage.orders().stream()))
+                    && Objects.equals(expectedPage.nextCursor(), actualPage.nextCursor()), "страница " + pages);
+            expectedCursor = expectedPage.nextCursor();
+            actualCursor = actualPage.nextCursor();
+            pages++;
+        } while (expectedCursor != null);
+
+        // Границы внутри миллисекунды проверяют округление времени создания
+        LocalDateTime from = TimeSource.toLocalDateTime(TimeSource.toMillis(start) + 500).plusNanos(300);
+        LocalDateTime to = from.plusSeconds(2);
+        require(fingerprints(expected.findCreatedBetween(from, to).stream()).equals(
+                fingerprints(actual.findCreatedBetween(from, to).stream())), "findCreatedBetween");
+
+        List<String> ids = new ArrayList<>();
+        for (Order order : expected.findAll()) {
+            if (ids.size() < 500) {
+                ids.add(order.getId());
+            }
+        }
+        ids.add("нет-такого-заказа");
+        require(fingerprints(expected.findAllById(ids).values()).equals(
+                fingerprints(actual.findAllById(ids).values())), "findAllById");
+    }
+}
@@ -0,0 +1,66 @@
+package benchmark;
+
+import adapter.secondary.InMemoryOrderRepository;
+import domain.model.Order;
+import domain.model.OrderStatus;
+import domain.model.Product;
+import domain.service.OrderProjections;
+import domain.service.OrderService;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+// Показатели панели мониторинга: пересчет по getAllOrders() против чтения проекций.
+// Отдельно - цена обновления проекций на пути перехода.
+// Запуск: java -cp <классы> benchmark.DashboardBenchmark
+public class DashboardBenchmark {
+    private static final int ORDERS = 100_000;
+
+    public static void main(String[] args) {
+        Product beef = new Product("Говядина", "Мясо", "Охлажденный", 5);
+        Product milk = new Product("Молоко", "Молочные продукты", "Охлажденный", 7);
+
+        OrderProjections projections = new OrderProjections();
+        InMemoryOrderRepository repository = new InMemoryOrderRepository();
+        OrderService service = OrderService.builder(repository)
+                .notificationPort(new OrderLifecycleBenchmark.SilentNotifications())
+                .projections(projections)
+                .build();
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = service.createOrder("supplier-" + (i % 50), Map.of(beef, 10, milk, i % 7 + 1));
+            if (i % 3 == 0) {
+                service.confirmOrder(order.getId());
+            }
+        }
+
+        long[] sink = new long[1];
+        for (int round = 0; round < 2; round++) {
+            Bench.run("пересчет по getAllOrders(), " + ORDERS + " заказов", 3, 10, 1, () -> {
+                Map<OrderStatus, Long> counts = new EnumMap<>(OrderStatus.class);
+                long open = 0;
+                for (Order order : service.getAllOrders()) {
+                    counts.merge(order.getStatus(), 1L, Long::sum);
+                    if (!order.getStatus().isFinal()) {
+                        open += order.getItems().quantityOf(milk);
+                    }
+                }
+                sink[0] += counts.size() + open;
+            });
+            Bench.run("чтение проекций", 1_000, 10_000, 1, () -> {
+                sink[0] += projections.countsByStatus().size() + projections.openQuantity(milk);
+            });
+        }
+
+        List<Order> created = service.getOrdersByStatus(OrderStatus.CREATED);
+        int[] next = {0};
+        Bench.run("confirmOrder с обновлением проекций", 1, 5, 10_000, () -> {
+            for (int i = 0; i < 10_000; i++) {
+                service.confirmOrder(created.get(next[0]++).getId());
+            }
+        });
+        if (sink[0] == 42) {
+            System.out.println();
+        }
+    }
+}
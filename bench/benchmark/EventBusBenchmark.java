@@ -0,0 +1,96 @@
+package benchmark;
+
+import adapter.secondary.BufferedMessageSink;
+import adapter.secondary.InMemoryOrderRepository;
+import adapter.secondary.NotificationService;
+import adapter.secondary.RingBufferEventBus;
+import domain.model.AuditTrail;
+import domain.model.LineItems;
+import domain.model.Order;
+import domain.model.OrderEvent;
+import domain.model.OrderStatus;
+import domain.model.Product;
+import domain.model.ProductRegistry;
+import domain.port.secondary.OrderEventListener;
+import domain.service.OrderEventNotifier;
+import domain.service.OrderProjections;
+import domain.service.OrderService;
+
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+// Создание, подтверждение и отправка заказа, когда уведомления (NotificationService с
+// отрисовкой в пустой поток) и проекции обновляются в потоке операции и когда они получают
+// события из RingBufferEventBus. Для шины отдельно замерено время вместе с ожиданием
+// подписчиков - на одном ядре их работа все равно делит процессор с операциями.
+// Затем - публикация в шину с тремя пустыми подписчиками из 1 и 4 потоков.
+// Запуск: java -cp <классы> benchmark.EventBusBenchmark
+public class EventBusBenchmark {
+    private static final int OPS = 2_000;
+    private static final int EVENTS = 100_000;
+
+    public static void main(String[] args) {
+        Product beef = new Product("Говядина", "Мясо", "Охлажденный", 5);
+        Map<Product, Integer> items = Map.of(beef, 10);
+        NotificationService notifications = new NotificationService(
+                new BufferedMessageSink(Channels.newChannel(OutputStream.nullOutputStream()), StandardCharsets.UTF_8),
+                Duration.ofMillis(50));
+        notifications.start();
+
+        ProductRegistry registry = new ProductRegistry();
+        RingBufferEventBus bus = new RingBufferEventBus(
+                List.of(new OrderProjections(registry), new OrderEventNotifier(notifications)));
+        // У каждого замера свое хранилище, чтобы замеры не различались числом заказов в куче
+        for (int round = 0; round < 2; round++) {
+            OrderService direct = OrderService.builder(new InMemoryOrderRepository())
+                    .notificationPort(notifications)
+                    .projections(new OrderProjections())
+                    .build();
+            Bench.run("подписчики в потоке операции", 5, 20, OPS, () -> lifecycle(direct, items));
+            OrderService viaBus = serviceWithBus(bus, registry);
+            Bench.run("шина событий", 5, 20, OPS, () -> lifecycle(viaBus, items));
+            bus.awaitConsumed(Duration.ofSeconds(10));
+            OrderService viaBusAwaited = serviceWithBus(bus, registry);
+            Bench.run("шина событий с ожиданием подписчиков", 5, 20, OPS, () -> {
+                lifecycle(viaBusAwaited, items);
+                bus.awaitConsumed(Duration.ofSeconds(10));
+            });
+            System.out.println("  " + bus.metrics());
+        }
+        bus.close();
+        notifications.close();
+
+        Order order = new Order("order-1", "supplier-1", OrderStatus.CONFIRMED, 0, 0, LineItems.of(items, registry),
+                "", null, 1, AuditTrail.empty());
+        OrderEvent event = new OrderEvent.Confirmed(order, OrderStatus.CREATED);
+        OrderEventListener ignore = published -> {
+        };
+        for (int producers : new int[]{1, 4}) {
+            RingBufferEventBus events = new RingBufferEventBus(List.of(ignore, ignore, ignore));
+            Bench.runConcurrent("публикация, " + producers + " потоков, 3 подписчика", producers, 2, 10, EVENTS,
+                    thread -> () -> {
+                        for (int i = 0; i < EVENTS; i++) {
+                            events.publish(event);
+                        }
+                    });
+            events.close();
+            System.out.println("  " + events.metrics());
+        }
+    }
+
+    private static OrderService serviceWithBus(RingBufferEventBus bus, ProductRegistry registry) {
+        return OrderService.builder(new InMemoryOrderRepository()).events(bus).productRegistry(registry).build();
+    }
+
+    private static void lifecycle(OrderService service, Map<Product, Integer> items) {
+        for (int i = 0; i < OPS; i++) {
+            String orderId = service.createOrder("supplier-" + (i % 50), items).getId();
+            service.confirmOrder(orderId);
+            service.sendOrderToSupplier(orderId);
+        }
+    }
+}
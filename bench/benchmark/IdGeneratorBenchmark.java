@@ -0,0 +1,71 @@
+package benchmark;
+
+import adapter.secondary.SnowflakeIdGenerator;
+import domain.port.secondary.IdGenerator;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Выдача идентификаторов заказов из нескольких потоков: UUID.randomUUID (SecureRandom)
+// против SnowflakeIdGenerator. Перед замером проверяется, что идентификаторы уникальны
+// и в каждом потоке строго возрастают.
+// Запуск: java -cp <классы> benchmark.IdGeneratorBenchmark [потоки...], по умолчанию 1 2 4 8 16 32
+public class IdGeneratorBenchmark {
+    private static final int OPS = 10_000;
+
+    public static void main(String[] args) {
+        int[] threadCounts = args.length == 0 ? new int[]{1, 2, 4, 8, 16, 32}
+                : Arrays.stream(args).mapToInt(Integer::parseInt).toArray();
+        IdGenerator uuid = () -> UUID.randomUUID().toString();
+        IdGenerator snowflake = new SnowflakeIdGenerator(1);
+        checkOrdering(snowflake, 8, 200_000);
+
+        long[] sink = new long[64];
+        for (int threads : threadCounts) {
+            System.out.println("--- Потоков: " + threads + " ---");
+            for (IdGenerator generator : new IdGenerator[]{uuid, snowflake}) {
+                String name = (generator == uuid ? "UUID.randomUUID" : "SnowflakeIdGenerator") + ", потоков " + threads;
+                Bench.runConcurrent(name, threads, 30, 20, OPS, thread -> () -> {
+                    for (int i = 0; i < OPS; i++) {
+                        sink[thread] += generator.nextId().length();
+                    }
+                });
+            }
+        }
+        System.out.println("Пример: UUID " + uuid.nextId() + ", Snowflake " + snowflake.nextId());
+    }
+
+    private static void checkOrdering(IdGenerator generator, int threads, int idsPerThread) {
+        ConcurrentHashMap<String, Boolean> seen = new ConcurrentHashMap<>();
+        AtomicBoolean ordered = new AtomicBoolean(true);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = Thread.ofPlatform().start(() -> {
+                String previous = "";
+                for (int i = 0; i < idsPerThread; i++) {
+                    String id = generator.nextId();
+                    if (id.compareTo(previous) <= 0) {
+                        ordered.set(false);
+                    }
+                    seen.put(id, Boolean.TRUE);
+                    previous = id;
+                }
+            });
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+        if (!ordered.get() || seen.size() != threads * idsPerThread) {
+            throw new IllegalStateException("Идентификаторы повторяются или не возрастают: уникальных "
+                    + seen.size() + " из " + threads * idsPerThread);
+        }
+        System.out.println("Проверка: " + seen.size() + " уникальных идентификаторов, в каждом потоке по возрастанию");
+    }
+}
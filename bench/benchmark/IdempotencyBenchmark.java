@@ -0,0 +1,72 @@
+package benchmark;
+
+import adapter.secondary.CachedTimeSource;
+import adapter.secondary.InMemoryOrderRepository;
+import domain.model.Order;
+import domain.model.OrderStatus;
+import domain.model.Product;
+import domain.service.IdempotencyCache;
+import domain.service.OrderService;
+
+import java.util.Map;
+
+// Цена ключей идемпотентности: создание заказа без ключа и с новым ключом, ответ на повтор
+// из кэша, а также повтор перехода без ключа - он заканчивается IllegalStateException.
+// Объем таблицы фиксирован, поэтому поток новых ключей не увеличивает занятую память.
+// Запуск: java -cp <классы> benchmark.IdempotencyBenchmark
+public class IdempotencyBenchmark {
+    private static final int THREADS = 8;
+    private static final int OPS = 1_000;
+
+    public static void main(String[] args) {
+        Product beef = new Product("Говядина", "Мясо", "Охлажденный", 5);
+        Map<Product, Integer> items = Map.of(beef, 10);
+        CachedTimeSource clock = new CachedTimeSource();
+        IdempotencyCache cache = new IdempotencyCache(clock);
+        OrderService service = OrderService.builder(new InMemoryOrderRepository())
+                .notificationPort(new OrderLifecycleBenchmark.SilentNotifications())
+                .clock(clock)
+                .idempotencyCache(cache)
+                .build();
+
+        long[] counter = new long[THREADS];
+        for (int round = 0; round < 2; round++) {
+            Bench.runConcurrent("createOrder без ключа, " + THREADS + " потоков", THREADS, 1, 5, OPS,
+                    thread -> () -> {
+                        for (int i = 0; i < OPS; i++) {
+                            service.createOrder("supplier-" + thread, items);
+                        }
+                    });
+            Bench.runConcurrent("createOrder с новым ключом, " + THREADS + " потоков", THREADS, 1, 5, OPS,
+                    thread -> () -> {
+                        for (int i = 0; i < OPS; i++) {
+                            service.createOrder("key-" + thread + "-" + counter[thread]++, "supplier-" + thread, items);
+                        }
+                    });
+            Bench.runConcurrent("повтор createOrder с тем же ключом, " + THREADS + " потоков", THREADS, 1, 5, OPS,
+                    thread -> () -> {
+                        for (int i = 0; i < OPS; i++) {
+                            service.createOrder("retry-" + thread + "-" + (i & 1023), "supplier-" + thread, items);
+                        }
+                    });
+        }
+
+        Order order = service.createOrder("supplier", items);
+        service.transitionOrder("confirm-" + order.getId(), order.getId(), OrderStatus.CONFIRMED, null);
+        Bench.run("повтор confirmOrder без ключа (исключение)", 1_000, 10_000, 1, () -> {
+            try {
+                service.confirmOrder(order.getId());
+            } catch (IllegalStateException e) {
+                counter[0]++;
+            }
+        });
+        Bench.run("повтор confirmOrder с ключом (результат из кэша)", 1_000, 10_000, 1, () -> {
+            counter[0] += service.transitionOrder("confirm-" + order.getId(), order.getId(), OrderStatus.CONFIRMED,
+                    null).getVersion();
+        });
+        System.out.println("Повторов обслужено из кэша: " + cache.replays());
+        if (counter[0] == 42) {
+            System.out.println();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package benchmark;
+
+import domain.model.LineItems;
+import domain.model.Order;
+import domain.model.Product;
+import domain.model.ProductRegistry;
+import domain.port.secondary.TimeSource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Память на состав заказа и скорость обхода позиций: прежний HashMap<Product, Integer>
+// (копия в конструкторе, unmodifiableMap в getItems) против LineItems.
+// Запуск: java -XX:+UseParallelGC -Xmx2g -cp <классы> benchmark.LineItemsBenchmark
+public class LineItemsBenchmark {
+    private static final int ORDERS = 100_000;
+    private static final int[] LINE_COUNTS = {1, 5, 20, 50};
+
+    public static void main(String[] args) {
+        List<Product> catalog = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            catalog.add(new Product("Продукт " + i, "Категория " + (i % 7), "Охлажденный", 5));
+        }
+
+        ProductRegistry registry = new ProductRegistry();
+        System.out.println("--- Память на заказ, " + ORDERS + " заказов ---");
+        for (int lines : LINE_COUNTS) {
+            Map<Product, Integer> source = items(catalog, lines);
+            long legacy = retainedPerOrder(() -> new HashMap<>(source));
+            long compact = retainedPerOrder(() -> LineItems.of(source, registry));
+            long order = retainedPerOrder(() -> new Order(UUID.randomUUID().toString(), "supplier-1",
+                    LineItems.of(source, registry), TimeSource.system()));
+            System.out.printf("%2d позиций: HashMap %6d Б, LineItems %6d Б; заказ целиком %6d Б (было бы %6d Б)%n",
+                    lines, legacy, compact, order, order - compact + legacy);
+        }
+
+        System.out.println("\n--- Обход позиций (сумма количеств) ---");
+        for (int round = 0; round < 2; round++) {
+            for (int lines : new int[]{5, 20, 50}) {
+                Map<Product, Integer> legacy = new HashMap<>(items(catalog, lines));
+                LineItems compact = LineItems.of(legacy, registry);
+                long[] sink = new long[1];
+                Bench.run("HashMap, " + lines + " позиций", 20, 50, 10_000, () -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        for (Map.Entry<Product, Integer> item : Collections.unmodifiableMap(legacy).entrySet()) {
+                            sink[0] += item.getValue() + item.getKey().getShelfLifeDays();
+                        }
+                    }
+                });
+                Bench.run("LineItems, " + lines + " позиций", 20, 50, 10_000, () -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        for (int line = 0; line < compact.size(); line++) {
+                            sink[0] += compact.quantity(line) + compact.product(line).getShelfLifeDays();
+                        }
+                    }
+                });
+                if (sink[0] == 42) {
+                    System.out.println();
+                }
+            }
+        }
+    }
+
+    private static Map<Product, Integer> items(List<Product> catalog, int lines) {
+        Map<Product, Integer> items = new HashMap<>();
+        for (int line = 0; line < lines; line++) {
+            items.put(catalog.get(line * 3 % catalog.size()), 10 + line * 37);
+        }
+        return items;
+    }
+
+    private static long retainedPerOrder(java.util.function.Supplier<Object> factory) {
+        Object[] retained = new Object[ORDERS];
+        long before = usedAfterGc();
+        for (int i = 0; i < ORDERS; i++) {
+            retained[i] = factory.get();
+        }
+        long after = usedAfterGc();
+        if (retained[ORDERS - 1] == null) {
+            throw new IllegalStateException();
+        }
+        return (after - before) / ORDERS;
+    }
+
+    private static long usedAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,65 @@
+package benchmark;
+
+import adapter.secondary.BufferedMessageSink;
+import adapter.secondary.NotificationService;
+import domain.model.Order;
+import domain.model.Product;
+import domain.model.ProductRegistry;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+
+// Время и память на одно уведомление: прежняя отрисовка через String.format
+// и System.out против NotificationService с шаблонами и буферизованным приемником
+public class NotificationRenderingBenchmark {
+    private static final int OPS = 10_000;
+    private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
+
+    public static void main(String[] args) {
+        Map<Product, Integer> items = new HashMap<>();
+        for (int i = 0; i < 10; i++) {
+            items.put(new Product("Продукт " + i, "Категория", "Охлажденный", 5), i + 1);
+        }
+        Order order = new Order("supplier-42", items, new ProductRegistry());
+        PrintStream legacyOut = new PrintStream(OutputStream.nullOutputStream(), true, StandardCharsets.UTF_8);
+        NotificationService service = new NotificationService(
+                new BufferedMessageSink(Channels.newChannel(OutputStream.nullOutputStream()), StandardCharsets.UTF_8),
+                Duration.ofMillis(50));
+        service.start();
+
+        for (int round = 0; round < 3; round++) {
+            Bench.run("String.format + System.out (до)", 20, 50, OPS, () -> {
+                for (int i = 0; i < OPS; i++) {
+                    legacySendOrderNotification(order, legacyOut);
+                }
+            });
+            Bench.run("NotificationService (после)", 20, 50, OPS, () -> {
+                for (int i = 0; i < OPS; i++) {
+                    service.sendOrderNotification(order);
+                }
+            });
+        }
+        service.close();
+    }
+
+    // Прежняя реализация NotificationService.sendOrderNotification
+    private static void legacySendOrderNotification(Order order, PrintStream out) {
+        String message = String.format(
+                "[%s] Уведомление для поставщика %s: Новый заказ #%s отправлен. " +
+                        "Статус: %s. Количество позиций: %d",
+                LocalDateTime.now().format(formatter),
+                order.getSupplierId(),
+                order.getId(),
+                order.getStatus().getDescription(),
+                order.getItems().size()
+        );
+        out.println(message);
+    }
+}
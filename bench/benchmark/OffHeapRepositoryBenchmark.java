@@ -0,0 +1,82 @@
+package benchmark;
+
+import adapter.secondary.InMemoryOrderRepository;
+import adapter.secondary.OffHeapOrderRepository;
+import domain.model.LineItems;
+import domain.model.Order;
+import domain.model.OrderStatus;
+import domain.model.Product;
+import domain.model.ProductRegistry;
+import domain.port.secondary.OrderRepository;
+import domain.port.secondary.TimeSource;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Заказы в куче (InMemoryOrderRepository) против OffHeapOrderRepository по мере роста хранилища:
+// занятая куча после сборки, длительность полной сборки мусора (System.gc() - грубая оценка
+// паузы, растущей с числом живых объектов) и чтение заказа по идентификатору.
+// Запуск: java -XX:+UseParallelGC -Xmx3g -XX:MaxDirectMemorySize=2g -cp <классы> benchmark.OffHeapRepositoryBenchmark
+public class OffHeapRepositoryBenchmark {
+    private static final int[] SIZES = {250_000, 500_000, 1_000_000};
+
+    public static void main(String[] args) {
+        List<Product> products = List.of(
+                new Product("Говядина", "Мясо", "Охлажденный", 5),
+                new Product("Картофель", "Овощи", "Комнатная температура", 30),
+                new Product("Сыр", "Молочные продукты", "Охлажденный", 14));
+        for (String kind : new String[]{"куча", "вне кучи"}) {
+            System.out.println("--- " + kind + " ---");
+            ProductRegistry registry = new ProductRegistry();
+            OrderRepository repository = kind.equals("куча") ? new InMemoryOrderRepository()
+                    : new OffHeapOrderRepository(registry);
+            int stored = 0;
+            for (int size : SIZES) {
+                for (; stored < size; stored++) {
+                    Order order = new Order(orderId(stored), "supplier-" + (stored % 100), LineItems.of(Map.of(
+                            products.get(0), 10, products.get(1), stored % 50 + 1, products.get(2), 3), registry),
+                            TimeSource.system()).nextVersion(TimeSource.system());
+                    order.tryTransition(OrderStatus.CONFIRMED, null);
+                    repository.save(order);
+                }
+                long heap = usedAfterGc();
+                long gcNanos = fullGcNanos();
+                int count = stored;
+                Bench.run("findById, заказов: " + count, 3, 10, 10_000, () -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < 10_000; i++) {
+                        repository.findById(orderId(random.nextInt(count))).orElseThrow();
+                    }
+                });
+                String offHeap = repository instanceof OffHeapOrderRepository store
+                        ? String.format(", вне кучи %d МБ", store.offHeapBytes() >> 20) : "";
+                System.out.printf("  заказов %,d: куча %d МБ%s, полная сборка %.1f мс%n",
+                        count, heap >> 20, offHeap, gcNanos / 1e6);
+            }
+        }
+    }
+
+    // Идентификаторы вычисляются, а не хранятся, чтобы замер кучи учитывал только хранилище
+    private static String orderId(int number) {
+        return "order-" + number;
+    }
+
+    private static long fullGcNanos() {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            System.gc();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    private static long usedAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
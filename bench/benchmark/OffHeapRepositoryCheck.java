@@ -0,0 +1,34 @@
+package benchmark;
+
+import adapter.secondary.DeterministicTimeSource;
+import adapter.secondary.InMemoryOrderRepository;
+import adapter.secondary.OffHeapOrderRepository;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+
+// Сверка OffHeapOrderRepository с InMemoryOrderRepository: одна и та же случайная
+// последовательность операций над обоими хранилищами, затем все запросы. Маленький начальный
+// размер области заставляет хранилище расти во время проверки.
+// Аргументы: число операций (по умолчанию 60000) и зерно случайной последовательности.
+// Запуск: java -cp <классы> benchmark.OffHeapRepositoryCheck
+public class OffHeapRepositoryCheck {
+    private static final int OPS = 60_000;
+
+    public static void main(String[] args) {
+        int ops = args.length > 0 ? Integer.parseInt(args[0]) : OPS;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 7;
+        LocalDateTime start = LocalDateTime.of(2026, 1, 1, 0, 0);
+        DeterministicTimeSource clock = new DeterministicTimeSource(start);
+        Checks.Operations operations = new Checks.Operations(new Random(seed), clock);
+
+        InMemoryOrderRepository expected = new InMemoryOrderRepository();
+        OffHeapOrderRepository actual = new OffHeapOrderRepository(4096);
+        for (int i = 0; i < ops; i++) {
+            operations.run(expected, actual);
+        }
+        Checks.compareQueries(expected, actual, start);
+        System.out.println("OK: " + ops + " операций, заказов " + actual.size()
+                + ", вне кучи " + actual.offHeapBytes() / 1024 + " КБ");
+    }
+}
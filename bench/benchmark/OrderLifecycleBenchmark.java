@@ -0,0 +1,188 @@
+package benchmark;
+
+import adapter.monitoring.MeteredNotificationPort;
+import adapter.monitoring.MeteredOrderRepository;
+import adapter.monitoring.MeteredOrderUseCase;
+import adapter.monitoring.OrderMetrics;
+import adapter.secondary.InMemoryOrderRepository;
+import domain.model.Order;
+import domain.model.Product;
+import domain.port.primary.OrderUseCase;
+import domain.port.secondary.NotificationPort;
+import domain.port.secondary.OrderRepository;
+import domain.service.OrderService;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Основные операции OrderService поверх InMemoryOrderRepository при 1k/100k/1M заказов,
+// в одном потоке и в нескольких. Аргументы: размеры хранилища через запятую и число потоков,
+// например "1000,100000 4". Запуск: java -Xmx4g -cp <классы> benchmark.OrderLifecycleBenchmark.
+// С -Dbench.metered=N замеряется та же цепочка с декораторами показателей, задержка
+// которых замеряется у каждого N-го вызова
+public class OrderLifecycleBenchmark {
+    private static final int SUPPLIERS = 100;
+    private static final int CATALOG_SIZE = 50;
+
+    private final List<Product> catalog = new ArrayList<>();
+    private final OrderUseCase service;
+    private final String[] orderIds;
+
+    private OrderLifecycleBenchmark(int size) {
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            catalog.add(new Product("Продукт " + i, "Категория " + (i % 5), "Охлажденный", 5));
+        }
+        Integer meteredSampleRate = Integer.getInteger("bench.metered");
+        if (meteredSampleRate != null) {
+            OrderMetrics metrics = new OrderMetrics(meteredSampleRate);
+            OrderRepository repository = new MeteredOrderRepository(new InMemoryOrderRepository(), metrics);
+            NotificationPort notifications = new MeteredNotificationPort(new SilentNotifications(), metrics);
+            service = new MeteredOrderUseCase(new OrderService(repository, notifications), metrics);
+        } else {
+            service = new OrderService(new InMemoryOrderRepository(), new SilentNotifications());
+        }
+        orderIds = new String[size];
+        for (int i = 0; i < size; i++) {
+            orderIds[i] = service.createOrder(supplier(i), items(i)).getId();
+        }
+    }
+
+    public static void main(String[] args) {
+        int[] sizes = {1_000, 100_000, 1_000_000};
+        if (args.length > 0) {
+            String[] parts = args[0].split(",");
+            sizes = new int[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                sizes[i] = Integer.parseInt(parts[i].trim());
+            }
+        }
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Math.max(2, Runtime.getRuntime().availableProcessors());
+
+        System.out.println("JDK " + Runtime.version() + ", процессоров: " + Runtime.getRuntime().availableProcessors()
+                + ", потоков в параллельных замерах: " + threads);
+        for (int size : sizes) {
+            System.out.println("\n--- " + size + " заказов ---");
+            new OrderLifecycleBenchmark(size).runAll(size, threads);
+            System.gc();
+        }
+    }
+
+    private void runAll(int size, int threads) {
+        int scanOps = Math.max(1, 100_000 / size);
+        int supplierOps = Math.max(1, 10_000_000 / size);
+
+        Bench.run("findById [1 поток]", 50, 20, 10_000, lookups(0));
+        Bench.runConcurrent("findById [" + threads + " потоков]", threads, 50, 20, 10_000, this::lookups);
+
+        Bench.run("findBySupplier [1 поток]", 20, 10, supplierOps, supplierScans(0, supplierOps));
+        Bench.runConcurrent("findBySupplier [" + threads + " потоков]", threads, 20, 10, supplierOps,
+                thread -> supplierScans(thread, supplierOps));
+
+        Bench.run("getAllOrders [1 поток]", 10, 5, scanOps, fullScans(scanOps));
+        Bench.runConcurrent("getAllOrders [" + threads + " потоков]", threads, 10, 5, scanOps,
+                thread -> fullScans(scanOps));
+
+        // Создание и переходы добавляют заказы, поэтому идут после операций чтения
+        Bench.run("createOrder [1 поток]", 20, 10, 1_000, creations(0));
+        Bench.runConcurrent("createOrder [" + threads + " потоков]", threads, 20, 10, 1_000, this::creations);
+
+        Bench.run("CREATED→COMPLETED, 8 операций [1 поток]", 20, 10, 500, lifecycles(0));
+        Bench.runConcurrent("CREATED→COMPLETED, 8 операций [" + threads + " потоков]", threads, 20, 10, 500,
+                this::lifecycles);
+    }
+
+    private Runnable lookups(int thread) {
+        int[] cursor = {thread * 7_919};
+        return () -> {
+            int position = cursor[0];
+            for (int i = 0; i < 10_000; i++) {
+                position = (position + 104_729) % orderIds.length;
+                if (service.getOrderById(orderIds[position]).isEmpty()) {
+                    throw new IllegalStateException("Заказ не найден: " + orderIds[position]);
+                }
+            }
+            cursor[0] = position;
+        };
+    }
+
+    private Runnable supplierScans(int thread, int ops) {
+        int[] cursor = {thread};
+        return () -> {
+            for (int i = 0; i < ops; i++) {
+                service.getOrdersBySupplier(supplier(cursor[0]++));
+            }
+        };
+    }
+
+    private Runnable fullScans(int ops) {
+        return () -> {
+            for (int i = 0; i < ops; i++) {
+                service.getAllOrders();
+            }
+        };
+    }
+
+    private Runnable creations(int thread) {
+        int[] cursor = {thread};
+        return () -> {
+            for (int i = 0; i < 1_000; i++) {
+                int n = cursor[0]++;
+                service.createOrder(supplier(n), items(n));
+            }
+        };
+    }
+
+    private Runnable lifecycles(int thread) {
+        int[] cursor = {thread};
+        return () -> {
+            for (int i = 0; i < 500; i++) {
+                int n = cursor[0]++;
+                String id = service.createOrder(supplier(n), items(n)).getId();
+                service.confirmOrder(id);
+                service.sendOrderToSupplier(id);
+                service.markOrderInTransit(id);
+                service.markOrderDelivered(id);
+                service.startQualityCheck(id);
+                service.acceptDelivery(id, "Соответствует");
+                service.completeOrder(id);
+            }
+        };
+    }
+
+    private static String supplier(int n) {
+        return "supplier-" + (n % SUPPLIERS);
+    }
+
+    private Map<Product, Integer> items(int n) {
+        Map<Product, Integer> items = new HashMap<>();
+        for (int i = 0; i < 3; i++) {
+            items.put(catalog.get((n + i * 17) % CATALOG_SIZE), 1 + (n + i) % 10);
+        }
+        return items;
+    }
+
+    // Замеряется работа домена и хранилища, а не вывод уведомлений
+    static final class SilentNotifications implements NotificationPort {
+        @Override
+        public boolean sendOrderNotification(Order order) {
+            return true;
+        }
+
+        @Override
+        public boolean sendCancellationNotification(Order order, String reason) {
+            return true;
+        }
+
+        @Override
+        public boolean sendReturnNotification(Order order, String reason) {
+            return true;
+        }
+
+        @Override
+        public boolean requestOrderConfirmation(Order order) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package benchmark;
+
+import adapter.secondary.InMemoryOrderRepository;
+import adapter.secondary.OffHeapOrderRepository;
+import adapter.secondary.OrderTransfer;
+import domain.model.AuditTrail;
+import domain.model.LineItems;
+import domain.model.Order;
+import domain.model.OrderStatus;
+import domain.model.Product;
+import domain.model.ProductRegistry;
+import domain.port.secondary.TimeSource;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+// Выгрузка и загрузка миллиона заказов в обоих форматах. Заказы для выгрузки создаются по мере
+// обхода потока, загрузка идет во внекучевое хранилище, поэтому куча не должна расти с числом
+// заказов - это видно при запуске с маленькой кучей:
+// java -Xmx128m -XX:MaxDirectMemorySize=2g -cp <классы> benchmark.OrderTransferBenchmark
+public class OrderTransferBenchmark {
+    private static final int ORDERS = 1_000_000;
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    public static void main(String[] args) throws IOException {
+        Product beef = new Product("Говядина", "Мясо", "Охлажденный", 5);
+        Product milk = new Product("Молоко", "Молочные продукты", "Охлажденный", 7);
+        ProductRegistry registry = new ProductRegistry();
+        LineItems items = LineItems.of(Map.of(beef, 10, milk, 3), registry);
+        long createdAt = TimeSource.toMillis(LocalDateTime.of(2026, 1, 1, 10, 0));
+        AuditTrail confirmed = AuditTrail.empty().append(LocalDateTime.of(2026, 1, 1, 12, 0),
+                OrderStatus.CREATED, OrderStatus.CONFIRMED, null);
+
+        Path directory = Files.createTempDirectory("order-transfer-bench");
+        try {
+            for (OrderTransfer.Format format : OrderTransfer.Format.values()) {
+                String name = format == OrderTransfer.Format.JSON_LINES ? "orders.jsonl" : "orders.bin";
+                Path file = directory.resolve(name);
+                long heapBefore = usedHeapAfterGc();
+
+                long start = System.nanoTime();
+                Stream<Order> orders = LongStream.range(0, ORDERS).mapToObj(i -> new Order("order-" + i,
+                        "supplier-" + (i % 500), OrderStatus.CONFIRMED, createdAt + i, createdAt + i + 1000, items,
+                        "", null, 1, confirmed));
+                long exported = OrderTransfer.exportOrders(orders, file, format);
+                report("выгрузка " + format, exported, System.nanoTime() - start, heapBefore);
+                System.out.printf("  размер файла: %d МБ%n", Files.size(file) >> 20);
+
+                start = System.nanoTime();
+                long parsed = OrderTransfer.importOrders(file, format, new DiscardingRepository(), registry);
+                report("разбор " + format + " без сохранения", parsed, System.nanoTime() - start, heapBefore);
+
+                OffHeapOrderRepository target = new OffHeapOrderRepository(registry);
+                start = System.nanoTime();
+                long imported = OrderTransfer.importOrders(file, format, target, registry);
+                report("загрузка " + format + " в OffHeapOrderRepository", imported, System.nanoTime() - start,
+                        heapBefore);
+                System.out.printf("  вне кучи: %d МБ%n", target.offHeapBytes() >> 20);
+            }
+        } finally {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : files.toList()) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+    }
+
+    private static void report(String name, long orders, long elapsedNanos, long heapBefore) {
+        System.out.printf("%-50s %8.2f с %10.0f заказов/с, прирост кучи после GC %d МБ%n", name,
+                elapsedNanos / 1e9, orders / (elapsedNanos / 1e9), (usedHeapAfterGc() - heapBefore) >> 20);
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        return MEMORY.getHeapMemoryUsage().getUsed();
+    }
+
+    // Только разбор: загруженные заказы сразу отбрасываются
+    private static final class DiscardingRepository extends InMemoryOrderRepository {
+        @Override
+        public void saveAll(List<Order> orders) {
+        }
+    }
+}
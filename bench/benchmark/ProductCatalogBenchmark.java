@@ -0,0 +1,81 @@
+package benchmark;
+
+import adapter.secondary.InMemoryProductCatalog;
+import domain.model.Product;
+import domain.port.secondary.ProductCatalog;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+// Загрузка каталога на 100k+ SKU и разрешение продукта при создании заказа:
+// прежний поиск в Map<String, Product> по строковому идентификатору против номера в каталоге.
+// Запуск: java -Xmx2g -cp <классы> benchmark.ProductCatalogBenchmark [размер...]
+public class ProductCatalogBenchmark {
+    private static final int LOOKUPS = 100_000;
+
+    public static void main(String[] args) {
+        int[] sizes = args.length == 0 ? new int[]{100_000, 1_000_000} : parseSizes(args);
+        for (int size : sizes) {
+            System.out.println("--- Каталог на " + size + " продуктов ---");
+            List<Product> products = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                products.add(new Product("SKU " + i, "Категория " + (i % 50), "Охлажденный", 1 + i % 30));
+            }
+
+            long start = System.nanoTime();
+            ProductCatalog catalog = new InMemoryProductCatalog();
+            int[] numbers = catalog.addAll(products);
+            System.out.printf("Пакетная загрузка: %d мс%n", (System.nanoTime() - start) / 1_000_000);
+
+            Map<String, Product> legacy = new HashMap<>();
+            for (Product product : products) {
+                legacy.put(product.getId(), product);
+            }
+            String[] ids = new String[LOOKUPS];
+            int[] requested = new int[LOOKUPS];
+            for (int i = 0; i < LOOKUPS; i++) {
+                int pick = (int) ((i * 2_654_435_761L) % size);
+                ids[i] = products.get(pick).getId();
+                requested[i] = numbers[pick];
+            }
+
+            long[] sink = new long[1];
+            for (int round = 0; round < 2; round++) {
+                Bench.run("Map<String, Product>.get(id)", 5, 20, LOOKUPS, () -> {
+                    for (String id : ids) {
+                        sink[0] += legacy.get(id).getShelfLifeDays();
+                    }
+                });
+                Bench.run("ProductCatalog.get(номер)", 5, 20, LOOKUPS, () -> {
+                    for (int number : requested) {
+                        sink[0] += catalog.get(number).getShelfLifeDays();
+                    }
+                });
+                Bench.run("Objects.hash(id) (прежний Product.hashCode)", 5, 20, LOOKUPS, () -> {
+                    for (int i = 0; i < LOOKUPS; i++) {
+                        sink[0] += Objects.hash(products.get(i % size).getId());
+                    }
+                });
+                Bench.run("Product.hashCode (кэшированный)", 5, 20, LOOKUPS, () -> {
+                    for (int i = 0; i < LOOKUPS; i++) {
+                        sink[0] += products.get(i % size).hashCode();
+                    }
+                });
+            }
+            if (sink[0] == 42) {
+                System.out.println();
+            }
+        }
+    }
+
+    private static int[] parseSizes(String[] args) {
+        int[] sizes = new int[args.length];
+        for (int i = 0; i < args.length; i++) {
+            sizes[i] = Integer.parseInt(args[i]);
+        }
+        return sizes;
+    }
+}
@@ -0,0 +1,93 @@
+package benchmark;
+
+import adapter.secondary.InMemoryOrderRepository;
+import adapter.secondary.ShardedOrderRepository;
+import domain.model.Order;
+import domain.model.OrderStatus;
+import domain.model.Product;
+import domain.port.secondary.OrderRepository;
+import domain.service.OrderService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Одно хранилище в памяти против разделенного по поставщикам на SHARDS шардов.
+// Запись: каждый поток создает и подтверждает заказы своих поставщиков; пропускная способность
+// замеряется при 1, 2, 4, ... потоках до удвоенного числа ядер. Чтение: запросы по статусу
+// и по поставщику на ORDERS заказах - первые выполняются во всех шардах параллельно, - и чтение
+// по идентификатору, которое находит шард по карте идентификаторов.
+// Ради чего шарды и нужны - рост записи с числом потоков - виден только на многоядерной машине:
+// на одном ядре потоки выполняются по очереди, и замер показывает лишь накладные расходы шардов.
+// Для выводов о масштабировании запускайте на машине хотя бы с 4 ядрами
+// Запуск: java -cp <классы> benchmark.ShardedRepositoryBenchmark
+public class ShardedRepositoryBenchmark {
+    private static final int SHARDS = 16;
+    private static final int OPS = 2_000;
+    private static final int ORDERS = 200_000;
+
+    public static void main(String[] args) {
+        Product beef = new Product("Говядина", "Мясо", "Охлажденный", 5);
+        Map<Product, Integer> items = Map.of(beef, 10);
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.println("Ядер: " + cores);
+        if (cores < 4) {
+            System.out.println("Ядер меньше 4: рост записи с числом потоков этот запуск не покажет");
+        }
+
+        List<Integer> threadCounts = new ArrayList<>();
+        for (int threads = 1; threads <= Math.max(2, cores * 2); threads *= 2) {
+            threadCounts.add(threads);
+        }
+        writeThroughput("одно хранилище", InMemoryOrderRepository::new, threadCounts, items);
+        writeThroughput(SHARDS + " шардов", () -> new ShardedOrderRepository(SHARDS), threadCounts, items);
+
+        long[] sink = new long[1];
+        for (OrderRepository repository : List.of(new InMemoryOrderRepository(), new ShardedOrderRepository(SHARDS))) {
+            String name = repository instanceof ShardedOrderRepository ? SHARDS + " шардов" : "одно хранилище";
+            OrderService service = new OrderService(repository, new OrderLifecycleBenchmark.SilentNotifications());
+            String[] ids = new String[ORDERS];
+            for (int i = 0; i < ORDERS; i++) {
+                Order order = service.createOrder("supplier-" + (i % 1000), items);
+                ids[i] = order.getId();
+                if (i % 2 == 0) {
+                    service.confirmOrder(order.getId());
+                }
+            }
+            Bench.run("findByStatus, " + name, 10, 30, 1,
+                    () -> sink[0] += repository.findByStatus(OrderStatus.CONFIRMED).size());
+            Bench.run("findAll, " + name, 10, 30, 1, () -> sink[0] += repository.findAll().size());
+            Bench.run("findBySupplier, " + name, 1_000, 10_000, 1,
+                    () -> sink[0] += repository.findBySupplier("supplier-42").size());
+            Bench.run("findById, " + name, 5, 20, 10_000, () -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 10_000; i++) {
+                    sink[0] += repository.findById(ids[random.nextInt(ORDERS)]).orElseThrow().getVersion();
+                }
+            });
+        }
+        if (sink[0] == 42) {
+            System.out.println();
+        }
+    }
+
+    private static void writeThroughput(String name, Supplier<OrderRepository> repositories, List<Integer> threadCounts,
+                                        Map<Product, Integer> items) {
+        for (int threads : threadCounts) {
+            OrderService service = new OrderService(repositories.get(),
+                    new OrderLifecycleBenchmark.SilentNotifications());
+            AtomicLong next = new AtomicLong();
+            Bench.Result result = Bench.runConcurrent("создание и подтверждение, " + name + ", " + threads
+                    + " потоков", threads, 1, 5, OPS, thread -> () -> {
+                        for (int i = 0; i < OPS; i++) {
+                            String supplierId = "supplier-" + thread + "-" + (next.incrementAndGet() % 64);
+                            service.confirmOrder(service.createOrder(supplierId, items).getId());
+                        }
+                    });
+            System.out.printf("  %.0f операций/с%n", 1e9 / result.nanosPerOp());
+        }
+    }
+}
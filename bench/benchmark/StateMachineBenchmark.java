@@ -0,0 +1,71 @@
+package benchmark;
+
+import domain.model.LineItems;
+import domain.model.Order;
+import domain.model.OrderStatus;
+import domain.model.Product;
+import domain.model.ProductRegistry;
+import domain.model.TransitionCode;
+import domain.port.secondary.TimeSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Отбор заказов, которые можно подтвердить, среди кандидатов в смешанных статусах:
+// прежний способ (попытка перехода и перехват IllegalStateException) против проверки
+// по таблице переходов и tryTransition.
+// Запуск: java -cp <классы> benchmark.StateMachineBenchmark
+public class StateMachineBenchmark {
+    private static final int CANDIDATES = 10_000;
+
+    public static void main(String[] args) {
+        TimeSource clock = TimeSource.system();
+        LineItems items = LineItems.of(Map.of(new Product("Говядина", "Мясо", "Охлажденный", 5), 10),
+                new ProductRegistry());
+        List<Order> candidates = new ArrayList<>(CANDIDATES);
+        for (int i = 0; i < CANDIDATES; i++) {
+            Order order = new Order("order-" + i, "supplier", items, clock).nextVersion(clock);
+            // Три четверти кандидатов уже подтверждены или дальше - переход для них недопустим
+            if (i % 4 != 0) {
+                order.tryTransition(OrderStatus.CONFIRMED, null);
+            }
+            if (i % 4 == 3) {
+                order.tryTransition(OrderStatus.SENT, null);
+            }
+            candidates.add(order.seal());
+        }
+
+        long[] sink = new long[1];
+        for (int round = 0; round < 2; round++) {
+            Bench.run("throw + catch IllegalStateException", 10, 20, CANDIDATES, () -> {
+                for (Order candidate : candidates) {
+                    Order next = candidate.nextVersion(clock);
+                    try {
+                        if (next.tryTransition(OrderStatus.CONFIRMED, null) != TransitionCode.APPLIED) {
+                            throw Order.transitionError(OrderStatus.CONFIRMED);
+                        }
+                        sink[0]++;
+                    } catch (IllegalStateException e) {
+                        sink[0]--;
+                    }
+                }
+            });
+            Bench.run("canTransitionTo + tryTransition", 10, 20, CANDIDATES, () -> {
+                for (Order candidate : candidates) {
+                    if (!candidate.getStatus().canTransitionTo(OrderStatus.CONFIRMED)) {
+                        sink[0]--;
+                        continue;
+                    }
+                    Order next = candidate.nextVersion(clock);
+                    if (next.tryTransition(OrderStatus.CONFIRMED, null) == TransitionCode.APPLIED) {
+                        sink[0]++;
+                    }
+                }
+            });
+        }
+        if (sink[0] == 42) {
+            System.out.println();
+        }
+    }
+}
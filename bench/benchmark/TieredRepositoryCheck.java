@@ -0,0 +1,125 @@
+package benchmark;
+
+import adapter.secondary.DeterministicTimeSource;
+import adapter.secondary.InMemoryOrderRepository;
+import adapter.secondary.TieredOrderRepository;
+import domain.model.Order;
+import domain.model.ProductRegistry;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Сверка TieredOrderRepository с InMemoryOrderRepository, в котором заказы никогда не
+// архивируются. Раз в DAY операций часы сдвигаются на сутки и выполняется проход архивации.
+// Заархивированные заказы должны находиться по идентификатору без изменений, не изменяться
+// сохранением с проверкой версии, удаляться и переживать перезапуск над тем же каталогом архива.
+// Аргументы: число операций (по умолчанию 20000) и зерно случайной последовательности.
+// Запуск: java -cp <классы> benchmark.TieredRepositoryCheck
+public class TieredRepositoryCheck {
+    private static final int OPS = 20_000;
+    private static final int DAY = 500;
+    private static final Duration MIN_AGE = Duration.ofDays(7);
+
+    public static void main(String[] args) throws IOException {
+        int ops = args.length > 0 ? Integer.parseInt(args[0]) : OPS;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 7;
+        Random random = new Random(seed);
+        DeterministicTimeSource clock = new DeterministicTimeSource(LocalDateTime.of(2026, 1, 1, 0, 0));
+        Checks.Operations operations = new Checks.Operations(random, clock);
+        InMemoryOrderRepository expected = new InMemoryOrderRepository();
+        InMemoryOrderRepository live = new InMemoryOrderRepository();
+
+        Path directory = Files.createTempDirectory("archive-check");
+        try {
+            TieredOrderRepository tiered = new TieredOrderRepository(live, directory, MIN_AGE, clock,
+                    new ProductRegistry());
+            int archived = 0;
+            int rejected = 0;
+            int deletedArchived = 0;
+            for (int i = 1; i <= ops; i++) {
+                if (i % DAY == 0) {
+                    clock.advance(Duration.ofDays(1));
+                    archived += tiered.archive();
+                }
+                int operation = random.nextInt(10);
+                if (operation < 3 || operations.ids.isEmpty()) {
+                    Order order = operations.create();
+                    expected.save(order);
+                    tiered.save(order);
+                    operations.ids.add(order.getId());
+                } else if (operation < 7) {
+                    Order current = expected.findById(operations.randomId()).orElseThrow();
+                    Order next = operations.change(current);
+                    if (live.findById(current.getId()).isPresent()) {
+                        Checks.require(tiered.save(next, current.getVersion()) == expected.save(next,
+                                current.getVersion()), "save с версией " + current.getId());
+                    } else {
+                        Checks.require(!tiered.save(next, current.getVersion()),
+                                "сохранен заархивированный заказ " + current.getId());
+                        rejected++;
+                    }
+                } else if (operation < 8) {
+                    String id = operations.ids.remove(random.nextInt(operations.ids.size()));
+                    if (live.findById(id).isEmpty()) {
+                        deletedArchived++;
+                    }
+                    expected.delete(id);
+                    tiered.delete(id);
+                    Checks.require(tiered.findById(id).isEmpty(), "удаленный заказ найден " + id);
+                } else {
+                    String id = operations.randomId();
+                    Checks.require(Objects.equals(expected.findById(id).map(Checks::fingerprint),
+                            tiered.findById(id).map(Checks::fingerprint)), "findById " + id);
+                }
+            }
+            Checks.require(archived > 0 && deletedArchived > 0, "за " + ops + " операций архив не использовался");
+            compare(expected, live, tiered, operations.ids);
+            tiered.close();
+
+            tiered = new TieredOrderRepository(live, directory, MIN_AGE, clock, new ProductRegistry());
+            compare(expected, live, tiered, operations.ids);
+            tiered.close();
+            System.out.println("OK: " + ops + " операций, заархивировано " + archived + ", отклонено изменений "
+                    + rejected + ", удалено из архива " + deletedArchived + ", заказов " + expected.findAll().size());
+        } finally {
+            deleteRecursively(directory);
+        }
+    }
+
+    // Живые заказы - в живом хранилище, все вместе - в streamWithArchived, любой - по идентификатору
+    private static void compare(InMemoryOrderRepository expected, InMemoryOrderRepository live,
+                                TieredOrderRepository tiered, List<String> ids) {
+        Map<String, String> all = expected.findAll().stream()
+                .collect(Collectors.toMap(Order::getId, Checks::fingerprint));
+        try (Stream<Order> orders = tiered.streamWithArchived()) {
+            Map<String, String> actual = orders.collect(Collectors.toMap(Order::getId, Checks::fingerprint));
+            Checks.require(all.equals(actual), "streamWithArchived");
+        }
+        Checks.require(Checks.fingerprints(live.findAll()).equals(Checks.fingerprints(tiered.findAll())), "findAll");
+        for (String id : ids) {
+            Checks.require(Objects.equals(all.get(id), tiered.findById(id).map(Checks::fingerprint).orElse(null)),
+                    "findById " + id);
+        }
+        Checks.require(Checks.fingerprints(expected.findAllById(ids).values()).equals(
+                Checks.fingerprints(tiered.findAllById(ids).values())), "findAllById");
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            List<Path> paths = files.sorted(Comparator.reverseOrder()).toList();
+            for (Path path : paths) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
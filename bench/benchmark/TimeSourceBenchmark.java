@@ -0,0 +1,69 @@
+package benchmark;
+
+import adapter.secondary.CachedTimeSource;
+import domain.model.LineItems;
+import domain.model.Order;
+import domain.model.OrderStatus;
+import domain.model.Product;
+import domain.model.ProductRegistry;
+import domain.port.secondary.TimeSource;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+// Стоимость получения текущего времени для заказов: LocalDateTime.now() против
+// TimeSource.system() и CachedTimeSource, а также цепочка переходов заказа с этими часами
+// (каждый переход - новая версия, время которой читается из часов).
+// Запуск: java -cp <классы> benchmark.TimeSourceBenchmark
+public class TimeSourceBenchmark {
+    private static final int OPS = 100_000;
+    private static final OrderStatus[] LIFECYCLE = {OrderStatus.CONFIRMED, OrderStatus.SENT, OrderStatus.IN_TRANSIT,
+            OrderStatus.DELIVERED, OrderStatus.QUALITY_CHECK, OrderStatus.ACCEPTED, OrderStatus.COMPLETED};
+
+    public static void main(String[] args) {
+        TimeSource system = TimeSource.system();
+        TimeSource cached = new CachedTimeSource();
+        long[] sink = new long[1];
+        Map<Product, Integer> items = Map.of(new Product("Говядина", "Мясо", "Охлажденный", 5), 10);
+        ProductRegistry registry = new ProductRegistry();
+
+        for (int round = 0; round < 2; round++) {
+            Bench.run("LocalDateTime.now()", 20, 20, OPS, () -> {
+                for (int i = 0; i < OPS; i++) {
+                    sink[0] += LocalDateTime.now().getNano();
+                }
+            });
+            Bench.run("TimeSource.system().currentMillis()", 20, 20, OPS, () -> {
+                for (int i = 0; i < OPS; i++) {
+                    sink[0] += system.currentMillis();
+                }
+            });
+            Bench.run("CachedTimeSource.currentMillis()", 20, 20, OPS, () -> {
+                for (int i = 0; i < OPS; i++) {
+                    sink[0] += cached.currentMillis();
+                }
+            });
+            Bench.run("CachedTimeSource.now()", 20, 20, OPS, () -> {
+                for (int i = 0; i < OPS; i++) {
+                    sink[0] += cached.now().getNano();
+                }
+            });
+            for (TimeSource clock : new TimeSource[]{system, cached}) {
+                String name = clock == system ? "system" : "cached";
+                Bench.run("заказ CREATED->COMPLETED, часы " + name, 20, 20, OPS / 10, () -> {
+                    for (int i = 0; i < OPS / 10; i++) {
+                        Order order = new Order("id", "supplier", LineItems.of(items, registry), clock);
+                        for (OrderStatus target : LIFECYCLE) {
+                            order = order.nextVersion(clock);
+                            order.tryTransition(target, "ok");
+                        }
+                        sink[0] += order.getUpdatedAtMillis();
+                    }
+                });
+            }
+        }
+        if (sink[0] == 42) {
+            System.out.println();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package benchmark;
+
+import adapter.secondary.DeterministicTimeSource;
+import adapter.secondary.InMemoryOrderRepository;
+import adapter.secondary.WalOrderRepository;
+import domain.model.ProductRegistry;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+// Сверка WalOrderRepository с InMemoryOrderRepository: случайные операции со снимком в середине,
+// затем перезапуск из снимка и журнала, затем перезапуск с оборванной записью в хвосте последнего
+// сегмента - она должна отбрасываться, а следующие записи и перезапуски работать как обычно.
+// Сегменты маленькие, чтобы журнал переключал их во время проверки.
+// Аргументы: число операций (по умолчанию 5000 - каждая ждет fsync) и зерно случайной последовательности.
+// Запуск: java -cp <классы> benchmark.WalRepositoryCheck
+public class WalRepositoryCheck {
+    private static final int OPS = 5_000;
+    private static final long SEGMENT_SIZE = 1 << 16;
+
+    public static void main(String[] args) throws IOException {
+        int ops = args.length > 0 ? Integer.parseInt(args[0]) : OPS;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 7;
+        LocalDateTime start = LocalDateTime.of(2026, 1, 1, 0, 0);
+        DeterministicTimeSource clock = new DeterministicTimeSource(start);
+        Checks.Operations operations = new Checks.Operations(new Random(seed), clock);
+        InMemoryOrderRepository expected = new InMemoryOrderRepository();
+
+        Path directory = Files.createTempDirectory("wal-check");
+        try {
+            WalOrderRepository wal = new WalOrderRepository(directory, SEGMENT_SIZE, new ProductRegistry());
+            for (int i = 0; i < ops; i++) {
+                if (i == ops / 2) {
+                    wal.snapshot();
+                }
+                operations.run(expected, wal);
+            }
+            Checks.compareQueries(expected, wal, start);
+            wal.close();
+
+            wal = new WalOrderRepository(directory, SEGMENT_SIZE, new ProductRegistry());
+            Checks.compareQueries(expected, wal, start);
+            wal.close();
+
+            appendTornRecord(directory);
+            wal = new WalOrderRepository(directory, SEGMENT_SIZE, new ProductRegistry());
+            Checks.compareQueries(expected, wal, start);
+            for (int i = 0; i < ops / 10; i++) {
+                operations.run(expected, wal);
+            }
+            wal.close();
+            wal = new WalOrderRepository(directory, SEGMENT_SIZE, new ProductRegistry());
+            Checks.compareQueries(expected, wal, start);
+            wal.close();
+            System.out.println("OK: " + (ops + ops / 10) + " операций, заказов " + expected.findAll().size()
+                    + ", три перезапуска, один с оборванной записью");
+        } finally {
+            deleteRecursively(directory);
+        }
+    }
+
+    // Заголовок записи с длиной в пределах файла и неверной контрольной суммой, затем часть данных
+    private static void appendTornRecord(Path directory) throws IOException {
+        Path last;
+        try (Stream<Path> files = Files.list(directory)) {
+            last = files.filter(file -> file.getFileName().toString().matches("wal-.*\\.log"))
+                    .max(Comparator.naturalOrder())
+                    .orElseThrow(() -> new IllegalStateException("В " + directory + " нет сегментов журнала"));
+        }
+        ByteBuffer torn = ByteBuffer.allocate(24).putInt(16).putInt(0x5EED).put(new byte[16]).flip();
+        try (FileChannel channel = FileChannel.open(last, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (torn.hasRemaining()) {
+                channel.write(torn);
+            }
+        }
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            List<Path> paths = files.sorted(Comparator.reverseOrder()).toList();
+            for (Path path : paths) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
@@ -1,51 +1,241 @@
+import adapter.monitoring.MeteredNotificationPort;
+import adapter.monitoring.MeteredOrderRepository;
+import adapter.monitoring.MeteredOrderUseCase;
+import adapter.monitoring.OrderMetrics;
 import adapter.primary.ConsoleUI;
+import adapter.primary.HttpOrderServer;
 import adapter.primary.RestApi;
+import adapter.secondary.AsyncNotificationDispatcher;
+import adapter.secondary.CachingOrderRepository;
+import adapter.secondary.CachedTimeSource;
 import adapter.secondary.InMemoryOrderRepository;
+import adapter.secondary.InMemoryProductCatalog;
 import adapter.secondary.NotificationService;
+import adapter.secondary.OffHeapOrderRepository;
+import adapter.secondary.OrderTransfer;
+import adapter.secondary.RingBufferEventBus;
+import adapter.secondary.ShardedOrderRepository;
+import adapter.secondary.SnowflakeIdGenerator;
+import adapter.secondary.TieredOrderRepository;
+import adapter.secondary.WalOrderRepository;
 import domain.model.Order;
 import domain.model.Product;
+import domain.model.ProductRegistry;
+import domain.port.primary.OrderDashboardQuery;
 import domain.port.primary.OrderUseCase;
-import domain.port.secondary.NotificationPort;
+import domain.port.secondary.IdGenerator;
 import domain.port.secondary.OrderRepository;
+import domain.port.secondary.ProductCatalog;
+import domain.port.secondary.TimeSource;
+import domain.service.IdempotencyCache;
+import domain.service.OrderEventNotifier;
+import domain.service.OrderProjections;
 import domain.service.OrderService;
 
 
-import java.util.HashMap;
-import java.util.Map;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
 
 public class Main {
     public static void main(String[] args) {
-        OrderRepository orderRepository = new InMemoryOrderRepository();
-        NotificationPort notificationService = new NotificationService();
+        OrderMetrics metrics = new OrderMetrics(Integer.getInteger("orders.metrics.latencySampleRate", 1));
+        TimeSource clock = new CachedTimeSource();
+        // Один реестр продуктов на хранилище, проекции, каталог и сервис: составы заказов не перекладываются
+        ProductRegistry products = new ProductRegistry();
+        OrderRepository storage = createOrderRepository(clock, products);
+        OrderRepository orderRepository = new MeteredOrderRepository(withCache(storage), metrics);
+        importOrders(orderRepository, products);
+        NotificationService notificationOutput = new NotificationService(clock);
+        notificationOutput.start();
+        AsyncNotificationDispatcher notificationService =
+                new AsyncNotificationDispatcher(new MeteredNotificationPort(notificationOutput, metrics));
 
-        OrderUseCase orderService = new OrderService(orderRepository, notificationService);
+        // Номер узла (-Dorders.id.node=...) должен быть своим у каждого экземпляра, пишущего в общее хранилище
+        IdGenerator idGenerator = new SnowflakeIdGenerator(Integer.getInteger("orders.id.node", 0));
+        // Проекции пересчитываются по заказам из журнала и архива до первой операции сервиса
+        OrderProjections projections = new OrderProjections(products);
+        if (storage instanceof TieredOrderRepository tiered) {
+            projections.rebuild(tiered.streamWithArchived());
+        } else {
+            projections.rebuild(orderRepository);
+        }
+        // Уведомления и проекции получают события заказов из шины в своих потоках, вне пути перехода;
+        // емкость кольца (степень двойки) задается -Dorders.events.capacity=...
+        OrderEventNotifier notifier = new OrderEventNotifier(notificationService);
+        RingBufferEventBus events = new RingBufferEventBus(
+                Integer.getInteger("orders.events.capacity", RingBufferEventBus.DEFAULT_CAPACITY),
+                List.of(projections, notifier));
+        OrderService service = OrderService.builder(orderRepository)
+                .events(events)
+                .idGenerator(idGenerator)
+                .clock(clock)
+                .idempotencyCache(new IdempotencyCache(clock))
+                .productRegistry(products)
+                .build();
+        OrderUseCase orderService = new MeteredOrderUseCase(service, metrics);
+        startMetricsDump(metrics);
 
-        ConsoleUI consoleUI = new ConsoleUI(orderService);
-        RestApi restApi = new RestApi(orderService);
+        ProductCatalog productCatalog = createProductCatalog(idGenerator, products);
+        ConsoleUI consoleUI = new ConsoleUI(orderService, productCatalog);
+        RestApi restApi = new RestApi(orderService, productCatalog);
 
         System.out.println("======== Система управления заказами поставщикам FastFood Network ========");
         System.out.println("Демонстрация гексагональной архитектуры (портов и адаптеров)\n");
 
-        demonstrateRestApi(restApi);
+        demonstrateRestApi(restApi, productCatalog);
+        events.awaitConsumed(Duration.ofSeconds(5));
+        printDashboard(projections, productCatalog);
+
+        HttpOrderServer httpServer = startHttpServer(orderService, productCatalog);
 
         System.out.println("\n\nЗапуск консольного интерфейса...\n");
         consoleUI.start();
+
+        if (httpServer != null) {
+            httpServer.close();
+        }
+        exportOrders(storage);
+        events.close();
+        notificationService.close();
+        notificationOutput.close();
+        printMetrics(metrics, events, notifier, notificationService);
+        // Журнал и архив закрываются, чтобы остановить фоновые снимки и архивацию и дописать записи
+        if (storage instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                System.err.println("Не удалось закрыть хранилище заказов: " + e.getMessage());
+            }
+        }
+        metrics.close();
     }
 
-    private static void demonstrateRestApi(RestApi restApi) {
-        System.out.println("--- Демонстрация REST API ---");
+    // Сбои доставки событий и уведомлений видны только в этих счетчиках, поэтому при выходе
+    // они выводятся в stderr вместе с отчетом по операциям
+    private static void printMetrics(OrderMetrics metrics, RingBufferEventBus events, OrderEventNotifier notifier,
+                                     AsyncNotificationDispatcher notifications) {
+        System.err.println(metrics.report());
+        System.err.println("Шина событий: " + events.metrics());
+        System.err.println("Уведомления: " + notifications.metrics() + ", событий с ошибкой уведомления: "
+                + notifier.failedEvents());
+    }
 
-        Map<String, Product> productCatalog = createDemoProductCatalog();
+    // Если задан интервал в секундах (-Dorders.metrics.dumpInterval=...), показатели
+    // операций периодически выводятся в stderr, чтобы не смешиваться с консольным меню
+    private static void startMetricsDump(OrderMetrics metrics) {
+        String interval = System.getProperty("orders.metrics.dumpInterval");
+        if (interval == null || interval.isBlank()) {
+            return;
+        }
+        metrics.startPeriodicDump(Duration.ofSeconds(Long.parseLong(interval)), System.err::println);
+    }
 
-        Map<String, Integer> orderItems = new HashMap<>();
-        for (String productId : productCatalog.keySet()) {
-            if (orderItems.size() < 3) {
-                orderItems.put(productId, 10);
+    // Если задан каталог данных (-Dorders.data.dir=...), заказы сохраняются в журнал на диске.
+    // Без журнала при -Dorders.offHeap=true заказы хранятся вне кучи - для миллионов заказов,
+    // а при -Dorders.shards=N разделяются по поставщикам на N независимых хранилищ.
+    // С журналом при заданном возрасте в секундах (-Dorders.archive.minAge=...) завершенные
+    // и отмененные заказы переносятся в архив в <каталог данных>/archive раз в
+    // -Dorders.archive.interval секунд (по умолчанию - раз в час)
+    private static OrderRepository createOrderRepository(TimeSource clock, ProductRegistry products) {
+        String dataDir = System.getProperty("orders.data.dir");
+        if (dataDir == null || dataDir.isBlank()) {
+            boolean offHeap = Boolean.getBoolean("orders.offHeap");
+            int shards = Integer.getInteger("orders.shards", 1);
+            if (shards > 1) {
+                return new ShardedOrderRepository(shards,
+                        shard -> offHeap ? new OffHeapOrderRepository(products) : new InMemoryOrderRepository(),
+                        ForkJoinPool.commonPool());
             }
+            return offHeap ? new OffHeapOrderRepository(products) : new InMemoryOrderRepository();
+        }
+        OrderRepository journal = new WalOrderRepository(Path.of(dataDir), products);
+        String minAge = System.getProperty("orders.archive.minAge");
+        if (minAge == null || minAge.isBlank()) {
+            return journal;
+        }
+        TieredOrderRepository tiered = new TieredOrderRepository(journal, Path.of(dataDir, "archive"),
+                Duration.ofSeconds(Long.parseLong(minAge)), clock, products);
+        tiered.startArchiving(Duration.ofSeconds(Long.getLong("orders.archive.interval", 3600)));
+        return tiered;
+    }
+
+    // Если задан размер (-Dorders.cache.size=...), заказы по идентификатору читаются через кэш.
+    // Имеет смысл для хранилищ медленнее карты в памяти
+    private static OrderRepository withCache(OrderRepository repository) {
+        int cacheSize = Integer.getInteger("orders.cache.size", 0);
+        return cacheSize > 0 ? new CachingOrderRepository(repository, cacheSize) : repository;
+    }
+
+    // -Dorders.import=<файл> загружает заказы из выгрузки до запуска сервиса,
+    // -Dorders.export=<файл> выгружает все заказы при завершении. Формат определяется
+    // по расширению: .jsonl - JSON Lines, иначе двоичный
+    private static void importOrders(OrderRepository repository, ProductRegistry products) {
+        String file = System.getProperty("orders.import");
+        if (file == null || file.isBlank()) {
+            return;
+        }
+        Path source = Path.of(file);
+        try {
+            long count = OrderTransfer.importOrders(source, OrderTransfer.Format.of(source), repository, products);
+            System.out.println("Загружено заказов из " + source + ": " + count);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось загрузить заказы из " + source, e);
+        }
+    }
+
+    // Выгружаются и заказы, перенесенные в архив: streamAll многоуровневого хранилища их не видит
+    private static void exportOrders(OrderRepository storage) {
+        String file = System.getProperty("orders.export");
+        if (file == null || file.isBlank()) {
+            return;
+        }
+        Path target = Path.of(file);
+        try (Stream<Order> orders = storage instanceof TieredOrderRepository tiered
+                ? tiered.streamWithArchived() : storage.streamAll()) {
+            long count = OrderTransfer.exportOrders(orders, target, OrderTransfer.Format.of(target));
+            System.out.println("Выгружено заказов в " + target + ": " + count);
+        } catch (IOException e) {
+            System.err.println("Не удалось выгрузить заказы в " + target + ": " + e.getMessage());
+        }
+    }
+
+    // Если задан порт (-Dorders.http.port=...), REST API доступен по HTTP параллельно с консолью
+    private static HttpOrderServer startHttpServer(OrderUseCase orderService, ProductCatalog productCatalog) {
+        String port = System.getProperty("orders.http.port");
+        if (port == null || port.isBlank()) {
+            return null;
+        }
+        int maxConcurrentRequests = Integer.getInteger("orders.http.maxConcurrentRequests", 1024);
+        try {
+            HttpOrderServer server = new HttpOrderServer(orderService, productCatalog,
+                    new InetSocketAddress(Integer.parseInt(port)), maxConcurrentRequests);
+            server.start();
+            System.out.println("\nHTTP API доступен на http://localhost:" + server.getPort() + "/api/orders");
+            return server;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось запустить HTTP-сервер на порту " + port, e);
+        }
+    }
+
+    private static void demonstrateRestApi(RestApi restApi, ProductCatalog productCatalog) {
+        System.out.println("--- Демонстрация REST API ---");
+
+        List<Product> products = productCatalog.findAll();
+        int[] productNumbers = new int[Math.min(3, products.size())];
+        int[] quantities = new int[productNumbers.length];
+        for (int i = 0; i < productNumbers.length; i++) {
+            productNumbers[i] = productCatalog.numberOf(products.get(i).getId());
+            quantities[i] = 10;
         }
 
         String supplierId = "supplier-123";
-        Order order = restApi.createOrder(supplierId, orderItems, productCatalog);
+        Order order = restApi.createOrder(supplierId, productNumbers, quantities);
         System.out.println("Создан заказ через REST API: " + order.getId());
 
         order = restApi.confirmOrder(order.getId());
@@ -60,19 +250,33 @@ public class Main {
         );
     }
 
-    private static Map<String, Product> createDemoProductCatalog() {
-        Map<String, Product> catalog = new HashMap<>();
-
-        Product meat = new Product("Говядина", "Мясо", "Охлажденный", 5);
-        Product chicken = new Product("Курица", "Мясо", "Охлажденный", 4);
-        Product potatoes = new Product("Картофель", "Овощи", "Комнатная температура", 30);
-        Product tomatoes = new Product("Помидоры", "Овощи", "Охлажденный", 7);
-
-        catalog.put(meat.getId(), meat);
-        catalog.put(chicken.getId(), chicken);
-        catalog.put(potatoes.getId(), potatoes);
-        catalog.put(tomatoes.getId(), tomatoes);
+    private static void printDashboard(OrderDashboardQuery dashboard, ProductCatalog productCatalog) {
+        System.out.println("\nЗаказы по статусам:");
+        dashboard.countsByStatus().forEach((status, count) -> {
+            if (count > 0) {
+                System.out.println("- " + status.getDescription() + ": " + count);
+            }
+        });
+        System.out.println("Открытые количества по продуктам:");
+        for (Product product : productCatalog.findAll()) {
+            long quantity = dashboard.openQuantity(product);
+            if (quantity > 0) {
+                System.out.println("- " + product.getName() + ": " + quantity);
+            }
+        }
+    }
 
+    // Общий каталог для консоли, REST API и HTTP-адаптера
+    private static ProductCatalog createProductCatalog(IdGenerator ids, ProductRegistry products) {
+        ProductCatalog catalog = new InMemoryProductCatalog(products);
+        catalog.addAll(List.of(
+                new Product(ids.nextId(), "Говядина", "Мясо", "Охлажденный", 5),
+                new Product(ids.nextId(), "Курица", "Мясо", "Охлажденный", 4),
+                new Product(ids.nextId(), "Картофель", "Овощи", "Комнатная температура", 30),
+                new Product(ids.nextId(), "Помидоры", "Овощи", "Охлажденный", 7),
+                new Product(ids.nextId(), "Хлеб", "Выпечка", "Комнатная температура", 3),
+                new Product(ids.nextId(), "Сыр", "Молочные продукты", "Охлажденный", 14),
+                new Product(ids.nextId(), "Молоко", "Молочные продукты", "Охлажденный", 7)));
         return catalog;
     }
-}
\ No newline at end of file
+}
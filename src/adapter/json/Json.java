@@ -0,0 +1,293 @@
+package adapter.json;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Минимальный JSON для адаптеров: разбор в Map/List/String/Long/Double/Boolean, экранирование
+// строк при записи и чтение по полям через reader - для больших потоков вроде выгрузки заказов,
+// где разбор каждой строки в Map и List заметно дороже
+public final class Json {
+    private final String text;
+    private int position;
+
+    private Json(String text) {
+        this.text = text;
+    }
+
+    public static Object parse(String text) {
+        Json parser = new Json(text);
+        Object value = parser.value();
+        parser.expectEnd();
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> parseObject(String text) {
+        if (text.isBlank()) {
+            return Map.of();
+        }
+        Object value = parse(text);
+        if (!(value instanceof Map)) {
+            throw new IllegalArgumentException("Ожидался JSON-объект");
+        }
+        return (Map<String, Object>) value;
+    }
+
+    // Последовательное чтение text: вызывающий сам проходит по структуре через expect,
+    // consume и чтение значений, ненужные значения пропускаются skipValue
+    public static Json reader(String text) {
+        return new Json(text);
+    }
+
+    public static void appendString(StringBuilder out, String value) {
+        if (value == null) {
+            out.append("null");
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+        out.append('"');
+    }
+
+    public void expect(char expected) {
+        skipWhitespace();
+        if (position >= text.length() || text.charAt(position) != expected) {
+            throw error("ожидалось '" + expected + "'");
+        }
+        position++;
+    }
+
+    public boolean consume(char expected) {
+        skipWhitespace();
+        if (position < text.length() && text.charAt(position) == expected) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    public void expectEnd() {
+        skipWhitespace();
+        if (position != text.length()) {
+            throw error("лишние символы после значения");
+        }
+    }
+
+    public Object value() {
+        skipWhitespace();
+        if (position >= text.length()) {
+            throw error("неожиданный конец");
+        }
+        return switch (text.charAt(position)) {
+            case '{' -> object();
+            case '[' -> array();
+            case '"' -> string();
+            case 't' -> literal("true", Boolean.TRUE);
+            case 'f' -> literal("false", Boolean.FALSE);
+            case 'n' -> literal("null", null);
+            default -> number();
+        };
+    }
+
+    public String string() {
+        expect('"');
+        int start = position;
+        while (position < text.length()) {
+            char c = text.charAt(position);
+            if (c == '"') {
+                return text.substring(start, position++);
+            }
+            if (c == '\\') {
+                return escapedString(start);
+            }
+            position++;
+        }
+        throw error("незакрытая строка");
+    }
+
+    public String nullableString() {
+        skipWhitespace();
+        if (text.startsWith("null", position)) {
+            position += 4;
+            return null;
+        }
+        return string();
+    }
+
+    public long longValue() {
+        skipWhitespace();
+        int start = position;
+        if (position < text.length() && text.charAt(position) == '-') {
+            position++;
+        }
+        while (position < text.length() && Character.isDigit(text.charAt(position))) {
+            position++;
+        }
+        try {
+            return Long.parseLong(text, start, position, 10);
+        } catch (NumberFormatException e) {
+            throw error("ожидалось целое число");
+        }
+    }
+
+    // Пропуск значения без разбора в объекты: строка, число, литерал, объект или массив
+    public void skipValue() {
+        skipWhitespace();
+        if (position >= text.length()) {
+            throw error("ожидалось значение");
+        }
+        char c = text.charAt(position);
+        if (c == '"') {
+            string();
+        } else if (c == '{' || c == '[') {
+            char close = c == '{' ? '}' : ']';
+            position++;
+            if (consume(close)) {
+                return;
+            }
+            do {
+                if (c == '{') {
+                    string();
+                    expect(':');
+                }
+                skipValue();
+            } while (consume(','));
+            expect(close);
+        } else {
+            int start = position;
+            while (position < text.length() && ",}] \t\r\n".indexOf(text.charAt(position)) < 0) {
+                position++;
+            }
+            if (start == position) {
+                throw error("ожидалось значение");
+            }
+        }
+    }
+
+    public IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("Некорректный JSON в позиции " + position + ": " + message);
+    }
+
+    private Map<String, Object> object() {
+        Map<String, Object> object = new LinkedHashMap<>();
+        expect('{');
+        if (consume('}')) {
+            return object;
+        }
+        do {
+            skipWhitespace();
+            if (position >= text.length() || text.charAt(position) != '"') {
+                throw error("ожидалось имя поля");
+            }
+            String key = string();
+            expect(':');
+            object.put(key, value());
+        } while (consume(','));
+        expect('}');
+        return object;
+    }
+
+    private List<Object> array() {
+        List<Object> array = new ArrayList<>();
+        expect('[');
+        if (consume(']')) {
+            return array;
+        }
+        do {
+            array.add(value());
+        } while (consume(','));
+        expect(']');
+        return array;
+    }
+
+    private Object literal(String literal, Object value) {
+        if (!text.startsWith(literal, position)) {
+            throw error("ожидалось " + literal);
+        }
+        position += literal.length();
+        return value;
+    }
+
+    private Object number() {
+        int start = position;
+        while (position < text.length() && "+-0123456789.eE".indexOf(text.charAt(position)) >= 0) {
+            position++;
+        }
+        String number = text.substring(start, position);
+        if (number.isEmpty()) {
+            throw error("неожиданный символ '" + text.charAt(start) + "'");
+        }
+        try {
+            if (number.indexOf('.') >= 0 || number.indexOf('e') >= 0 || number.indexOf('E') >= 0) {
+                return Double.parseDouble(number);
+            }
+            return Long.parseLong(number);
+        } catch (NumberFormatException e) {
+            throw error("некорректное число " + number);
+        }
+    }
+
+    private String escapedString(int start) {
+        StringBuilder value = new StringBuilder(text.length() - start);
+        value.append(text, start, position);
+        while (position < text.length()) {
+            char c = text.charAt(position++);
+            if (c == '"') {
+                return value.toString();
+            }
+            if (c != '\\') {
+                value.append(c);
+                continue;
+            }
+            if (position >= text.length()) {
+                break;
+            }
+            char escaped = text.charAt(position++);
+            switch (escaped) {
+                case '"', '\\', '/' -> value.append(escaped);
+                case 'b' -> value.append('\b');
+                case 'f' -> value.append('\f');
+                case 'n' -> value.append('\n');
+                case 'r' -> value.append('\r');
+                case 't' -> value.append('\t');
+                case 'u' -> {
+                    if (position + 4 > text.length()) {
+                        throw error("оборванная escape-последовательность");
+                    }
+                    try {
+                        value.append((char) Integer.parseInt(text, position, position + 4, 16));
+                    } catch (NumberFormatException e) {
+                        throw error("некорректная escape-последовательность");
+                    }
+                    position += 4;
+                }
+                default -> throw error("некорректная escape-последовательность");
+            }
+        }
+        throw error("незакрытая строка");
+    }
+
+    private void skipWhitespace() {
+        while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+            position++;
+        }
+    }
+}
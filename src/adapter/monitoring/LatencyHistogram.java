@@ -0,0 +1,108 @@
+package adapter.monitoring;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Гистограмма задержек в наносекундах без блокировок. Корзины логарифмические:
+// каждая степень двойки делится на 32 равные части, поэтому погрешность
+// процентилей не превышает 1/32 (~3%), а размер гистограммы постоянен
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // 2^42 нс - около 73 минут; большие значения попадают в последнюю корзину
+    private static final int MAX_MAGNITUDE = 42;
+    private static final int BUCKETS = (MAX_MAGNITUDE - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public record Snapshot(long count, double meanNanos, long p50Nanos, long p99Nanos, long p999Nanos, long maxNanos) {
+
+        @Override
+        public String toString() {
+            return String.format("n=%d mean=%s p50=%s p99=%s p999=%s max=%s", count, format((long) meanNanos),
+                    format(p50Nanos), format(p99Nanos), format(p999Nanos), format(maxNanos));
+        }
+
+        private static String format(long nanos) {
+            if (nanos < 10_000) {
+                return nanos + "ns";
+            }
+            if (nanos < 10_000_000) {
+                return nanos / 1_000 + "us";
+            }
+            return nanos / 1_000_000 + "ms";
+        }
+    }
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.getAndIncrement(index(value));
+        totalNanos.add(value);
+        if (value > maxNanos.get()) {
+            maxNanos.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    // Снимок согласован не строго: замеры, пришедшие во время чтения, могут попасть в него частично
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+            count += copy[i];
+        }
+        if (count == 0) {
+            return new Snapshot(0, 0, 0, 0, 0, 0);
+        }
+        long max = maxNanos.get();
+        long p50Rank = rank(count, 0.5);
+        long p99Rank = rank(count, 0.99);
+        long p999Rank = rank(count, 0.999);
+        long p50 = -1;
+        long p99 = -1;
+        long p999 = -1;
+        long seen = 0;
+        for (int i = 0; i < BUCKETS && p999 < 0; i++) {
+            seen += copy[i];
+            if (p50 < 0 && seen >= p50Rank) {
+                p50 = Math.min(upperBound(i), max);
+            }
+            if (p99 < 0 && seen >= p99Rank) {
+                p99 = Math.min(upperBound(i), max);
+            }
+            if (seen >= p999Rank) {
+                p999 = Math.min(upperBound(i), max);
+            }
+        }
+        return new Snapshot(count, (double) totalNanos.sum() / count, p50, p99, p999, max);
+    }
+
+    private static long rank(long count, double quantile) {
+        return Math.max(1, (long) Math.ceil(count * quantile));
+    }
+
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        if (magnitude > MAX_MAGNITUDE) {
+            return BUCKETS - 1;
+        }
+        int shift = magnitude - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long upperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long lower = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lower + (1L << shift) - 1;
+    }
+}
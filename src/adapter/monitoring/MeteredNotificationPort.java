@@ -0,0 +1,117 @@
+package adapter.monitoring;
+
+import domain.model.Order;
+import domain.port.secondary.NotificationPort;
+
+import java.util.List;
+
+// Замеряет отправку уведомлений; ответ false от адаптера считается неудачей.
+// Пакетные вызовы передаются дальше пакетом, исходы учитываются по каждому заказу
+public class MeteredNotificationPort implements NotificationPort {
+    private final NotificationPort delegate;
+
+    private final OperationMetrics sendOrderNotification;
+    private final OperationMetrics sendCancellationNotification;
+    private final OperationMetrics sendReturnNotification;
+    private final OperationMetrics requestOrderConfirmation;
+    private final OperationMetrics sendOrderNotifications;
+    private final OperationMetrics requestOrderConfirmations;
+
+    public MeteredNotificationPort(NotificationPort delegate, OrderMetrics metrics) {
+        this.delegate = delegate;
+        this.sendOrderNotification = metrics.operation("notifications.sendOrderNotification");
+        this.sendCancellationNotification = metrics.operation("notifications.sendCancellationNotification");
+        this.sendReturnNotification = metrics.operation("notifications.sendReturnNotification");
+        this.requestOrderConfirmation = metrics.operation("notifications.requestOrderConfirmation");
+        this.sendOrderNotifications = metrics.operation("notifications.sendOrderNotifications");
+        this.requestOrderConfirmations = metrics.operation("notifications.requestOrderConfirmations");
+    }
+
+    @Override
+    public boolean sendOrderNotification(Order order) {
+        long start = sendOrderNotification.start();
+        try {
+            return record(sendOrderNotification, start, order, delegate.sendOrderNotification(order));
+        } catch (RuntimeException e) {
+            sendOrderNotification.failure(start, order.getStatus(), e);
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean sendCancellationNotification(Order order, String reason) {
+        long start = sendCancellationNotification.start();
+        try {
+            return record(sendCancellationNotification, start, order,
+                    delegate.sendCancellationNotification(order, reason));
+        } catch (RuntimeException e) {
+            sendCancellationNotification.failure(start, order.getStatus(), e);
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean sendReturnNotification(Order order, String reason) {
+        long start = sendReturnNotification.start();
+        try {
+            return record(sendReturnNotification, start, order, delegate.sendReturnNotification(order, reason));
+        } catch (RuntimeException e) {
+            sendReturnNotification.failure(start, order.getStatus(), e);
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean requestOrderConfirmation(Order order) {
+        long start = requestOrderConfirmation.start();
+        try {
+            return record(requestOrderConfirmation, start, order, delegate.requestOrderConfirmation(order));
+        } catch (RuntimeException e) {
+            requestOrderConfirmation.failure(start, order.getStatus(), e);
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean sendOrderNotifications(List<Order> orders) {
+        long start = sendOrderNotifications.start();
+        try {
+            return recordBatch(sendOrderNotifications, start, orders, delegate.sendOrderNotifications(orders));
+        } catch (RuntimeException e) {
+            sendOrderNotifications.failure(start, null, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean requestOrderConfirmations(List<Order> orders) {
+        long start = requestOrderConfirmations.start();
+        try {
+            return recordBatch(requestOrderConfirmations, start, orders, delegate.requestOrderConfirmations(orders));
+        } catch (RuntimeException e) {
+            requestOrderConfirmations.failure(start, null, e);
+            throw e;
+        }
+    }
+
+    private static boolean record(OperationMetrics operation, long start, Order order, boolean sent) {
+        if (sent) {
+            operation.success(start, order.getStatus());
+        } else {
+            operation.failure(start, order.getStatus(), null);
+        }
+        return sent;
+    }
+
+    private static boolean recordBatch(OperationMetrics operation, long start, List<Order> orders, boolean sent) {
+        operation.recordLatency(start);
+        for (Order order : orders) {
+            if (sent) {
+                operation.countSuccess(order.getStatus());
+            } else {
+                operation.countFailure(order.getStatus(), null);
+            }
+        }
+        return sent;
+    }
+}
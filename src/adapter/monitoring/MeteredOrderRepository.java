@@ -0,0 +1,184 @@
+package adapter.monitoring;
+
+import domain.model.Order;
+import domain.model.OrderCursor;
+import domain.model.OrderPage;
+import domain.model.OrderStatus;
+import domain.port.secondary.OrderRepository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+// Замеряет обращения к хранилищу. Исход сохранения учитывается по статусу сохраняемого
+// заказа; отказ сохранения из-за несовпадения версии считается неудачей без исключения
+public class MeteredOrderRepository implements OrderRepository {
+    private final OrderRepository delegate;
+
+    private final OperationMetrics save;
+    private final OperationMetrics compareAndSave;
+    private final OperationMetrics saveAll;
+    private final OperationMetrics bulkSave;
+    private final OperationMetrics findById;
+    private final OperationMetrics findAllById;
+    private final OperationMetrics findAll;
+    private final OperationMetrics findPage;
+    private final OperationMetrics streamAll;
+    private final OperationMetrics findBySupplier;
+    private final OperationMetrics findByStatus;
+    private final OperationMetrics findBySupplierAndStatus;
+    private final OperationMetrics findCreatedBetween;
+    private final OperationMetrics delete;
+
+    public MeteredOrderRepository(OrderRepository delegate, OrderMetrics metrics) {
+        this.delegate = delegate;
+        this.save = metrics.operation("repository.save");
+        this.compareAndSave = metrics.operation("repository.compareAndSave");
+        this.saveAll = metrics.operation("repository.saveAll");
+        this.bulkSave = metrics.operation("repository.bulkSave");
+        this.findById = metrics.operation("repository.findById");
+        this.findAllById = metrics.operation("repository.findAllById");
+        this.findAll = metrics.operation("repository.findAll");
+        this.findPage = metrics.operation("repository.findPage");
+        this.streamAll = metrics.operation("repository.streamAll");
+        this.findBySupplier = metrics.operation("repository.findBySupplier");
+        this.findByStatus = metrics.operation("repository.findByStatus");
+        this.findBySupplierAndStatus = metrics.operation("repository.findBySupplierAndStatus");
+        this.findCreatedBetween = metrics.operation("repository.findCreatedBetween");
+        this.delete = metrics.operation("repository.delete");
+    }
+
+    @Override
+    public Order save(Order order) {
+        return measure(save, order.getStatus(), () -> delegate.save(order));
+    }
+
+    @Override
+    public boolean save(Order order, long expectedVersion) {
+        long start = compareAndSave.start();
+        boolean saved;
+        try {
+            saved = delegate.save(order, expectedVersion);
+        } catch (RuntimeException e) {
+            compareAndSave.failure(start, order.getStatus(), e);
+            throw e;
+        }
+        if (saved) {
+            compareAndSave.success(start, order.getStatus());
+        } else {
+            compareAndSave.failure(start, order.getStatus(), null);
+        }
+        return saved;
+    }
+
+    @Override
+    public boolean[] saveAll(List<Order> orders, long[] expectedVersions) {
+        long start = saveAll.start();
+        boolean[] saved;
+        try {
+            saved = delegate.saveAll(orders, expectedVersions);
+        } catch (RuntimeException e) {
+            saveAll.failure(start, null, e);
+            throw e;
+        }
+        saveAll.recordLatency(start);
+        for (int i = 0; i < saved.length; i++) {
+            if (saved[i]) {
+                saveAll.countSuccess(orders.get(i).getStatus());
+            } else {
+                saveAll.countFailure(orders.get(i).getStatus(), null);
+            }
+        }
+        return saved;
+    }
+
+    // Замеряется весь пакет; успех учитывается по каждому заказу
+    @Override
+    public void saveAll(List<Order> orders) {
+        long start = bulkSave.start();
+        try {
+            delegate.saveAll(orders);
+        } catch (RuntimeException e) {
+            bulkSave.failure(start, null, e);
+            throw e;
+        }
+        bulkSave.recordLatency(start);
+        for (Order order : orders) {
+            bulkSave.countSuccess(order.getStatus());
+        }
+    }
+
+    @Override
+    public Optional<Order> findById(String orderId) {
+        return measure(findById, null, () -> delegate.findById(orderId));
+    }
+
+    @Override
+    public Map<String, Order> findAllById(Collection<String> orderIds) {
+        return measure(findAllById, null, () -> delegate.findAllById(orderIds));
+    }
+
+    @Override
+    public List<Order> findAll() {
+        return measure(findAll, null, delegate::findAll);
+    }
+
+    @Override
+    public OrderPage findPage(OrderCursor after, int limit) {
+        return measure(findPage, null, () -> delegate.findPage(after, limit));
+    }
+
+    // Замеряется только создание потока: сам обход выполняет вызывающий код
+    @Override
+    public Stream<Order> streamAll() {
+        return measure(streamAll, null, delegate::streamAll);
+    }
+
+    @Override
+    public List<Order> findBySupplier(String supplierId) {
+        return measure(findBySupplier, null, () -> delegate.findBySupplier(supplierId));
+    }
+
+    @Override
+    public List<Order> findByStatus(OrderStatus status) {
+        return measure(findByStatus, null, () -> delegate.findByStatus(status));
+    }
+
+    @Override
+    public List<Order> findBySupplierAndStatus(String supplierId, OrderStatus status) {
+        return measure(findBySupplierAndStatus, null, () -> delegate.findBySupplierAndStatus(supplierId, status));
+    }
+
+    @Override
+    public List<Order> findCreatedBetween(LocalDateTime from, LocalDateTime to) {
+        return measure(findCreatedBetween, null, () -> delegate.findCreatedBetween(from, to));
+    }
+
+    @Override
+    public void delete(String orderId) {
+        long start = delete.start();
+        try {
+            delegate.delete(orderId);
+            delete.success(start, null);
+        } catch (RuntimeException e) {
+            delete.failure(start, null, e);
+            throw e;
+        }
+    }
+
+    private static <T> T measure(OperationMetrics operation, OrderStatus targetStatus, Supplier<T> call) {
+        long start = operation.start();
+        try {
+            T result = call.get();
+            operation.success(start, targetStatus);
+            return result;
+        } catch (RuntimeException e) {
+            operation.failure(start, targetStatus, e);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package adapter.monitoring;
+
+import domain.model.AuditEntry;
+import domain.model.Order;
+import domain.model.OrderCursor;
+import domain.model.OrderPage;
+import domain.model.OrderStatus;
+import domain.model.Product;
+import domain.model.TransitionResult;
+import domain.port.primary.OrderUseCase;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+// Замеряет каждую операцию сценария: задержку и исход по статусу, в который переводится заказ
+public class MeteredOrderUseCase implements OrderUseCase {
+    private final OrderUseCase delegate;
+
+    private final OperationMetrics createOrder;
+    private final OperationMetrics confirmOrder;
+    private final OperationMetrics sendOrderToSupplier;
+    private final OperationMetrics markOrderInTransit;
+    private final OperationMetrics markOrderDelivered;
+    private final OperationMetrics startQualityCheck;
+    private final OperationMetrics acceptDelivery;
+    private final OperationMetrics rejectDelivery;
+    private final OperationMetrics returnToSupplier;
+    private final OperationMetrics cancelOrder;
+    private final OperationMetrics completeOrder;
+    private final OperationMetrics transitionOrder;
+    private final OperationMetrics confirmOrders;
+    private final OperationMetrics sendOrdersToSupplier;
+    private final OperationMetrics markOrdersInTransit;
+    private final OperationMetrics markOrdersDelivered;
+    private final OperationMetrics getOrderById;
+    private final OperationMetrics getAllowedTransitions;
+    private final OperationMetrics getOrderHistory;
+    private final OperationMetrics getAllOrders;
+    private final OperationMetrics getOrdersPage;
+    private final OperationMetrics streamAllOrders;
+    private final OperationMetrics getOrdersBySupplier;
+    private final OperationMetrics getOrdersByStatus;
+    private final OperationMetrics getOrdersBySupplierAndStatus;
+    private final OperationMetrics getOrdersCreatedBetween;
+
+    public MeteredOrderUseCase(OrderUseCase delegate, OrderMetrics metrics) {
+        this.delegate = delegate;
+        this.createOrder = metrics.operation("useCase.createOrder");
+        this.confirmOrder = metrics.operation("useCase.confirmOrder");
+        this.sendOrderToSupplier = metrics.operation("useCase.sendOrderToSupplier");
+        this.markOrderInTransit = metrics.operation("useCase.markOrderInTransit");
+        this.markOrderDelivered = metrics.operation("useCase.markOrderDelivered");
+        this.startQualityCheck = metrics.operation("useCase.startQualityCheck");
+        this.acceptDelivery = metrics.operation("useCase.acceptDelivery");
+        this.rejectDelivery = metrics.operation("useCase.rejectDelivery");
+        this.returnToSupplier = metrics.operation("useCase.returnToSupplier");
+        this.cancelOrder = metrics.operation("useCase.cancelOrder");
+        this.completeOrder = metrics.operation("useCase.completeOrder");
+        this.transitionOrder = metrics.operation("useCase.transitionOrder");
+        this.confirmOrders = metrics.operation("useCase.confirmOrders");
+        this.sendOrdersToSupplier = metrics.operation("useCase.sendOrdersToSupplier");
+        this.markOrdersInTransit = metrics.operation("useCase.markOrdersInTransit");
+        this.markOrdersDelivered = metrics.operation("useCase.markOrdersDelivered");
+        this.getOrderById = metrics.operation("useCase.getOrderById");
+        this.getAllowedTransitions = metrics.operation("useCase.getAllowedTransitions");
+        this.getOrderHistory = metrics.operation("useCase.getOrderHistory");
+        this.getAllOrders = metrics.operation("useCase.getAllOrders");
+        this.getOrdersPage = metrics.operation("useCase.getOrdersPage");
+        this.streamAllOrders = metrics.operation("useCase.streamAllOrders");
+        this.getOrdersBySupplier = metrics.operation("useCase.getOrdersBySupplier");
+        this.getOrdersByStatus = metrics.operation("useCase.getOrdersByStatus");
+        this.getOrdersBySupplierAndStatus = metrics.operation("useCase.getOrdersBySupplierAndStatus");
+        this.getOrdersCreatedBetween = metrics.operation("useCase.getOrdersCreatedBetween");
+    }
+
+    @Override
+    public Order createOrder(String supplierId, Map<Product, Integer> items) {
+        return measure(createOrder, OrderStatus.CREATED, () -> delegate.createOrder(supplierId, items));
+    }
+
+    @Override
+    public Order confirmOrder(String orderId) {
+        return measure(confirmOrder, OrderStatus.CONFIRMED, () -> delegate.confirmOrder(orderId));
+    }
+
+    @Override
+    public Order sendOrderToSupplier(String orderId) {
+        return measure(sendOrderToSupplier, OrderStatus.SENT, () -> delegate.sendOrderToSupplier(orderId));
+    }
+
+    @Override
+    public Order markOrderInTransit(String orderId) {
+        return measure(markOrderInTransit, OrderStatus.IN_TRANSIT, () -> delegate.markOrderInTransit(orderId));
+    }
+
+    @Override
+    public Order markOrderDelivered(String orderId) {
+        return measure(markOrderDelivered, OrderStatus.DELIVERED, () -> delegate.markOrderDelivered(orderId));
+    }
+
+    @Override
+    public Order startQualityCheck(String orderId) {
+        return measure(startQualityCheck, OrderStatus.QUALITY_CHECK, () -> delegate.startQualityCheck(orderId));
+    }
+
+    @Override
+    public Order acceptDelivery(String orderId, String qualityCheckResult) {
+        return measure(acceptDelivery, OrderStatus.ACCEPTED,
+                () -> delegate.acceptDelivery(orderId, qualityCheckResult));
+    }
+
+    @Override
+    public Order rejectDelivery(String orderId, String reason) {
+        return measure(rejectDelivery, OrderStatus.REJECTED, () -> delegate.rejectDelivery(orderId, reason));
+    }
+
+    @Override
+    public Order returnToSupplier(String orderId, String reason) {
+        return measure(returnToSupplier, OrderStatus.RETURNED, () -> delegate.returnToSupplier(orderId, reason));
+    }
+
+    @Override
+    public Order cancelOrder(String orderId, String reason) {
+        return measure(cancelOrder, OrderStatus.CANCELLED, () -> delegate.cancelOrder(orderId, reason));
+    }
+
+    @Override
+    public Order completeOrder(String orderId) {
+        return measure(completeOrder, OrderStatus.COMPLETED, () -> delegate.completeOrder(orderId));
+    }
+
+    @Override
+    public Order createOrder(String idempotencyKey, String supplierId, Map<Product, Integer> items) {
+        return measure(createOrder, OrderStatus.CREATED, () -> delegate.createOrder(idempotencyKey, supplierId, items));
+    }
+
+    @Override
+    public Order transitionOrder(String idempotencyKey, String orderId, OrderStatus target, String detail) {
+        return measure(transitionOrder, target,
+                () -> delegate.transitionOrder(idempotencyKey, orderId, target, detail));
+    }
+
+    @Override
+    public List<TransitionResult> confirmOrders(List<String> orderIds) {
+        return measureBatch(confirmOrders, OrderStatus.CONFIRMED, () -> delegate.confirmOrders(orderIds));
+    }
+
+    @Override
+    public List<TransitionResult> sendOrdersToSupplier(List<String> orderIds) {
+        return measureBatch(sendOrdersToSupplier, OrderStatus.SENT, () -> delegate.sendOrdersToSupplier(orderIds));
+    }
+
+    @Override
+    public List<TransitionResult> markOrdersInTransit(List<String> orderIds) {
+        return measureBatch(markOrdersInTransit, OrderStatus.IN_TRANSIT, () -> delegate.markOrdersInTransit(orderIds));
+    }
+
+    @Override
+    public List<TransitionResult> markOrdersDelivered(List<String> orderIds) {
+        return measureBatch(markOrdersDelivered, OrderStatus.DELIVERED, () -> delegate.markOrdersDelivered(orderIds));
+    }
+
+    @Override
+    public Optional<Order> getOrderById(String orderId) {
+        return measure(getOrderById, null, () -> delegate.getOrderById(orderId));
+    }
+
+    @Override
+    public Set<OrderStatus> getAllowedTransitions(String orderId) {
+        return measure(getAllowedTransitions, null, () -> delegate.getAllowedTransitions(orderId));
+    }
+
+    @Override
+    public List<AuditEntry> getOrderHistory(String orderId) {
+        return measure(getOrderHistory, null, () -> delegate.getOrderHistory(orderId));
+    }
+
+    @Override
+    public List<Order> getAllOrders() {
+        return measure(getAllOrders, null, delegate::getAllOrders);
+    }
+
+    @Override
+    public OrderPage getOrdersPage(OrderCursor after, int limit) {
+        return measure(getOrdersPage, null, () -> delegate.getOrdersPage(after, limit));
+    }
+
+    // Замеряется только создание потока: сам обход выполняет вызывающий код
+    @Override
+    public Stream<Order> streamAllOrders() {
+        return measure(streamAllOrders, null, delegate::streamAllOrders);
+    }
+
+    @Override
+    public List<Order> getOrdersBySupplier(String supplierId) {
+        return measure(getOrdersBySupplier, null, () -> delegate.getOrdersBySupplier(supplierId));
+    }
+
+    @Override
+    public List<Order> getOrdersByStatus(OrderStatus status) {
+        return measure(getOrdersByStatus, null, () -> delegate.getOrdersByStatus(status));
+    }
+
+    @Override
+    public List<Order> getOrdersBySupplierAndStatus(String supplierId, OrderStatus status) {
+        return measure(getOrdersBySupplierAndStatus, null,
+                () -> delegate.getOrdersBySupplierAndStatus(supplierId, status));
+    }
+
+    @Override
+    public List<Order> getOrdersCreatedBetween(LocalDateTime from, LocalDateTime to) {
+        return measure(getOrdersCreatedBetween, null, () -> delegate.getOrdersCreatedBetween(from, to));
+    }
+
+    private static <T> T measure(OperationMetrics operation, OrderStatus targetStatus, Supplier<T> call) {
+        long start = operation.start();
+        try {
+            T result = call.get();
+            operation.success(start, targetStatus);
+            return result;
+        } catch (RuntimeException e) {
+            operation.failure(start, targetStatus, e);
+            throw e;
+        }
+    }
+
+    private static List<TransitionResult> measureBatch(OperationMetrics operation, OrderStatus targetStatus,
+                                                       Supplier<List<TransitionResult>> call) {
+        long start = operation.start();
+        List<TransitionResult> results;
+        try {
+            results = call.get();
+        } catch (RuntimeException e) {
+            operation.failure(start, targetStatus, e);
+            throw e;
+        }
+        operation.recordLatency(start);
+        for (TransitionResult result : results) {
+            if (result.isSuccess()) {
+                operation.countSuccess(targetStatus);
+            } else {
+                operation.countFailure(targetStatus, result.error());
+            }
+        }
+        return results;
+    }
+}
@@ -0,0 +1,127 @@
+package adapter.monitoring;
+
+import domain.model.OrderStatus;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+// Показатели одной операции: гистограмма задержек и счетчики исходов по целевому
+// статусу заказа. Для операций без статуса (запросы) исходы учитываются только в итогах.
+// Исходы считаются всегда, а задержка - у каждого sampleRate-го вызова в среднем:
+// пара вызовов System.nanoTime() вокруг короткой операции стоит дороже ее самой
+public final class OperationMetrics {
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+    private static final int NO_STATUS = STATUSES.length;
+    // Результат start() для вызова, задержка которого не замеряется
+    private static final long NOT_SAMPLED = Long.MIN_VALUE;
+
+    private final String name;
+    private final int sampleRate;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder[] successes = counters();
+    private final LongAdder[] failures = counters();
+    private final LongAdder[] illegalStateFailures = counters();
+
+    // Исходы операции; illegalStateFailures входят в failures
+    public record Outcomes(long successes, long failures, long illegalStateFailures) {
+    }
+
+    public record Snapshot(String operation, LatencyHistogram.Snapshot latency, Outcomes total,
+                           Map<OrderStatus, Outcomes> byTargetStatus) {
+
+        @Override
+        public String toString() {
+            StringBuilder line = new StringBuilder(operation).append(": ").append(latency)
+                    .append(" ok=").append(total.successes())
+                    .append(" fail=").append(total.failures())
+                    .append(" illegalState=").append(total.illegalStateFailures());
+            byTargetStatus.forEach((status, outcomes) -> line.append(' ').append(status).append('=')
+                    .append(outcomes.successes()).append('/').append(outcomes.failures())
+                    .append('/').append(outcomes.illegalStateFailures()));
+            return line.toString();
+        }
+    }
+
+    OperationMetrics(String name, int sampleRate) {
+        this.name = name;
+        this.sampleRate = sampleRate;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // Вызывается перед операцией; результат передается в success/failure/recordLatency
+    public long start() {
+        if (sampleRate == 1 || ThreadLocalRandom.current().nextInt(sampleRate) == 0) {
+            return System.nanoTime();
+        }
+        return NOT_SAMPLED;
+    }
+
+    // startNanos - результат start(); targetStatus может быть null
+    public void success(long startNanos, OrderStatus targetStatus) {
+        recordLatency(startNanos);
+        countSuccess(targetStatus);
+    }
+
+    // error равен null, если операция не бросила исключение, но сообщила о неудаче
+    // (например, конфликт версий при сохранении)
+    public void failure(long startNanos, OrderStatus targetStatus, RuntimeException error) {
+        recordLatency(startNanos);
+        countFailure(targetStatus, error);
+    }
+
+    // Для пакетных операций задержка замеряется один раз на вызов, а исходы - по каждому заказу
+    public void recordLatency(long startNanos) {
+        if (startNanos != NOT_SAMPLED) {
+            latency.record(System.nanoTime() - startNanos);
+        }
+    }
+
+    public void countSuccess(OrderStatus targetStatus) {
+        successes[slot(targetStatus)].increment();
+    }
+
+    public void countFailure(OrderStatus targetStatus, RuntimeException error) {
+        int slot = slot(targetStatus);
+        failures[slot].increment();
+        if (error instanceof IllegalStateException) {
+            illegalStateFailures[slot].increment();
+        }
+    }
+
+    public Snapshot snapshot() {
+        Map<OrderStatus, Outcomes> byStatus = new EnumMap<>(OrderStatus.class);
+        long totalSuccesses = 0;
+        long totalFailures = 0;
+        long totalIllegalState = 0;
+        for (int slot = 0; slot <= NO_STATUS; slot++) {
+            Outcomes outcomes = new Outcomes(successes[slot].sum(), failures[slot].sum(),
+                    illegalStateFailures[slot].sum());
+            totalSuccesses += outcomes.successes();
+            totalFailures += outcomes.failures();
+            totalIllegalState += outcomes.illegalStateFailures();
+            if (slot < NO_STATUS && (outcomes.successes() != 0 || outcomes.failures() != 0)) {
+                byStatus.put(STATUSES[slot], outcomes);
+            }
+        }
+        return new Snapshot(name, latency.snapshot(), new Outcomes(totalSuccesses, totalFailures, totalIllegalState),
+                Collections.unmodifiableMap(byStatus));
+    }
+
+    private static int slot(OrderStatus status) {
+        return status == null ? NO_STATUS : status.ordinal();
+    }
+
+    private static LongAdder[] counters() {
+        LongAdder[] counters = new LongAdder[NO_STATUS + 1];
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+        return counters;
+    }
+}
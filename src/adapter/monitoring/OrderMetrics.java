@@ -0,0 +1,79 @@
+package adapter.monitoring;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Реестр показателей операций, общий для всех декораторов. Показатели накапливаются
+// с момента запуска; снимок можно запросить в любой момент или выводить периодически
+public class OrderMetrics implements AutoCloseable {
+    private final Map<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+    private final int latencySampleRate;
+    private ScheduledExecutorService dumpScheduler;
+
+    public OrderMetrics() {
+        this(1);
+    }
+
+    // latencySampleRate - задержка замеряется в среднем у одного вызова из latencySampleRate;
+    // счетчики исходов от него не зависят
+    public OrderMetrics(int latencySampleRate) {
+        if (latencySampleRate <= 0) {
+            throw new IllegalArgumentException("Частота выборки задержек должна быть положительной");
+        }
+        this.latencySampleRate = latencySampleRate;
+    }
+
+    public OperationMetrics operation(String name) {
+        return operations.computeIfAbsent(name, operation -> new OperationMetrics(operation, latencySampleRate));
+    }
+
+    public List<OperationMetrics.Snapshot> snapshot() {
+        List<OperationMetrics.Snapshot> snapshot = new ArrayList<>(operations.size());
+        for (OperationMetrics metrics : operations.values()) {
+            snapshot.add(metrics.snapshot());
+        }
+        snapshot.sort(Comparator.comparing(OperationMetrics.Snapshot::operation));
+        return snapshot;
+    }
+
+    // Операции, которые еще ни разу не вызывались, в отчет не попадают. Вызовы определяются по
+    // счетчикам исходов: при выборочном замере задержек у редких операций гистограмма может быть пуста
+    public String report() {
+        StringBuilder report = new StringBuilder("=== Показатели операций ===");
+        for (OperationMetrics.Snapshot operation : snapshot()) {
+            if (operation.total().successes() + operation.total().failures() > 0) {
+                report.append('\n').append(operation);
+            }
+        }
+        return report.toString();
+    }
+
+    public synchronized void startPeriodicDump(Duration interval, Consumer<String> output) {
+        if (dumpScheduler != null) {
+            throw new IllegalStateException("Периодический вывод показателей уже запущен");
+        }
+        dumpScheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "order-metrics-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = interval.toMillis();
+        dumpScheduler.scheduleAtFixedRate(() -> output.accept(report()), period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (dumpScheduler != null) {
+            dumpScheduler.shutdownNow();
+            dumpScheduler = null;
+        }
+    }
+}
@@ -1,43 +1,25 @@
 package adapter.primary;
 
 import domain.model.Order;
+import domain.model.OrderPage;
 import domain.model.OrderStatus;
 import domain.model.Product;
 import domain.port.primary.OrderUseCase;
+import domain.port.secondary.ProductCatalog;
 
 import java.util.*;
 
 public class ConsoleUI {
+    private static final int PAGE_SIZE = 20;
+
     private final OrderUseCase orderUseCase;
     private final Scanner scanner;
-    private final Map<String, Product> productCatalog; // Каталог доступных продуктов
+    private final ProductCatalog productCatalog; // Каталог доступных продуктов
 
-    public ConsoleUI(OrderUseCase orderUseCase) {
+    public ConsoleUI(OrderUseCase orderUseCase, ProductCatalog productCatalog) {
         this.orderUseCase = orderUseCase;
         this.scanner = new Scanner(System.in);
-        this.productCatalog = initProductCatalog();
-    }
-
-    private Map<String, Product> initProductCatalog() {
-        Map<String, Product> catalog = new HashMap<>();
-
-        Product meat = new Product("Говядина", "Мясо", "Охлажденный", 5);
-        Product chicken = new Product("Курица", "Мясо", "Охлажденный", 4);
-        Product potatoes = new Product("Картофель", "Овощи", "Комнатная температура", 30);
-        Product tomatoes = new Product("Помидоры", "Овощи", "Охлажденный", 7);
-        Product bread = new Product("Хлеб", "Выпечка", "Комнатная температура", 3);
-        Product cheese = new Product("Сыр", "Молочные продукты", "Охлажденный", 14);
-        Product milk = new Product("Молоко", "Молочные продукты", "Охлажденный", 7);
-
-        catalog.put(meat.getId(), meat);
-        catalog.put(chicken.getId(), chicken);
-        catalog.put(potatoes.getId(), potatoes);
-        catalog.put(tomatoes.getId(), tomatoes);
-        catalog.put(bread.getId(), bread);
-        catalog.put(cheese.getId(), cheese);
-        catalog.put(milk.getId(), milk);
-
-        return catalog;
+        this.productCatalog = productCatalog;
     }
 
     public void start() {
@@ -90,18 +72,24 @@ public class ConsoleUI {
 
         while (addingProducts) {
             displayProductCatalog();
-            String productChoice = readStringInput("Выберите ID продукта (или 'q' для завершения): ");
+            String productChoice = readStringInput("Выберите номер продукта (или 'q' для завершения): ");
 
             if ("q".equalsIgnoreCase(productChoice)) {
                 addingProducts = false;
                 continue;
             }
 
-            Product product = productCatalog.get(productChoice);
-            if (product == null) {
-                System.out.println("Продукт не найден. Пожалуйста, выберите существующий ID.");
+            int productNumber;
+            try {
+                productNumber = Integer.parseInt(productChoice.trim());
+            } catch (NumberFormatException e) {
+                productNumber = -1;
+            }
+            if (!productCatalog.contains(productNumber)) {
+                System.out.println("Продукт не найден. Пожалуйста, выберите существующий номер.");
                 continue;
             }
+            Product product = productCatalog.get(productNumber);
 
             int quantity = readIntInput("Введите количество: ");
             if (quantity <= 0) {
@@ -125,15 +113,21 @@ public class ConsoleUI {
     private void viewAllOrders() {
         System.out.println("\n--- Список всех заказов ---");
 
-        List<Order> orders = orderUseCase.getAllOrders();
+        OrderPage page = orderUseCase.getOrdersPage(null, PAGE_SIZE);
 
-        if (orders.isEmpty()) {
+        if (page.orders().isEmpty()) {
             System.out.println("Заказов не найдено.");
             return;
         }
 
-        for (Order order : orders) {
-            displayOrderSummary(order);
+        while (true) {
+            for (Order order : page.orders()) {
+                displayOrderSummary(order);
+            }
+            if (!page.hasNext() || !readStringInput("Показать следующие заказы? (y/n): ").equalsIgnoreCase("y")) {
+                return;
+            }
+            page = orderUseCase.getOrdersPage(page.nextCursor(), PAGE_SIZE);
         }
     }
 
@@ -150,10 +144,10 @@ public class ConsoleUI {
         displayOrderDetails(order);
 
         System.out.println("\nДоступные действия:");
-        List<String> actions = getAvailableActions(order.getStatus());
+        List<OrderStatus> actions = new ArrayList<>(orderUseCase.getAllowedTransitions(order.getId()));
 
         for (int i = 0; i < actions.size(); i++) {
-            System.out.println((i + 1) + ". " + actions.get(i));
+            System.out.println((i + 1) + ". " + actionName(actions.get(i)));
         }
 
         int actionChoice = readIntInput("Выберите действие: ");
@@ -162,95 +156,70 @@ public class ConsoleUI {
             return;
         }
 
-        String action = actions.get(actionChoice - 1);
-        performOrderAction(order, action);
+        performOrderAction(order, actions.get(actionChoice - 1));
     }
 
-    private List<String> getAvailableActions(OrderStatus status) {
-        List<String> actions = new ArrayList<>();
-
-        switch (status) {
-            case CREATED:
-                actions.add("Подтвердить заказ");
-                actions.add("Отменить заказ");
-                break;
-            case CONFIRMED:
-                actions.add("Отправить поставщику");
-                actions.add("Отменить заказ");
-                break;
-            case SENT:
-                actions.add("Пометить как 'В пути'");
-                actions.add("Отменить заказ");
-                break;
-            case IN_TRANSIT:
-                actions.add("Пометить как 'Доставлен'");
-                actions.add("Отменить заказ");
-                break;
-            case DELIVERED:
-                actions.add("Начать проверку качества");
-                actions.add("Отменить заказ");
-                break;
-            case QUALITY_CHECK:
-                actions.add("Принять доставку");
-                actions.add("Отклонить доставку");
-                break;
-            case REJECTED:
-                actions.add("Вернуть поставщику");
-                break;
-            case ACCEPTED:
-                actions.add("Завершить заказ");
-                break;
-            default:
-                // Для остальных статусов нет доступных действий
-                break;
-        }
-
-        return actions;
+    // Название действия, переводящего заказ в статус target; сами допустимые переходы
+    // задает таблица OrderStatus
+    private String actionName(OrderStatus target) {
+        return switch (target) {
+            case CONFIRMED -> "Подтвердить заказ";
+            case SENT -> "Отправить поставщику";
+            case IN_TRANSIT -> "Пометить как 'В пути'";
+            case DELIVERED -> "Пометить как 'Доставлен'";
+            case QUALITY_CHECK -> "Начать проверку качества";
+            case ACCEPTED -> "Принять доставку";
+            case REJECTED -> "Отклонить доставку";
+            case RETURNED -> "Вернуть поставщику";
+            case COMPLETED -> "Завершить заказ";
+            case CANCELLED -> "Отменить заказ";
+            case CREATED -> target.getDescription();
+        };
     }
 
-    private void performOrderAction(Order order, String action) {
+    private void performOrderAction(Order order, OrderStatus target) {
         try {
-            switch (action) {
-                case "Подтвердить заказ":
+            switch (target) {
+                case CONFIRMED:
                     orderUseCase.confirmOrder(order.getId());
                     System.out.println("Заказ подтвержден.");
                     break;
-                case "Отправить поставщику":
+                case SENT:
                     orderUseCase.sendOrderToSupplier(order.getId());
                     System.out.println("Заказ отправлен поставщику.");
                     break;
-                case "Пометить как 'В пути'":
+                case IN_TRANSIT:
                     orderUseCase.markOrderInTransit(order.getId());
                     System.out.println("Заказ отмечен как 'В пути'.");
                     break;
-                case "Пометить как 'Доставлен'":
+                case DELIVERED:
                     orderUseCase.markOrderDelivered(order.getId());
                     System.out.println("Заказ отмечен как 'Доставлен'.");
                     break;
-                case "Начать проверку качества":
+                case QUALITY_CHECK:
                     orderUseCase.startQualityCheck(order.getId());
                     System.out.println("Начата проверка качества.");
                     break;
-                case "Принять доставку":
+                case ACCEPTED:
                     String qualityResult = readStringInput("Введите результат проверки качества: ");
                     orderUseCase.acceptDelivery(order.getId(), qualityResult);
                     System.out.println("Доставка принята.");
                     break;
-                case "Отклонить доставку":
+                case REJECTED:
                     String rejectReason = readStringInput("Введите причину отклонения: ");
                     orderUseCase.rejectDelivery(order.getId(), rejectReason);
                     System.out.println("Доставка отклонена.");
                     break;
-                case "Вернуть поставщику":
+                case RETURNED:
                     String returnReason = readStringInput("Введите причину возврата: ");
                     orderUseCase.returnToSupplier(order.getId(), returnReason);
                     System.out.println("Заказ возвращен поставщику.");
                     break;
-                case "Завершить заказ":
+                case COMPLETED:
                     orderUseCase.completeOrder(order.getId());
                     System.out.println("Заказ завершен.");
                     break;
-                case "Отменить заказ":
+                case CANCELLED:
                     String cancelReason = readStringInput("Введите причину отмены: ");
                     orderUseCase.cancelOrder(order.getId(), cancelReason);
                     System.out.println("Заказ отменен.");
@@ -295,8 +264,8 @@ public class ConsoleUI {
     private void displayProductCatalog() {
         System.out.println("\n--- Каталог продуктов ---");
 
-        productCatalog.values().forEach(product ->
-                System.out.println(product.getId() + ". " + product.getName() +
+        productCatalog.findAll().forEach(product ->
+                System.out.println(productCatalog.numberOf(product.getId()) + ". " + product.getName() +
                         " | Категория: " + product.getCategory() +
                         " | Режим хранения: " + product.getTemperatureMode() +
                         " | Срок годности: " + product.getShelfLifeDays() + " дней")
@@ -0,0 +1,383 @@
+package adapter.primary;
+
+import adapter.json.Json;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import domain.model.Order;
+import domain.model.OrderCursor;
+import domain.model.OrderNotFoundException;
+import domain.model.OrderPage;
+import domain.model.OrderStatus;
+import domain.model.Product;
+import domain.model.RetryLaterException;
+import domain.model.TransitionResult;
+import domain.port.primary.OrderUseCase;
+import domain.port.secondary.ProductCatalog;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+// HTTP-адаптер для путей, которые описывает RestApi. Каждый запрос обрабатывается
+// в отдельном виртуальном потоке, соединения переиспользуются (keep-alive),
+// число одновременно обрабатываемых запросов ограничено - сверх лимита отвечаем 503
+public class HttpOrderServer implements AutoCloseable {
+    private static final String BASE_PATH = "/api/orders";
+    private static final String JSON_CONTENT_TYPE = "application/json; charset=utf-8";
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
+    private final OrderUseCase orderUseCase;
+    private final ProductCatalog productCatalog;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore permits;
+
+    public HttpOrderServer(OrderUseCase orderUseCase, ProductCatalog productCatalog,
+                           InetSocketAddress address, int maxConcurrentRequests) throws IOException {
+        if (maxConcurrentRequests <= 0) {
+            throw new IllegalArgumentException("Лимит одновременных запросов должен быть положительным");
+        }
+        this.orderUseCase = orderUseCase;
+        this.productCatalog = productCatalog;
+        this.permits = new Semaphore(maxConcurrentRequests);
+        this.server = HttpServer.create(address, 0);
+        this.server.setExecutor(executor);
+        this.server.createContext(BASE_PATH, this::handle);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        if (!permits.tryAcquire()) {
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            respondError(exchange, 503, "Сервер перегружен, повторите запрос позже");
+            return;
+        }
+        try {
+            route(exchange);
+        } catch (OrderNotFoundException e) {
+            respondError(exchange, 404, e.getMessage());
+        } catch (BadRequestException | IllegalArgumentException e) {
+            respondError(exchange, 400, e.getMessage());
+        } catch (RetryLaterException e) {
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            respondError(exchange, 503, e.getMessage());
+        } catch (IllegalStateException | ConcurrentModificationException e) {
+            respondError(exchange, 409, e.getMessage());
+        } catch (RuntimeException e) {
+            respondError(exchange, 500, "Внутренняя ошибка: " + e.getMessage());
+        } finally {
+            permits.release();
+            exchange.close();
+        }
+    }
+
+    private void route(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String rawPath = exchange.getRequestURI().getRawPath();
+        // Контекст сервера совпадает по префиксу строки, поэтому /api/ordersX тоже попадает сюда
+        if (rawPath.length() > BASE_PATH.length() && rawPath.charAt(BASE_PATH.length()) != '/') {
+            respondError(exchange, 404, "Неизвестный путь " + exchange.getRequestURI().getPath());
+            return;
+        }
+        String[] segments = pathSegments(rawPath);
+
+        if (segments.length == 0) {
+            if ("GET".equals(method)) {
+                Map<String, String> query = queryParameters(exchange.getRequestURI().getRawQuery());
+                if (query.containsKey("limit") || query.containsKey("cursor")) {
+                    respondPage(exchange, pageOrders(query));
+                } else {
+                    respondOrders(exchange, listOrders(query));
+                }
+            } else if ("POST".equals(method)) {
+                respondOrder(exchange, 201, createOrder(readBody(exchange), idempotencyKey(exchange)));
+            } else {
+                respondError(exchange, 405, "Метод " + method + " не поддерживается");
+            }
+        } else if (segments.length == 1) {
+            if ("GET".equals(method)) {
+                Optional<Order> order = orderUseCase.getOrderById(segments[0]);
+                if (order.isPresent()) {
+                    respondOrder(exchange, 200, order.get());
+                } else {
+                    respondError(exchange, 404, "Заказ с ID " + segments[0] + " не найден");
+                }
+            } else if ("PUT".equals(method)) {
+                respondResults(exchange, batchTransition(segments[0], readBody(exchange)));
+            } else {
+                respondError(exchange, 405, "Метод " + method + " не поддерживается");
+            }
+        } else if (segments.length == 2 && "GET".equals(method) && "transitions".equals(segments[1])) {
+            respondTransitions(exchange, orderUseCase.getAllowedTransitions(segments[0]));
+        } else if (segments.length == 2 && "PUT".equals(method)) {
+            respondOrder(exchange, 200,
+                    transition(segments[0], segments[1], readBody(exchange), idempotencyKey(exchange)));
+        } else {
+            respondError(exchange, 404, "Неизвестный путь " + exchange.getRequestURI().getPath());
+        }
+    }
+
+    private List<Order> listOrders(Map<String, String> query) {
+        String supplierId = query.get("supplier");
+        String status = query.get("status");
+        String createdFrom = query.get("createdFrom");
+        String createdTo = query.get("createdTo");
+
+        if (supplierId != null && status != null) {
+            return orderUseCase.getOrdersBySupplierAndStatus(supplierId, parseStatus(status));
+        }
+        if (supplierId != null) {
+            return orderUseCase.getOrdersBySupplier(supplierId);
+        }
+        if (status != null) {
+            return orderUseCase.getOrdersByStatus(parseStatus(status));
+        }
+        if (createdFrom != null || createdTo != null) {
+            if (createdFrom == null || createdTo == null) {
+                throw new BadRequestException("Параметры createdFrom и createdTo задаются вместе");
+            }
+            return orderUseCase.getOrdersCreatedBetween(parseTimestamp(createdFrom), parseTimestamp(createdTo));
+        }
+        return orderUseCase.getAllOrders();
+    }
+
+    private OrderPage pageOrders(Map<String, String> query) {
+        int limit = parseLimit(query.getOrDefault("limit", "100"));
+        String cursor = query.get("cursor");
+        OrderCursor after;
+        try {
+            after = cursor == null || cursor.isEmpty() ? null : OrderCursor.fromToken(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+        return orderUseCase.getOrdersPage(after, limit);
+    }
+
+    private Order createOrder(Map<String, Object> body, String idempotencyKey) {
+        String supplierId = requiredString(body, "supplierId");
+        if (!(body.get("items") instanceof Map<?, ?> requested) || requested.isEmpty()) {
+            throw new BadRequestException("Поле items должно содержать продукты и их количество");
+        }
+        Map<Product, Integer> items = new HashMap<>();
+        for (Map.Entry<?, ?> entry : requested.entrySet()) {
+            Product product = productCatalog.findById(String.valueOf(entry.getKey()))
+                    .orElseThrow(() -> new BadRequestException("Продукт " + entry.getKey() + " не найден в каталоге"));
+            if (!(entry.getValue() instanceof Long quantity) || quantity <= 0 || quantity > Integer.MAX_VALUE) {
+                throw new BadRequestException("Некорректное количество для продукта " + entry.getKey());
+            }
+            items.put(product, quantity.intValue());
+        }
+        return orderUseCase.createOrder(idempotencyKey, supplierId, items);
+    }
+
+    private Order transition(String orderId, String action, Map<String, Object> body, String idempotencyKey) {
+        OrderStatus target;
+        String detail = null;
+        switch (action) {
+            case "confirm" -> target = OrderStatus.CONFIRMED;
+            case "send" -> target = OrderStatus.SENT;
+            case "in-transit" -> target = OrderStatus.IN_TRANSIT;
+            case "delivered" -> target = OrderStatus.DELIVERED;
+            case "quality-check" -> target = OrderStatus.QUALITY_CHECK;
+            case "accept" -> {
+                target = OrderStatus.ACCEPTED;
+                detail = requiredString(body, "qualityCheckResult");
+            }
+            case "reject" -> {
+                target = OrderStatus.REJECTED;
+                detail = requiredString(body, "reason");
+            }
+            case "return" -> {
+                target = OrderStatus.RETURNED;
+                detail = requiredString(body, "reason");
+            }
+            case "cancel" -> {
+                target = OrderStatus.CANCELLED;
+                detail = requiredString(body, "reason");
+            }
+            case "complete" -> target = OrderStatus.COMPLETED;
+            default -> throw new BadRequestException("Неизвестное действие " + action);
+        }
+        return orderUseCase.transitionOrder(idempotencyKey, orderId, target, detail);
+    }
+
+    // Клиент, повторяющий запрос после таймаута, передает тот же заголовок Idempotency-Key
+    private static String idempotencyKey(HttpExchange exchange) {
+        String key = exchange.getRequestHeaders().getFirst("Idempotency-Key");
+        if (key == null || key.isBlank()) {
+            return null;
+        }
+        if (key.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new BadRequestException("Ключ идемпотентности длиннее " + MAX_IDEMPOTENCY_KEY_LENGTH + " символов");
+        }
+        return key;
+    }
+
+    private List<TransitionResult> batchTransition(String action, Map<String, Object> body) {
+        if (!(body.get("orderIds") instanceof List<?> ids)) {
+            throw new BadRequestException("Поле orderIds должно содержать список идентификаторов заказов");
+        }
+        List<String> orderIds = new ArrayList<>(ids.size());
+        for (Object id : ids) {
+            orderIds.add(String.valueOf(id));
+        }
+        return switch (action) {
+            case "confirm" -> orderUseCase.confirmOrders(orderIds);
+            case "send" -> orderUseCase.sendOrdersToSupplier(orderIds);
+            case "in-transit" -> orderUseCase.markOrdersInTransit(orderIds);
+            case "delivered" -> orderUseCase.markOrdersDelivered(orderIds);
+            default -> throw new BadRequestException("Пакетное действие " + action + " не поддерживается");
+        };
+    }
+
+    private static Map<String, Object> readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            return Json.parseObject(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+    }
+
+    private static String requiredString(Map<String, Object> body, String field) {
+        if (!(body.get(field) instanceof String value) || value.isBlank()) {
+            throw new BadRequestException("Не заполнено поле " + field);
+        }
+        return value;
+    }
+
+    private static OrderStatus parseStatus(String status) {
+        try {
+            return OrderStatus.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Неизвестный статус " + status);
+        }
+    }
+
+    private static int parseLimit(String value) {
+        try {
+            int limit = Integer.parseInt(value);
+            if (limit > 0 && limit <= MAX_PAGE_SIZE) {
+                return limit;
+            }
+        } catch (NumberFormatException e) {
+            // ниже отвечаем той же ошибкой, что и для числа вне диапазона
+        }
+        throw new BadRequestException("Размер страницы должен быть от 1 до " + MAX_PAGE_SIZE);
+    }
+
+    private static LocalDateTime parseTimestamp(String value) {
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("Некорректная дата " + value);
+        }
+    }
+
+    private static String[] pathSegments(String rawPath) {
+        String rest = rawPath.substring(BASE_PATH.length());
+        List<String> segments = new ArrayList<>(2);
+        for (String segment : rest.split("/")) {
+            if (!segment.isEmpty()) {
+                segments.add(URLDecoder.decode(segment, StandardCharsets.UTF_8));
+            }
+        }
+        return segments.toArray(new String[0]);
+    }
+
+    private static Map<String, String> queryParameters(String rawQuery) {
+        Map<String, String> parameters = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0) {
+                parameters.put(URLDecoder.decode(pair.substring(0, separator), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return parameters;
+    }
+
+    private static void respondOrder(HttpExchange exchange, int status, Order order) throws IOException {
+        StringBuilder body = new StringBuilder(512);
+        OrderJson.appendOrder(body, order);
+        respond(exchange, status, body);
+    }
+
+    private static void respondOrders(HttpExchange exchange, List<Order> orders) throws IOException {
+        StringBuilder body = new StringBuilder(Math.max(64, orders.size() * 512));
+        OrderJson.appendOrders(body, orders);
+        respond(exchange, 200, body);
+    }
+
+    private static void respondPage(HttpExchange exchange, OrderPage page) throws IOException {
+        StringBuilder body = new StringBuilder(Math.max(128, page.orders().size() * 512));
+        OrderJson.appendPage(body, page);
+        respond(exchange, 200, body);
+    }
+
+    private static void respondResults(HttpExchange exchange, List<TransitionResult> results) throws IOException {
+        StringBuilder body = new StringBuilder(Math.max(64, results.size() * 96));
+        OrderJson.appendResults(body, results);
+        respond(exchange, 200, body);
+    }
+
+    private static void respondTransitions(HttpExchange exchange, Set<OrderStatus> targets) throws IOException {
+        StringBuilder body = new StringBuilder(64);
+        OrderJson.appendStatuses(body, targets);
+        respond(exchange, 200, body);
+    }
+
+    private static void respondError(HttpExchange exchange, int status, String message) throws IOException {
+        StringBuilder body = new StringBuilder(128);
+        OrderJson.appendError(body, message);
+        respond(exchange, status, body);
+    }
+
+    private static void respond(HttpExchange exchange, int status, StringBuilder body) throws IOException {
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", JSON_CONTENT_TYPE);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static final class BadRequestException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private BadRequestException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package adapter.primary;
+
+import adapter.json.Json;
+import domain.model.LineItems;
+import domain.model.Order;
+import domain.model.OrderPage;
+import domain.model.OrderStatus;
+import domain.model.Product;
+import domain.model.TransitionResult;
+
+import java.util.List;
+import java.util.Set;
+
+// Представление заказов в ответах HTTP-адаптера
+final class OrderJson {
+
+    private OrderJson() {
+    }
+
+    static void appendOrder(StringBuilder out, Order order) {
+        out.append("{\"id\":");
+        Json.appendString(out, order.getId());
+        out.append(",\"supplierId\":");
+        Json.appendString(out, order.getSupplierId());
+        out.append(",\"status\":\"").append(order.getStatus().name()).append('"');
+        out.append(",\"statusDescription\":");
+        Json.appendString(out, order.getStatus().getDescription());
+        out.append(",\"createdAt\":\"").append(order.getCreatedAt()).append('"');
+        out.append(",\"updatedAt\":\"").append(order.getUpdatedAt()).append('"');
+        out.append(",\"version\":").append(order.getVersion());
+        out.append(",\"items\":[");
+        LineItems items = order.getItems();
+        for (int line = 0; line < items.size(); line++) {
+            if (line > 0) {
+                out.append(',');
+            }
+            Product product = items.product(line);
+            out.append("{\"productId\":");
+            Json.appendString(out, product.getId());
+            out.append(",\"name\":");
+            Json.appendString(out, product.getName());
+            out.append(",\"quantity\":").append(items.quantity(line)).append('}');
+        }
+        out.append("],\"comments\":");
+        Json.appendString(out, order.getComments());
+        out.append(",\"qualityControlResult\":");
+        Json.appendString(out, order.getQualityControlResult());
+        out.append('}');
+    }
+
+    static void appendOrders(StringBuilder out, List<Order> orders) {
+        out.append('[');
+        for (int i = 0; i < orders.size(); i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            appendOrder(out, orders.get(i));
+        }
+        out.append(']');
+    }
+
+    static void appendPage(StringBuilder out, OrderPage page) {
+        out.append("{\"orders\":");
+        appendOrders(out, page.orders());
+        out.append(",\"nextCursor\":");
+        Json.appendString(out, page.hasNext() ? page.nextCursor().toToken() : null);
+        out.append('}');
+    }
+
+    static void appendResults(StringBuilder out, List<TransitionResult> results) {
+        out.append('[');
+        for (int i = 0; i < results.size(); i++) {
+            TransitionResult result = results.get(i);
+            if (i > 0) {
+                out.append(',');
+            }
+            out.append("{\"orderId\":");
+            Json.appendString(out, result.orderId());
+            out.append(",\"success\":").append(result.isSuccess());
+            if (result.isSuccess()) {
+                out.append(",\"status\":\"").append(result.order().getStatus().name()).append('"');
+            } else {
+                out.append(",\"error\":");
+                Json.appendString(out, result.error().getMessage());
+            }
+            out.append('}');
+        }
+        out.append(']');
+    }
+
+    static void appendStatuses(StringBuilder out, Set<OrderStatus> statuses) {
+        out.append('[');
+        boolean first = true;
+        for (OrderStatus status : statuses) {
+            if (!first) {
+                out.append(',');
+            }
+            out.append('"').append(status.name()).append('"');
+            first = false;
+        }
+        out.append(']');
+    }
+
+    static void appendError(StringBuilder out, String message) {
+        out.append("{\"error\":");
+        Json.appendString(out, message);
+        out.append('}');
+    }
+}
@@ -1,20 +1,29 @@
 package adapter.primary;
 
 import domain.model.Order;
+import domain.model.OrderCursor;
+import domain.model.OrderPage;
+import domain.model.OrderStatus;
 import domain.model.Product;
+import domain.model.TransitionResult;
 import domain.port.primary.OrderUseCase;
+import domain.port.secondary.ProductCatalog;
 
 
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 public class RestApi {
     private final OrderUseCase orderUseCase;
+    private final ProductCatalog productCatalog;
 
-    public RestApi(OrderUseCase orderUseCase) {
+    public RestApi(OrderUseCase orderUseCase, ProductCatalog productCatalog) {
         this.orderUseCase = orderUseCase;
+        this.productCatalog = productCatalog;
     }
 
     public List<Order> getAllOrders() {
@@ -22,28 +31,60 @@ public class RestApi {
         return orderUseCase.getAllOrders();
     }
 
+    // cursor - значение nextCursor предыдущей страницы или null для первой страницы
+    public OrderPage getOrdersPage(String cursor, int limit) {
+        System.out.println("REST API: GET /api/orders?limit=" + limit + (cursor == null ? "" : "&cursor=" + cursor));
+        return orderUseCase.getOrdersPage(cursor == null ? null : OrderCursor.fromToken(cursor), limit);
+    }
+
     public Optional<Order> getOrderById(String orderId) {
         System.out.println("REST API: GET /api/orders/" + orderId);
         return orderUseCase.getOrderById(orderId);
     }
 
+    public Set<OrderStatus> getAllowedTransitions(String orderId) {
+        System.out.println("REST API: GET /api/orders/" + orderId + "/transitions");
+        return orderUseCase.getAllowedTransitions(orderId);
+    }
+
     public List<Order> getOrdersBySupplier(String supplierId) {
         System.out.println("REST API: GET /api/orders?supplier=" + supplierId);
         return orderUseCase.getOrdersBySupplier(supplierId);
     }
 
-    public Order createOrder(String supplierId, Map<String, Integer> productQuantities, Map<String, Product> productCatalog) {
+    public List<Order> getOrdersByStatus(OrderStatus status) {
+        System.out.println("REST API: GET /api/orders?status=" + status);
+        return orderUseCase.getOrdersByStatus(status);
+    }
+
+    public List<Order> getOrdersBySupplierAndStatus(String supplierId, OrderStatus status) {
+        System.out.println("REST API: GET /api/orders?supplier=" + supplierId + "&status=" + status);
+        return orderUseCase.getOrdersBySupplierAndStatus(supplierId, status);
+    }
+
+    public List<Order> getOrdersCreatedBetween(LocalDateTime from, LocalDateTime to) {
+        System.out.println("REST API: GET /api/orders?createdFrom=" + from + "&createdTo=" + to);
+        return orderUseCase.getOrdersCreatedBetween(from, to);
+    }
+
+    // productNumbers - номера продуктов в каталоге, quantities - количества в том же порядке
+    public Order createOrder(String supplierId, int[] productNumbers, int[] quantities) {
+        return createOrder(null, supplierId, productNumbers, quantities);
+    }
+
+    // Повтор запроса с тем же idempotencyKey (заголовок Idempotency-Key) возвращает уже созданный заказ
+    public Order createOrder(String idempotencyKey, String supplierId, int[] productNumbers, int[] quantities) {
         System.out.println("REST API: POST /api/orders");
+        if (productNumbers.length != quantities.length) {
+            throw new IllegalArgumentException("Число продуктов и количеств в заказе не совпадает");
+        }
 
-        Map<Product, Integer> items = new HashMap<>();
-        for (Map.Entry<String, Integer> entry : productQuantities.entrySet()) {
-            Product product = productCatalog.get(entry.getKey());
-            if (product != null) {
-                items.put(product, entry.getValue());
-            }
+        Map<Product, Integer> items = new HashMap<>(productNumbers.length * 2);
+        for (int i = 0; i < productNumbers.length; i++) {
+            items.merge(productCatalog.get(productNumbers[i]), quantities[i], Integer::sum);
         }
 
-        return orderUseCase.createOrder(supplierId, items);
+        return orderUseCase.createOrder(idempotencyKey, supplierId, items);
     }
 
     public Order confirmOrder(String orderId) {
@@ -95,4 +136,31 @@ public class RestApi {
         System.out.println("REST API: PUT /api/orders/" + orderId + "/complete");
         return orderUseCase.completeOrder(orderId);
     }
+
+    // Переход с ключом идемпотентности: повтор после таймаута возвращает результат первого
+    // запроса, а не ошибку о том, что заказ уже в новом статусе
+    public Order transitionOrder(String idempotencyKey, String orderId, OrderStatus target, String detail) {
+        System.out.println("REST API: PUT /api/orders/" + orderId + " -> " + target);
+        return orderUseCase.transitionOrder(idempotencyKey, orderId, target, detail);
+    }
+
+    public List<TransitionResult> confirmOrders(List<String> orderIds) {
+        System.out.println("REST API: PUT /api/orders/confirm (" + orderIds.size() + " заказов)");
+        return orderUseCase.confirmOrders(orderIds);
+    }
+
+    public List<TransitionResult> sendOrdersToSupplier(List<String> orderIds) {
+        System.out.println("REST API: PUT /api/orders/send (" + orderIds.size() + " заказов)");
+        return orderUseCase.sendOrdersToSupplier(orderIds);
+    }
+
+    public List<TransitionResult> markOrdersInTransit(List<String> orderIds) {
+        System.out.println("REST API: PUT /api/orders/in-transit (" + orderIds.size() + " заказов)");
+        return orderUseCase.markOrdersInTransit(orderIds);
+    }
+
+    public List<TransitionResult> markOrdersDelivered(List<String> orderIds) {
+        System.out.println("REST API: PUT /api/orders/delivered (" + orderIds.size() + " заказов)");
+        return orderUseCase.markOrdersDelivered(orderIds);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,319 @@
+package adapter.secondary;
+
+import domain.model.Order;
+import domain.port.secondary.NotificationPort;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+// Асинхронная отправка уведомлений: вызов порта только ставит уведомление в ограниченную
+// очередь, а рабочие виртуальные потоки забирают их пачками (по размеру или по времени)
+// и передают в исходный адаптер. Подряд идущие уведомления одного вида отправляются
+// одним пакетным вызовом. После close() уведомления не принимаются: вызов порта
+// возвращает false, а уже принятые уведомления доставляются до выхода из close().
+// Рабочие потоки разбирают очередь независимо, поэтому при нескольких потоках порядок
+// доставки не гарантирован даже для одного заказа: уведомление об отправке может уйти
+// раньше запроса подтверждения того же заказа. Порядок сохраняется только с одним потоком
+public class AsyncNotificationDispatcher implements NotificationPort, AutoCloseable {
+
+    // Поведение при заполненной очереди
+    public enum OverflowPolicy {
+        // Вызывающий поток ждет освобождения места
+        BLOCK,
+        // Самое старое уведомление в очереди отбрасывается
+        DROP_OLDEST,
+        // Уведомление уходит во вторую очередь в памяти, которая вмещает SPILL_CAPACITY_FACTOR
+        // емкостей основной; сверх этого уведомление отбрасывается. Пока в ней что-то есть,
+        // новые уведомления тоже ставятся в нее, а не в основную: рабочие потоки разбирают ее
+        // после основной, и уведомления выходят в порядке постановки
+        SPILL
+    }
+
+    // Снимок показателей диспетчера
+    public record Metrics(int queueDepth, int spillDepth, long enqueued, long delivered, long failed,
+                          long dropped, long spilled, double averageLatencyMillis, double maxLatencyMillis) {
+    }
+
+    private enum Kind { ORDER, CONFIRMATION, CANCELLATION, RETURN }
+
+    private record Notification(Kind kind, Order order, String reason, long enqueuedAt) {
+    }
+
+    public static final int SPILL_CAPACITY_FACTOR = 4;
+
+    private static final long IDLE_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final NotificationPort delegate;
+    private final OverflowPolicy overflowPolicy;
+    private final int maxBatchSize;
+    private final long maxBatchDelayNanos;
+    private final BlockingQueue<Notification> queue;
+    private final Queue<Notification> spill = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger spillDepth = new AtomicInteger();
+    private final int spillCapacity;
+    private final List<Thread> workers = new ArrayList<>();
+    // Постановка в очередь идет под блокировкой на чтение, close() ставит closed под блокировкой
+    // на запись: после нее ни одно уведомление не попадет в очередь, которую уже не разберут
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+    private volatile boolean closed;
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder spilled = new LongAdder();
+    private final LongAdder latencyTotalNanos = new LongAdder();
+    private final AtomicLong latencyMaxNanos = new AtomicLong();
+
+    public AsyncNotificationDispatcher(NotificationPort delegate) {
+        this(delegate, 8192, 2, 256, Duration.ofMillis(5), OverflowPolicy.BLOCK);
+    }
+
+    public AsyncNotificationDispatcher(NotificationPort delegate, int capacity, int workerCount,
+                                       int maxBatchSize, Duration maxBatchDelay, OverflowPolicy overflowPolicy) {
+        if (capacity <= 0 || workerCount <= 0 || maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Емкость очереди, число потоков и размер пачки должны быть положительными");
+        }
+        this.delegate = delegate;
+        this.overflowPolicy = overflowPolicy;
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchDelayNanos = maxBatchDelay.toNanos();
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.spillCapacity = (int) Math.min(Integer.MAX_VALUE, (long) capacity * SPILL_CAPACITY_FACTOR);
+        for (int i = 0; i < workerCount; i++) {
+            workers.add(Thread.ofVirtual().name("notification-worker-" + i).start(this::runWorker));
+        }
+    }
+
+    @Override
+    public boolean sendOrderNotification(Order order) {
+        return enqueue(new Notification(Kind.ORDER, order, null, System.nanoTime()));
+    }
+
+    @Override
+    public boolean sendCancellationNotification(Order order, String reason) {
+        return enqueue(new Notification(Kind.CANCELLATION, order, reason, System.nanoTime()));
+    }
+
+    @Override
+    public boolean sendReturnNotification(Order order, String reason) {
+        return enqueue(new Notification(Kind.RETURN, order, reason, System.nanoTime()));
+    }
+
+    @Override
+    public boolean requestOrderConfirmation(Order order) {
+        return enqueue(new Notification(Kind.CONFIRMATION, order, null, System.nanoTime()));
+    }
+
+    @Override
+    public boolean sendOrderNotifications(List<Order> orders) {
+        boolean accepted = true;
+        for (Order order : orders) {
+            accepted &= sendOrderNotification(order);
+        }
+        return accepted;
+    }
+
+    @Override
+    public boolean requestOrderConfirmations(List<Order> orders) {
+        boolean accepted = true;
+        for (Order order : orders) {
+            accepted &= requestOrderConfirmation(order);
+        }
+        return accepted;
+    }
+
+    public Metrics metrics() {
+        long deliveredCount = delivered.sum() + failed.sum();
+        double averageLatency = deliveredCount == 0 ? 0 : latencyTotalNanos.sum() / 1e6 / deliveredCount;
+        return new Metrics(queue.size(), spillDepth.get(), enqueued.sum(), delivered.sum(), failed.sum(),
+                dropped.sum(), spilled.sum(), averageLatency, latencyMaxNanos.get() / 1e6);
+    }
+
+    // Прекращает прием уведомлений и дожидается отправки уже принятых
+    @Override
+    public void close() {
+        closeLock.writeLock().lock();
+        try {
+            closed = true;
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // false - уведомление не принято: диспетчер закрыт, ожидание места прервано
+    // или переполнена очередь переполнения
+    private boolean enqueue(Notification notification) {
+        closeLock.readLock().lock();
+        try {
+            if (closed || !offer(notification)) {
+                dropped.increment();
+                return false;
+            }
+        } finally {
+            closeLock.readLock().unlock();
+        }
+        enqueued.increment();
+        return true;
+    }
+
+    private boolean offer(Notification notification) {
+        switch (overflowPolicy) {
+            case BLOCK -> {
+                try {
+                    queue.put(notification);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            case DROP_OLDEST -> {
+                while (!queue.offer(notification)) {
+                    if (queue.poll() != null) {
+                        dropped.increment();
+                    }
+                }
+            }
+            case SPILL -> {
+                if (spillDepth.get() > 0 || !queue.offer(notification)) {
+                    if (spillDepth.incrementAndGet() > spillCapacity) {
+                        spillDepth.decrementAndGet();
+                        return false;
+                    }
+                    spill.add(notification);
+                    spilled.increment();
+                }
+            }
+        }
+        return true;
+    }
+
+    private void runWorker() {
+        List<Notification> batch = new ArrayList<>(maxBatchSize);
+        while (true) {
+            Notification first = takeNext(IDLE_POLL_NANOS);
+            if (first == null) {
+                if (closed && queue.isEmpty() && spill.isEmpty()) {
+                    return;
+                }
+                continue;
+            }
+            batch.add(first);
+            long deadline = System.nanoTime() + maxBatchDelayNanos;
+            while (batch.size() < maxBatchSize) {
+                long remaining = deadline - System.nanoTime();
+                Notification next = remaining > 0 ? takeNext(remaining) : pollNext();
+                if (next == null) {
+                    break;
+                }
+                batch.add(next);
+            }
+            deliver(batch);
+            batch.clear();
+        }
+    }
+
+    private Notification takeNext(long timeoutNanos) {
+        Notification next = pollNext();
+        if (next != null) {
+            return next;
+        }
+        try {
+            return queue.poll(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            return null;
+        }
+    }
+
+    private Notification pollNext() {
+        Notification next = queue.poll();
+        if (next == null) {
+            next = spill.poll();
+            if (next != null) {
+                spillDepth.decrementAndGet();
+            }
+        }
+        return next;
+    }
+
+    private void deliver(List<Notification> batch) {
+        int start = 0;
+        while (start < batch.size()) {
+            Kind kind = batch.get(start).kind();
+            int end = start + 1;
+            while (end < batch.size() && batch.get(end).kind() == kind) {
+                end++;
+            }
+            List<Notification> group = batch.subList(start, end);
+            boolean ok;
+            try {
+                ok = deliverGroup(kind, group);
+            } catch (RuntimeException e) {
+                ok = false;
+            }
+            record(group, ok);
+            start = end;
+        }
+    }
+
+    private boolean deliverGroup(Kind kind, List<Notification> group) {
+        return switch (kind) {
+            case ORDER -> group.size() == 1
+                    ? delegate.sendOrderNotification(group.get(0).order())
+                    : delegate.sendOrderNotifications(orders(group));
+            case CONFIRMATION -> group.size() == 1
+                    ? delegate.requestOrderConfirmation(group.get(0).order())
+                    : delegate.requestOrderConfirmations(orders(group));
+            case CANCELLATION -> deliverEach(group,
+                    notification -> delegate.sendCancellationNotification(notification.order(), notification.reason()));
+            case RETURN -> deliverEach(group,
+                    notification -> delegate.sendReturnNotification(notification.order(), notification.reason()));
+        };
+    }
+
+    private static boolean deliverEach(List<Notification> group, Predicate<Notification> send) {
+        boolean ok = true;
+        for (Notification notification : group) {
+            ok &= send.test(notification);
+        }
+        return ok;
+    }
+
+    private void record(List<Notification> group, boolean ok) {
+        long now = System.nanoTime();
+        for (Notification notification : group) {
+            long latency = now - notification.enqueuedAt();
+            latencyTotalNanos.add(latency);
+            latencyMaxNanos.accumulateAndGet(latency, Math::max);
+        }
+        (ok ? delivered : failed).add(group.size());
+    }
+
+    private static List<Order> orders(List<Notification> group) {
+        List<Order> orders = new ArrayList<>(group.size());
+        for (Notification notification : group) {
+            orders.add(notification.order());
+        }
+        return orders;
+    }
+}
@@ -0,0 +1,91 @@
+package adapter.secondary;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+
+// Буферизованный вывод строк в канал без синхронизации: кодирует текст
+// в переиспользуемые буферы и пишет в канал только при заполнении или flush().
+// Не потокобезопасен - доступ упорядочивает владелец
+public class BufferedMessageSink implements AutoCloseable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final char[] LINE_SEPARATOR = System.lineSeparator().toCharArray();
+
+    private final WritableByteChannel channel;
+    private final CharsetEncoder encoder;
+    private final ByteBuffer bytes = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private char[] chars = new char[512];
+    private CharBuffer charView = CharBuffer.wrap(chars);
+
+    public BufferedMessageSink(WritableByteChannel channel, Charset charset) {
+        this.channel = channel;
+        this.encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    // Стандартный вывод в той же кодировке, что и System.out
+    public static BufferedMessageSink stdout() {
+        String encoding = System.getProperty("stdout.encoding");
+        Charset charset = encoding != null ? Charset.forName(encoding, Charset.defaultCharset()) : Charset.defaultCharset();
+        return new BufferedMessageSink(new FileOutputStream(FileDescriptor.out).getChannel(), charset);
+    }
+
+    public void appendLine(CharSequence line) {
+        int length = line.length();
+        int total = length + LINE_SEPARATOR.length;
+        if (total > chars.length) {
+            chars = Arrays.copyOf(chars, Math.max(chars.length * 2, total));
+            charView = CharBuffer.wrap(chars);
+        }
+        if (line instanceof StringBuilder builder) {
+            builder.getChars(0, length, chars, 0);
+        } else {
+            for (int i = 0; i < length; i++) {
+                chars[i] = line.charAt(i);
+            }
+        }
+        System.arraycopy(LINE_SEPARATOR, 0, chars, length, LINE_SEPARATOR.length);
+
+        charView.clear().limit(total);
+        encoder.reset();
+        while (encoder.encode(charView, bytes, true).isOverflow()) {
+            writeBuffered();
+        }
+        while (encoder.flush(bytes).isOverflow()) {
+            writeBuffered();
+        }
+    }
+
+    public void flush() {
+        if (bytes.position() > 0) {
+            writeBuffered();
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+    }
+
+    private void writeBuffered() {
+        bytes.flip();
+        try {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ошибка вывода уведомлений", e);
+        } finally {
+            bytes.clear();
+        }
+    }
+}
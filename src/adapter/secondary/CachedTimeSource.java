@@ -0,0 +1,50 @@
+package adapter.secondary;
+
+import domain.port.secondary.TimeSource;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+
+// Часы с точностью до миллисекунды: смещение часового пояса вычисляется один раз и
+// хранится вместе с интервалом, на котором оно действует (до ближайшего перехода
+// на летнее/зимнее время), поэтому чтение - это System.currentTimeMillis и сложение.
+// Отдельный поток, обновляющий время раз в миллисекунду, не используется: он будил бы
+// процессор тысячу раз в секунду ради экономии одного дешевого системного вызова
+public class CachedTimeSource implements TimeSource {
+    private final ZoneRules rules;
+    private volatile Offset offset = new Offset(0, 0, 0);
+
+    public CachedTimeSource() {
+        this(ZoneId.systemDefault());
+    }
+
+    public CachedTimeSource(ZoneId zone) {
+        this.rules = zone.getRules();
+    }
+
+    @Override
+    public long currentMillis() {
+        long now = System.currentTimeMillis();
+        Offset current = offset;
+        if (now < current.validFrom() || now >= current.validUntil()) {
+            current = offsetAt(now);
+            offset = current;
+        }
+        return now + current.millis();
+    }
+
+    private Offset offsetAt(long now) {
+        Instant instant = Instant.ofEpochMilli(now);
+        ZoneOffsetTransition previous = rules.previousTransition(instant);
+        ZoneOffsetTransition next = rules.nextTransition(instant);
+        return new Offset(previous == null ? Long.MIN_VALUE : previous.getInstant().toEpochMilli(),
+                next == null ? Long.MAX_VALUE : next.getInstant().toEpochMilli(),
+                rules.getOffset(instant).getTotalSeconds() * 1000L);
+    }
+
+    // Смещение millis действует на интервале [validFrom, validUntil) по UTC
+    private record Offset(long validFrom, long validUntil, long millis) {
+    }
+}
@@ -0,0 +1,410 @@
+package adapter.secondary;
+
+import domain.model.Order;
+import domain.model.OrderCursor;
+import domain.model.OrderPage;
+import domain.model.OrderStatus;
+import domain.port.secondary.OrderRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+// Кэш заказов по идентификатору перед медленным хранилищем: чтение через кэш, запись
+// в хранилище и затем в кэш, удаление из кэша при удалении заказа.
+// Вытеснение - W-TinyLFU: новые заказы попадают в небольшое окно LRU (1% объема), а вышедший
+// из окна заказ допускается в основную область (сегментированный LRU: пробная и защищенная
+// части) только если обращались к нему чаще, чем к заказу, который пришлось бы вытеснить.
+// Попадание не блокируется: порядок обращений обновляется, только если блокировка политики
+// свободна, иначе обращение не учитывается. Запросы по статусу, поставщику и датам идут
+// в хранилище напрямую, чтобы обход всех заказов не вытеснял активные
+public class CachingOrderRepository implements OrderRepository {
+    private static final byte WINDOW = 0;
+    private static final byte PROBATION = 1;
+    private static final byte PROTECTED = 2;
+    private static final byte REMOVED = 3;
+
+    private final OrderRepository delegate;
+    private final int maximumSize;
+    private final int maximumWindow;
+    private final int maximumProtected;
+
+    private final Map<String, Node> data = new ConcurrentHashMap<>();
+    private final ReentrantLock policyLock = new ReentrantLock();
+    // Ниже - состояние политики, изменяется только под policyLock
+    private final AccessOrder window = new AccessOrder();
+    private final AccessOrder probation = new AccessOrder();
+    private final AccessOrder protectedOrder = new AccessOrder();
+    private final FrequencySketch sketch;
+    private int size;
+    // Увеличивается при каждом сбросе записи; заказ, прочитанный из хранилища или записанный
+    // в него до сброса, не помещается в кэш, чтобы не вернуть в него удаленную или устаревшую версию
+    private volatile long invalidations;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public record Stats(long hits, long misses, long evictions, int size) {
+
+        public double hitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 1.0 : (double) hits / requests;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("hits=%d misses=%d hitRate=%.2f%% evictions=%d size=%d",
+                    hits, misses, hitRate() * 100, evictions, size);
+        }
+    }
+
+    public CachingOrderRepository(OrderRepository delegate, int maximumSize) {
+        if (maximumSize < 2) {
+            throw new IllegalArgumentException("Размер кэша заказов должен быть не меньше 2: " + maximumSize);
+        }
+        this.delegate = delegate;
+        this.maximumSize = maximumSize;
+        this.maximumWindow = Math.max(1, maximumSize / 100);
+        this.maximumProtected = (maximumSize - maximumWindow) * 4 / 5;
+        this.sketch = new FrequencySketch(maximumSize);
+    }
+
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), data.size());
+    }
+
+    @Override
+    public Order save(Order order) {
+        long generation = invalidations;
+        Order saved = delegate.save(order);
+        put(saved, generation);
+        return saved;
+    }
+
+    // При отказе из-за версии запись сбрасывается: повтор перехода должен прочитать
+    // из хранилища версию, сохраненную другой операцией
+    @Override
+    public boolean save(Order order, long expectedVersion) {
+        long generation = invalidations;
+        if (delegate.save(order, expectedVersion)) {
+            put(order, generation);
+            return true;
+        }
+        invalidate(order.getId());
+        return false;
+    }
+
+    @Override
+    public boolean[] saveAll(List<Order> orders, long[] expectedVersions) {
+        long generation = invalidations;
+        boolean[] saved = delegate.saveAll(orders, expectedVersions);
+        // Сначала сохраненные: сброс отклоненных изменил бы поколение и запретил их запись в кэш
+        for (int i = 0; i < saved.length; i++) {
+            if (saved[i]) {
+                put(orders.get(i), generation);
+            }
+        }
+        for (int i = 0; i < saved.length; i++) {
+            if (!saved[i]) {
+                invalidate(orders.get(i).getId());
+            }
+        }
+        return saved;
+    }
+
+    // Массовая загрузка не заполняет кэш, чтобы не вытеснить активные заказы:
+    // записи загруженных заказов только сбрасываются
+    @Override
+    public void saveAll(List<Order> orders) {
+        delegate.saveAll(orders);
+        for (Order order : orders) {
+            invalidate(order.getId());
+        }
+    }
+
+    @Override
+    public Optional<Order> findById(String orderId) {
+        Node node = data.get(orderId);
+        if (node != null) {
+            hits.increment();
+            recordAccess(node);
+            return Optional.of(node.order);
+        }
+        misses.increment();
+        long generation = invalidations;
+        Optional<Order> loaded = delegate.findById(orderId);
+        loaded.ifPresent(order -> fill(order, generation));
+        return loaded;
+    }
+
+    // Отсутствующие в кэше заказы читаются из хранилища одним вызовом
+    @Override
+    public Map<String, Order> findAllById(Collection<String> orderIds) {
+        Map<String, Order> found = new HashMap<>(Math.max(4, orderIds.size() * 2));
+        List<String> missing = new ArrayList<>();
+        for (String orderId : orderIds) {
+            Node node = data.get(orderId);
+            if (node != null) {
+                hits.increment();
+                recordAccess(node);
+                found.put(orderId, node.order);
+            } else {
+                misses.increment();
+                missing.add(orderId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            long generation = invalidations;
+            Map<String, Order> loaded = delegate.findAllById(missing);
+            for (Order order : loaded.values()) {
+                fill(order, generation);
+            }
+            found.putAll(loaded);
+        }
+        return found;
+    }
+
+    @Override
+    public List<Order> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public OrderPage findPage(OrderCursor after, int limit) {
+        return delegate.findPage(after, limit);
+    }
+
+    @Override
+    public Stream<Order> streamAll() {
+        return delegate.streamAll();
+    }
+
+    @Override
+    public List<Order> findBySupplier(String supplierId) {
+        return delegate.findBySupplier(supplierId);
+    }
+
+    @Override
+    public List<Order> findByStatus(OrderStatus status) {
+        return delegate.findByStatus(status);
+    }
+
+    @Override
+    public List<Order> findBySupplierAndStatus(String supplierId, OrderStatus status) {
+        return delegate.findBySupplierAndStatus(supplierId, status);
+    }
+
+    @Override
+    public List<Order> findCreatedBetween(LocalDateTime from, LocalDateTime to) {
+        return delegate.findCreatedBetween(from, to);
+    }
+
+    @Override
+    public void delete(String orderId) {
+        delegate.delete(orderId);
+        invalidate(orderId);
+    }
+
+    private void recordAccess(Node node) {
+        if (policyLock.tryLock()) {
+            try {
+                onAccess(node);
+            } finally {
+                policyLock.unlock();
+            }
+        }
+    }
+
+    // Сохраненная версия заменяет закэшированную, если она не старше: записи из разных
+    // потоков могут прийти в кэш не в том порядке, в котором их приняло хранилище.
+    // generation - число сбросов до записи в хранилище: если заказ за это время удалили
+    // или сбросили, запись в кэш пропускается, как и в fill
+    private void put(Order order, long generation) {
+        order.seal();
+        policyLock.lock();
+        try {
+            if (generation != invalidations) {
+                return;
+            }
+            Node node = data.get(order.getId());
+            if (node == null) {
+                insert(order);
+                return;
+            }
+            if (order.getVersion() >= node.order.getVersion()) {
+                node.order = order;
+            }
+            onAccess(node);
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    private void fill(Order order, long generation) {
+        policyLock.lock();
+        try {
+            if (generation != invalidations) {
+                return;
+            }
+            Node node = data.get(order.getId());
+            if (node == null) {
+                insert(order);
+            } else if (order.getVersion() > node.order.getVersion()) {
+                node.order = order;
+            }
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    private void invalidate(String orderId) {
+        policyLock.lock();
+        try {
+            invalidations++;
+            Node node = data.remove(orderId);
+            if (node != null) {
+                unlink(node);
+            }
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    private void onAccess(Node node) {
+        sketch.increment(node.key);
+        switch (node.queue) {
+            case WINDOW -> window.moveToFront(node);
+            case PROTECTED -> protectedOrder.moveToFront(node);
+            case PROBATION -> {
+                // Повторное обращение переводит заказ в защищенную часть; ее самый давний
+                // заказ возвращается в пробную
+                probation.remove(node);
+                node.queue = PROTECTED;
+                protectedOrder.addFirst(node);
+                if (protectedOrder.size > maximumProtected) {
+                    Node demoted = protectedOrder.last();
+                    protectedOrder.remove(demoted);
+                    demoted.queue = PROBATION;
+                    probation.addFirst(demoted);
+                }
+            }
+            default -> {
+                // Запись уже вытеснена или сброшена
+            }
+        }
+    }
+
+    private void insert(Order order) {
+        Node node = new Node(order);
+        data.put(node.key, node);
+        sketch.increment(node.key);
+        window.addFirst(node);
+        size++;
+
+        Node candidate = null;
+        if (window.size > maximumWindow) {
+            candidate = window.last();
+            window.remove(candidate);
+            candidate.queue = PROBATION;
+            probation.addFirst(candidate);
+        }
+        while (size > maximumSize) {
+            evict(selectVictim(candidate));
+            candidate = null;
+        }
+    }
+
+    // Кандидат из окна соревнуется по частоте обращений с самым давним заказом пробной части
+    private Node selectVictim(Node candidate) {
+        Node victim = probation.last();
+        if (candidate != null && victim != null && victim != candidate) {
+            return sketch.frequency(candidate.key) > sketch.frequency(victim.key) ? victim : candidate;
+        }
+        if (victim != null) {
+            return victim;
+        }
+        return protectedOrder.size > 0 ? protectedOrder.last() : window.last();
+    }
+
+    private void evict(Node node) {
+        data.remove(node.key, node);
+        unlink(node);
+        evictions.increment();
+    }
+
+    private void unlink(Node node) {
+        switch (node.queue) {
+            case WINDOW -> window.remove(node);
+            case PROBATION -> probation.remove(node);
+            case PROTECTED -> protectedOrder.remove(node);
+            default -> {
+                return;
+            }
+        }
+        node.queue = REMOVED;
+        size--;
+    }
+
+    private static final class Node {
+        private final String key;
+        private volatile Order order;
+        private Node previous;
+        private Node next;
+        private byte queue = WINDOW;
+
+        private Node(Order order) {
+            this.key = order.getId();
+            this.order = order;
+        }
+
+        // Заголовок списка AccessOrder
+        private Node() {
+            this.key = null;
+        }
+    }
+
+    // Двусвязный список в порядке обращений: в начале - последний использованный заказ
+    private static final class AccessOrder {
+        private final Node head = new Node();
+        private int size;
+
+        private AccessOrder() {
+            head.previous = head;
+            head.next = head;
+        }
+
+        void addFirst(Node node) {
+            node.previous = head;
+            node.next = head.next;
+            head.next.previous = node;
+            head.next = node;
+            size++;
+        }
+
+        void remove(Node node) {
+            node.previous.next = node.next;
+            node.next.previous = node.previous;
+            node.previous = null;
+            node.next = null;
+            size--;
+        }
+
+        void moveToFront(Node node) {
+            remove(node);
+            addFirst(node);
+        }
+
+        Node last() {
+            return size == 0 ? null : head.previous;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package adapter.secondary;
+
+import domain.port.secondary.TimeSource;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Управляемые часы для тестов и проигрывания: время меняется только вызовами set/advance
+// и, если задан шаг, сдвигается на него при каждом чтении, чтобы последовательные
+// события получали разные отметки времени
+public class DeterministicTimeSource implements TimeSource {
+    private final AtomicLong millis;
+    private final long stepMillis;
+
+    public DeterministicTimeSource(LocalDateTime start) {
+        this(start, Duration.ZERO);
+    }
+
+    public DeterministicTimeSource(LocalDateTime start, Duration step) {
+        if (step.isNegative()) {
+            throw new IllegalArgumentException("Шаг часов не может быть отрицательным");
+        }
+        this.millis = new AtomicLong(TimeSource.toMillis(start));
+        this.stepMillis = step.toMillis();
+    }
+
+    @Override
+    public long currentMillis() {
+        return stepMillis == 0 ? millis.get() : millis.getAndAdd(stepMillis);
+    }
+
+    public void set(LocalDateTime time) {
+        millis.set(TimeSource.toMillis(time));
+    }
+
+    public void advance(Duration duration) {
+        millis.addAndGet(duration.toMillis());
+    }
+}
@@ -1,40 +1,253 @@
 package adapter.secondary;
 
 import domain.model.Order;
+import domain.model.OrderCursor;
+import domain.model.OrderPage;
+import domain.model.OrderStatus;
 import domain.port.secondary.OrderRepository;
+import domain.port.secondary.TimeSource;
 
 
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
 
 public class InMemoryOrderRepository implements OrderRepository {
     private final Map<String, Order> orders = new ConcurrentHashMap<>();
 
+    // Вторичные индексы хранят только идентификаторы заказов и обновляются внутри
+    // compute() по ключу заказа, поэтому изменения одного заказа не перемешиваются
+    private final Map<String, IndexEntry> indexed = new ConcurrentHashMap<>();
+    private final Map<String, Map<OrderStatus, Set<String>>> supplierIndex = new ConcurrentHashMap<>();
+    private final Map<OrderStatus, Set<String>> statusIndex = newStatusBuckets();
+    private final NavigableSet<CreatedAtKey> createdAtIndex = new ConcurrentSkipListSet<>();
+
     @Override
     public Order save(Order order) {
-        orders.put(order.getId(), order);
+        orders.compute(order.getId(), (id, previous) -> {
+            reindex(order);
+            return order.seal();
+        });
         return order;
     }
+
+    @Override
+    public boolean save(Order order, long expectedVersion) {
+        Order stored = orders.computeIfPresent(order.getId(), (id, current) -> {
+            if (current.getVersion() != expectedVersion) {
+                return current;
+            }
+            reindex(order);
+            return order.seal();
+        });
+        return stored == order;
+    }
+
+    @Override
+    public boolean[] saveAll(List<Order> orders, long[] expectedVersions) {
+        boolean[] saved = new boolean[orders.size()];
+        for (int i = 0; i < saved.length; i++) {
+            saved[i] = save(orders.get(i), expectedVersions[i]);
+        }
+        return saved;
+    }
+
     @Override
     public Optional<Order> findById(String orderId) {
         return Optional.ofNullable(orders.get(orderId));
     }
 
+    @Override
+    public Map<String, Order> findAllById(Collection<String> orderIds) {
+        Map<String, Order> found = new HashMap<>(Math.max(16, orderIds.size() * 2));
+        for (String orderId : orderIds) {
+            Order order = orders.get(orderId);
+            if (order != null) {
+                found.put(orderId, order);
+            }
+        }
+        return found;
+    }
+
     @Override
     public List<Order> findAll() {
         return new ArrayList<>(orders.values());
     }
 
+    // Обход индекса по времени создания начинается сразу с курсора, поэтому стоимость
+    // страницы зависит от ее размера, а не от общего числа заказов
+    @Override
+    public OrderPage findPage(OrderCursor after, int limit) {
+        NavigableSet<CreatedAtKey> keys = after == null
+                ? createdAtIndex
+                : createdAtIndex.tailSet(
+                        new CreatedAtKey(TimeSource.toMillis(after.createdAt()), after.orderId()), false);
+        List<Order> page = new ArrayList<>(Math.min(limit, 1024));
+        Iterator<CreatedAtKey> iterator = keys.iterator();
+        while (iterator.hasNext()) {
+            Order order = orders.get(iterator.next().orderId());
+            if (order == null) {
+                continue;
+            }
+            if (page.size() == limit) {
+                return new OrderPage(page, OrderCursor.after(page.get(limit - 1)));
+            }
+            page.add(order);
+        }
+        return new OrderPage(page, null);
+    }
+
+    @Override
+    public Stream<Order> streamAll() {
+        return createdAtIndex.stream()
+                .map(key -> orders.get(key.orderId()))
+                .filter(Objects::nonNull);
+    }
+
     @Override
     public List<Order> findBySupplier(String supplierId) {
-        return orders.values().stream()
-                .filter(order -> order.getSupplierId().equals(supplierId))
-                .collect(Collectors.toList());
+        Map<OrderStatus, Set<String>> buckets = supplierIndex.get(supplierId);
+        if (buckets == null) {
+            return new ArrayList<>();
+        }
+        List<Order> result = new ArrayList<>();
+        for (OrderStatus status : OrderStatus.values()) {
+            collect(buckets.get(status), null, result);
+        }
+        return result;
+    }
+
+    @Override
+    public List<Order> findByStatus(OrderStatus status) {
+        List<Order> result = new ArrayList<>();
+        collect(statusIndex.get(status), status, result);
+        return result;
+    }
+
+    @Override
+    public List<Order> findBySupplierAndStatus(String supplierId, OrderStatus status) {
+        Map<OrderStatus, Set<String>> buckets = supplierIndex.get(supplierId);
+        List<Order> result = new ArrayList<>();
+        if (buckets != null) {
+            collect(buckets.get(status), status, result);
+        }
+        return result;
+    }
+
+    @Override
+    public List<Order> findCreatedBetween(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            return new ArrayList<>();
+        }
+        List<Order> result = new ArrayList<>();
+        // Время заказов хранится с точностью до миллисекунды, поэтому обе границы округляются вверх
+        CreatedAtKey lower = CreatedAtKey.lowest(ceilMillis(from));
+        CreatedAtKey upper = CreatedAtKey.lowest(ceilMillis(to));
+        for (CreatedAtKey key : createdAtIndex.subSet(lower, true, upper, false)) {
+            Order order = orders.get(key.orderId());
+            if (order != null) {
+                result.add(order);
+            }
+        }
+        return result;
     }
 
     @Override
     public void delete(String orderId) {
-        orders.remove(orderId);
+        orders.computeIfPresent(orderId, (id, previous) -> {
+            unindex(id);
+            return null;
+        });
+    }
+
+    private void reindex(Order order) {
+        String id = order.getId();
+        IndexEntry current = new IndexEntry(order.getSupplierId(), order.getStatus(), order.getCreatedAtMillis());
+        IndexEntry previous = indexed.put(id, current);
+        if (current.equals(previous)) {
+            return;
+        }
+        // Время создания при смене статуса не меняется, и ключ заказа остается в индексе,
+        // чтобы параллельный обход страниц его не пропустил
+        boolean sameCreatedAt = previous != null && previous.createdAt() == current.createdAt();
+        if (previous != null) {
+            remove(id, previous, !sameCreatedAt);
+        }
+        statusIndex.get(current.status()).add(id);
+        supplierIndex.compute(current.supplierId(), (supplier, buckets) -> {
+            Map<OrderStatus, Set<String>> result = buckets != null ? buckets : new ConcurrentHashMap<>();
+            result.computeIfAbsent(current.status(), status -> ConcurrentHashMap.newKeySet()).add(id);
+            return result;
+        });
+        if (!sameCreatedAt) {
+            createdAtIndex.add(new CreatedAtKey(current.createdAt(), id));
+        }
+    }
+
+    private void unindex(String orderId) {
+        IndexEntry previous = indexed.remove(orderId);
+        if (previous != null) {
+            remove(orderId, previous, true);
+        }
+    }
+
+    private void remove(String orderId, IndexEntry entry, boolean withCreatedAt) {
+        statusIndex.get(entry.status()).remove(orderId);
+        // Группы поставщика создаются по первому заказу и удаляются вместе с последним,
+        // чтобы индекс не копил пустые группы ушедших поставщиков
+        supplierIndex.computeIfPresent(entry.supplierId(), (supplier, buckets) -> {
+            buckets.computeIfPresent(entry.status(), (status, ids) -> {
+                ids.remove(orderId);
+                return ids.isEmpty() ? null : ids;
+            });
+            return buckets.isEmpty() ? null : buckets;
+        });
+        if (withCreatedAt) {
+            createdAtIndex.remove(new CreatedAtKey(entry.createdAt(), orderId));
+        }
+    }
+
+    // Заказ мог быть изменен на месте, но еще не сохранен, поэтому статус перепроверяется
+    private void collect(Set<String> ids, OrderStatus status, List<Order> result) {
+        if (ids == null) {
+            return;
+        }
+        for (String id : ids) {
+            Order order = orders.get(id);
+            if (order != null && (status == null || order.getStatus() == status)) {
+                result.add(order);
+            }
+        }
+    }
+
+    private static Map<OrderStatus, Set<String>> newStatusBuckets() {
+        Map<OrderStatus, Set<String>> buckets = new EnumMap<>(OrderStatus.class);
+        for (OrderStatus status : OrderStatus.values()) {
+            buckets.put(status, ConcurrentHashMap.newKeySet());
+        }
+        return buckets;
+    }
+
+    private static long ceilMillis(LocalDateTime time) {
+        long millis = TimeSource.toMillis(time);
+        return time.getNano() % 1_000_000 == 0 ? millis : millis + 1;
+    }
+
+    private record IndexEntry(String supplierId, OrderStatus status, long createdAt) {
+    }
+
+    private record CreatedAtKey(long createdAt, String orderId) implements Comparable<CreatedAtKey> {
+
+        static CreatedAtKey lowest(long createdAt) {
+            return new CreatedAtKey(createdAt, "");
+        }
+
+        @Override
+        public int compareTo(CreatedAtKey other) {
+            int byTime = Long.compare(createdAt, other.createdAt);
+            return byTime != 0 ? byTime : orderId.compareTo(other.orderId);
+        }
     }
 }
@@ -0,0 +1,115 @@
+package adapter.secondary;
+
+import domain.model.Product;
+import domain.model.ProductRegistry;
+import domain.port.secondary.ProductCatalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+// Каталог поверх ProductRegistry: номер продукта в каталоге совпадает с его номером в реестре,
+// поэтому составы заказов из того же реестра ссылаются на тот же экземпляр продукта.
+// В реестре могут быть и продукты вне каталога (например, из восстановленных заказов),
+// поэтому принадлежность каталогу хранится отдельной битовой картой по номерам реестра.
+// Изменения идут под блокировкой, чтение без блокировок: запись size публикует добавленное
+public class InMemoryProductCatalog implements ProductCatalog {
+    private final ProductRegistry registry;
+
+    private long[] members = new long[1];
+    private int[] numbers = new int[16];
+    private volatile int size;
+
+    public InMemoryProductCatalog() {
+        this(new ProductRegistry());
+    }
+
+    // registry - реестр продуктов приложения, общий с сервисом заказов и хранилищем
+    public InMemoryProductCatalog(ProductRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public int add(Product product) {
+        int number = registry.register(product);
+        synchronized (this) {
+            addLocked(number);
+        }
+        return number;
+    }
+
+    @Override
+    public int[] addAll(Collection<Product> products) {
+        int[] added = registry.registerAll(products);
+        synchronized (this) {
+            for (int number : added) {
+                addLocked(number);
+            }
+        }
+        return added;
+    }
+
+    @Override
+    public Product get(int productNumber) {
+        if (!contains(productNumber)) {
+            throw new IllegalArgumentException("Продукт с номером " + productNumber + " не найден в каталоге");
+        }
+        return registry.get(productNumber);
+    }
+
+    @Override
+    public boolean contains(int productNumber) {
+        if (size == 0 || productNumber < 0) {
+            return false;
+        }
+        long[] current = members;
+        int word = productNumber >>> 6;
+        return word < current.length && (current[word] & (1L << productNumber)) != 0;
+    }
+
+    @Override
+    public int numberOf(String productId) {
+        int number = registry.indexOf(productId);
+        return contains(number) ? number : -1;
+    }
+
+    @Override
+    public Optional<Product> findById(String productId) {
+        int number = numberOf(productId);
+        return number < 0 ? Optional.empty() : Optional.of(registry.get(number));
+    }
+
+    @Override
+    public List<Product> findAll() {
+        int count = size;
+        int[] current = numbers;
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            products.add(registry.get(current[i]));
+        }
+        return products;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private void addLocked(int number) {
+        int word = number >>> 6;
+        if (word >= members.length) {
+            members = Arrays.copyOf(members, Math.max(word + 1, members.length * 2));
+        }
+        if ((members[word] & (1L << number)) != 0) {
+            return;
+        }
+        members[word] |= 1L << number;
+        if (size == numbers.length) {
+            numbers = Arrays.copyOf(numbers, size * 2);
+        }
+        numbers[size] = number;
+        size = size + 1;
+    }
+}
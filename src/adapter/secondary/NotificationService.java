@@ -2,71 +2,176 @@ package adapter.secondary;
 
 import domain.model.Order;
 import domain.port.secondary.NotificationPort;
+import domain.port.secondary.TimeSource;
 
-import java.time.LocalDateTime;
+import java.time.Duration;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
 
-public class NotificationService implements NotificationPort {
+// Уведомления отрисовываются по заранее разобранным шаблонам в переиспользуемый буфер
+// и пишутся в буферизованный приемник; вывод сбрасывается после пакетных вызовов
+// и, после start(), фоновым потоком не реже чем раз в flushInterval. До start() вывод
+// сбрасывается после каждого уведомления
+public class NotificationService implements NotificationPort, AutoCloseable {
     private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
+    private static final Duration DEFAULT_FLUSH_INTERVAL = Duration.ofMillis(50);
+
+    private static final NotificationTemplate ORDER_SENT = NotificationTemplate.compile(
+            "[{timestamp}] Уведомление для поставщика {supplier}: Новый заказ #{order} отправлен. " +
+                    "Статус: {status}. Количество позиций: {items}");
+    private static final NotificationTemplate ORDER_CANCELLED = NotificationTemplate.compile(
+            "[{timestamp}] Уведомление для поставщика {supplier}: Заказ #{order} отменен. " +
+                    "Причина: {reason}");
+    private static final NotificationTemplate ORDER_RETURNED = NotificationTemplate.compile(
+            "[{timestamp}] Уведомление для поставщика {supplier}: Заказ #{order} возвращен. " +
+                    "Причина: {reason}");
+    private static final NotificationTemplate CONFIRMATION_REQUEST = NotificationTemplate.compile(
+            "[{timestamp}] Запрос подтверждения для поставщика {supplier}: Заказ #{order} ожидает подтверждения. " +
+                    "Количество позиций: {items}");
+
+    private final TimestampCache timestamps;
+    private final BufferedMessageSink sink;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final StringBuilder message = new StringBuilder(256);
+    private final long flushIntervalMillis; // 0 - фоновый сброс не нужен
+    private volatile Thread flusher;
+    private volatile boolean closed;
+
+    public NotificationService() {
+        this(new CachedTimeSource());
+    }
+
+    public NotificationService(TimeSource clock) {
+        this(BufferedMessageSink.stdout(), DEFAULT_FLUSH_INTERVAL, clock);
+    }
+
+    // flushInterval == Duration.ZERO сбрасывает вывод после каждого уведомления
+    public NotificationService(BufferedMessageSink sink, Duration flushInterval) {
+        this(sink, flushInterval, new CachedTimeSource());
+    }
+
+    public NotificationService(BufferedMessageSink sink, Duration flushInterval, TimeSource clock) {
+        this.sink = sink;
+        this.timestamps = new TimestampCache(formatter, clock);
+        this.flushIntervalMillis = flushInterval.isZero() ? 0 : Math.max(1, flushInterval.toMillis());
+    }
+
+    // Запускает фоновый сброс вывода; повторный вызов ничего не делает
+    public void start() {
+        lock.lock();
+        try {
+            if (flusher == null && flushIntervalMillis > 0 && !closed) {
+                flusher = Thread.ofPlatform().daemon().name("notification-flusher").start(this::runFlusher);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
 
     @Override
     public boolean sendOrderNotification(Order order) {
-        String message = String.format(
-                "[%s] Уведомление для поставщика %s: Новый заказ #%s отправлен. " +
-                        "Статус: %s. Количество позиций: %d",
-                LocalDateTime.now().format(formatter),
-                order.getSupplierId(),
-                order.getId(),
-                order.getStatus().getDescription(),
-                order.getItems().size()
-        );
-
-        System.out.println(message);
+        write(ORDER_SENT, order, null);
+        return true;
+    }
+
+    @Override
+    public boolean sendOrderNotifications(List<Order> orders) {
+        writeAll(ORDER_SENT, orders);
         return true;
     }
 
     @Override
     public boolean sendCancellationNotification(Order order, String reason) {
-        String message = String.format(
-                "[%s] Уведомление для поставщика %s: Заказ #%s отменен. " +
-                        "Причина: %s",
-                LocalDateTime.now().format(formatter),
-                order.getSupplierId(),
-                order.getId(),
-                reason
-        );
-
-        System.out.println(message);
+        write(ORDER_CANCELLED, order, reason);
         return true;
     }
 
     @Override
     public boolean sendReturnNotification(Order order, String reason) {
-        String message = String.format(
-                "[%s] Уведомление для поставщика %s: Заказ #%s возвращен. " +
-                        "Причина: %s",
-                LocalDateTime.now().format(formatter),
-                order.getSupplierId(),
-                order.getId(),
-                reason
-        );
-
-        System.out.println(message);
+        write(ORDER_RETURNED, order, reason);
         return true;
     }
 
     @Override
     public boolean requestOrderConfirmation(Order order) {
-        String message = String.format(
-                "[%s] Запрос подтверждения для поставщика %s: Заказ #%s ожидает подтверждения. " +
-                        "Количество позиций: %d",
-                LocalDateTime.now().format(formatter),
-                order.getSupplierId(),
-                order.getId(),
-                order.getItems().size()
-        );
-
-        System.out.println(message);
+        write(CONFIRMATION_REQUEST, order, null);
         return true;
     }
-}
\ No newline at end of file
+
+    @Override
+    public boolean requestOrderConfirmations(List<Order> orders) {
+        writeAll(CONFIRMATION_REQUEST, orders);
+        return true;
+    }
+
+    public void flush() {
+        lock.lock();
+        try {
+            sink.flush();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // После close() уведомления по-прежнему пишутся, но сбрасываются сразу, как до start()
+    @Override
+    public void close() {
+        Thread running;
+        lock.lock();
+        try {
+            closed = true;
+            running = flusher;
+            flusher = null;
+            sink.flush();
+        } finally {
+            lock.unlock();
+        }
+        if (running != null) {
+            running.interrupt();
+        }
+    }
+
+    private void write(NotificationTemplate template, Order order, String reason) {
+        String timestamp = timestamps.current();
+        lock.lock();
+        try {
+            render(template, timestamp, order, reason);
+            if (flusher == null) {
+                sink.flush();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void writeAll(NotificationTemplate template, List<Order> orders) {
+        String timestamp = timestamps.current();
+        lock.lock();
+        try {
+            for (Order order : orders) {
+                render(template, timestamp, order, null);
+            }
+            sink.flush();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void render(NotificationTemplate template, String timestamp, Order order, String reason) {
+        message.setLength(0);
+        template.render(message, timestamp, order, reason);
+        sink.appendLine(message);
+    }
+
+    private void runFlusher() {
+        while (!closed) {
+            try {
+                Thread.sleep(flushIntervalMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            flush();
+        }
+    }
+}
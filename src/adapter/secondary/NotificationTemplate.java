@@ -0,0 +1,74 @@
+package adapter.secondary;
+
+import domain.model.Order;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Заранее разобранный шаблон уведомления с именованными полями вида {supplier}.
+// Отрисовка дописывает части шаблона в переданный буфер без промежуточных строк
+final class NotificationTemplate {
+    private static final String[] FIELDS = {"timestamp", "supplier", "order", "status", "items", "reason"};
+    private static final int TIMESTAMP = 0;
+    private static final int SUPPLIER = 1;
+    private static final int ORDER = 2;
+    private static final int STATUS = 3;
+    private static final int ITEMS = 4;
+    private static final int REASON = 5;
+
+    // literals[i] предшествует полю fields[i]; последний элемент literals - хвост шаблона
+    private final String[] literals;
+    private final int[] fields;
+
+    private NotificationTemplate(String[] literals, int[] fields) {
+        this.literals = literals;
+        this.fields = fields;
+    }
+
+    static NotificationTemplate compile(String pattern) {
+        List<String> literals = new ArrayList<>();
+        List<Integer> fields = new ArrayList<>();
+        int position = 0;
+        while (true) {
+            int open = pattern.indexOf('{', position);
+            if (open < 0) {
+                break;
+            }
+            int close = pattern.indexOf('}', open);
+            if (close < 0) {
+                throw new IllegalArgumentException("Незакрытое поле в шаблоне: " + pattern);
+            }
+            literals.add(pattern.substring(position, open));
+            fields.add(fieldIndex(pattern.substring(open + 1, close), pattern));
+            position = close + 1;
+        }
+        literals.add(pattern.substring(position));
+        return new NotificationTemplate(literals.toArray(new String[0]),
+                fields.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    void render(StringBuilder out, String timestamp, Order order, String reason) {
+        for (int i = 0; i < fields.length; i++) {
+            out.append(literals[i]);
+            switch (fields[i]) {
+                case TIMESTAMP -> out.append(timestamp);
+                case SUPPLIER -> out.append(order.getSupplierId());
+                case ORDER -> out.append(order.getId());
+                case STATUS -> out.append(order.getStatus().getDescription());
+                case ITEMS -> out.append(order.getItems().size());
+                case REASON -> out.append(reason);
+                default -> throw new IllegalStateException("Неизвестное поле шаблона: " + fields[i]);
+            }
+        }
+        out.append(literals[fields.length]);
+    }
+
+    private static int fieldIndex(String name, String pattern) {
+        for (int i = 0; i < FIELDS.length; i++) {
+            if (FIELDS[i].equals(name)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Неизвестное поле {" + name + "} в шаблоне: " + pattern);
+    }
+}
@@ -0,0 +1,745 @@
+package adapter.secondary;
+
+import domain.model.AuditEntry;
+import domain.model.AuditTrail;
+import domain.model.LineItems;
+import domain.model.Order;
+import domain.model.OrderCursor;
+import domain.model.OrderPage;
+import domain.model.OrderStatus;
+import domain.model.ProductRegistry;
+import domain.port.secondary.OrderRepository;
+import domain.port.secondary.TimeSource;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// Хранилище заказов вне кучи Java: заказы лежат в прямых ByteBuffer, а объекты Order
+// создаются только при чтении. Число объектов в куче не зависит от числа заказов,
+// поэтому время сборки мусора не растет вместе с хранилищем.
+//
+// Каждому заказу выделяется слот фиксированного размера в таблице слотов: адрес записи,
+// версия, время создания и изменения, хэш идентификатора, номер поставщика и статус.
+// Остальное (идентификатор, позиции по номерам реестра продуктов, комментарии, история) -
+// запись переменной длины в блоке из слэба. Блоки выделяются классами по степеням двойки
+// и после освобождения переиспользуются; запись, которая помещается в свой блок,
+// перезаписывается на месте. Идентификатор ищется по хэш-таблице со слотами, порядок
+// страниц задает отсортированный по времени создания и идентификатору массив слотов.
+// Запросы по статусу и поставщику просматривают таблицу слотов без разбора записей.
+//
+// Номера продуктов действительны только в реестре хранилища и текущем процессе - хранилище
+// не переживает перезапуск. Прямая память ограничена -XX:MaxDirectMemorySize (по умолчанию - размер кучи)
+public class OffHeapOrderRepository implements OrderRepository {
+    private static final int DEFAULT_SLAB_SIZE = 64 * 1024 * 1024;
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+    private static final ByteOrder ORDER = ByteOrder.nativeOrder();
+
+    // Слот: смещения полей
+    private static final int ADDRESS = 0;
+    private static final int VERSION = 8;
+    private static final int CREATED_AT = 16;
+    private static final int UPDATED_AT = 24;
+    private static final int ID_HASH = 32;
+    private static final int SUPPLIER = 36;
+    private static final int RECORD_LENGTH = 40;
+    private static final int STATUS = 44;
+    private static final int SIZE_CLASS = 45;
+    private static final int SLOT_SIZE = 48;
+    private static final long FREE = -1;
+    private static final int MAX_SLOTS = Integer.MAX_VALUE / SLOT_SIZE;
+
+    private static final int MIN_BLOCK_SHIFT = 6; // блоки от 64 байт
+    private static final int EMPTY = 0;
+    private static final int TOMBSTONE = -1;
+    private static final int NULL_LENGTH = -1;
+
+    private final ProductRegistry registry;
+    private final int slabSize;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final List<ByteBuffer> slabs = new ArrayList<>();
+    private int slabPosition;
+    private final long[] freeBlocks; // по классу размера - первый свободный блок или FREE
+
+    private ByteBuffer slots = allocate(1024 * SLOT_SIZE);
+    private int slotCount;
+    private int[] freeSlots = new int[16];
+    private int freeSlotCount;
+
+    private ByteBuffer hashTable = allocate(4096 * Integer.BYTES); // номер слота + 1
+    private int hashCapacity = 4096;
+    private int hashOccupied; // занятые и удаленные позиции
+
+    private ByteBuffer sorted = allocate(1024 * Integer.BYTES); // слоты по времени создания и идентификатору
+    private int sortedSize;
+    private int size;
+
+    private final Map<String, Integer> supplierCodes = new HashMap<>();
+    private final List<String> suppliers = new ArrayList<>();
+
+    public OffHeapOrderRepository() {
+        this(new ProductRegistry());
+    }
+
+    public OffHeapOrderRepository(int slabSize) {
+        this(new ProductRegistry(), slabSize);
+    }
+
+    // registry - реестр, в котором хранятся номера продуктов; составы из другого реестра
+    // перекладываются в него при записи
+    public OffHeapOrderRepository(ProductRegistry registry) {
+        this(registry, DEFAULT_SLAB_SIZE);
+    }
+
+    public OffHeapOrderRepository(ProductRegistry registry, int slabSize) {
+        if (Integer.bitCount(slabSize) != 1 || slabSize < 1 << MIN_BLOCK_SHIFT) {
+            throw new IllegalArgumentException("Размер слэба должен быть степенью двойки не меньше 64: " + slabSize);
+        }
+        this.registry = registry;
+        this.slabSize = slabSize;
+        this.freeBlocks = new long[Integer.numberOfTrailingZeros(slabSize) - MIN_BLOCK_SHIFT + 1];
+        Arrays.fill(freeBlocks, FREE);
+    }
+
+    @Override
+    public Order save(Order order) {
+        byte[] idBytes = order.getId().getBytes(StandardCharsets.UTF_8);
+        byte[] record = encode(order, idBytes);
+        lock.writeLock().lock();
+        try {
+            int slot = findSlot(idBytes, order.getId().hashCode());
+            store(slot, order, idBytes, record);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return order;
+    }
+
+    // Записи кодируются до блокировки, весь пакет сохраняется за одно ее взятие
+    @Override
+    public void saveAll(List<Order> orders) {
+        byte[][] ids = new byte[orders.size()][];
+        byte[][] records = new byte[orders.size()][];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = orders.get(i).getId().getBytes(StandardCharsets.UTF_8);
+            records[i] = encode(orders.get(i), ids[i]);
+        }
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < ids.length; i++) {
+                Order order = orders.get(i);
+                store(findSlot(ids[i], order.getId().hashCode()), order, ids[i], records[i]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean save(Order order, long expectedVersion) {
+        byte[] idBytes = order.getId().getBytes(StandardCharsets.UTF_8);
+        byte[] record = encode(order, idBytes);
+        lock.writeLock().lock();
+        try {
+            return compareAndStore(order, expectedVersion, idBytes, record);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Записи кодируются до блокировки; весь пакет сохраняется за одно ее взятие
+    @Override
+    public boolean[] saveAll(List<Order> orders, long[] expectedVersions) {
+        byte[][] ids = new byte[orders.size()][];
+        byte[][] records = new byte[orders.size()][];
+        for (int i = 0; i < records.length; i++) {
+            ids[i] = orders.get(i).getId().getBytes(StandardCharsets.UTF_8);
+            records[i] = encode(orders.get(i), ids[i]);
+        }
+        boolean[] saved = new boolean[records.length];
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < records.length; i++) {
+                saved[i] = compareAndStore(orders.get(i), expectedVersions[i], ids[i], records[i]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return saved;
+    }
+
+    @Override
+    public Optional<Order> findById(String orderId) {
+        byte[] idBytes = orderId.getBytes(StandardCharsets.UTF_8);
+        lock.readLock().lock();
+        try {
+            int slot = findSlot(idBytes, orderId.hashCode());
+            return slot < 0 ? Optional.empty() : Optional.of(read(slot));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Map<String, Order> findAllById(Collection<String> orderIds) {
+        Map<String, Order> found = new HashMap<>(Math.max(16, orderIds.size() * 2));
+        lock.readLock().lock();
+        try {
+            for (String orderId : orderIds) {
+                int slot = findSlot(orderId.getBytes(StandardCharsets.UTF_8), orderId.hashCode());
+                if (slot >= 0) {
+                    found.put(orderId, read(slot));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return found;
+    }
+
+    @Override
+    public List<Order> findAll() {
+        return scan(-1, null);
+    }
+
+    // Начало страницы находится двоичным поиском по отсортированному массиву слотов
+    @Override
+    public OrderPage findPage(OrderCursor after, int limit) {
+        lock.readLock().lock();
+        try {
+            int from = after == null ? 0 : upperBound(TimeSource.toMillis(after.createdAt()), after.orderId());
+            int to = (int) Math.min(size, (long) from + limit);
+            List<Order> page = new ArrayList<>(Math.max(0, to - from));
+            for (int position = from; position < to; position++) {
+                page.add(read(sorted.getInt(position * Integer.BYTES)));
+            }
+            OrderCursor next = to < size && !page.isEmpty() ? OrderCursor.after(page.get(page.size() - 1)) : null;
+            return new OrderPage(page, next);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Заказы читаются страницами по курсору, поэтому обход не держит блокировку хранилища
+    @Override
+    public Stream<Order> streamAll() {
+        Iterator<Order> pages = new Iterator<>() {
+            private OrderPage page = findPage(null, 256);
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == page.orders().size() && page.hasNext()) {
+                    page = findPage(page.nextCursor(), 256);
+                    next = 0;
+                }
+                return next < page.orders().size();
+            }
+
+            @Override
+            public Order next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return page.orders().get(next++);
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(pages,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    @Override
+    public List<Order> findBySupplier(String supplierId) {
+        return scan(-1, supplierId);
+    }
+
+    @Override
+    public List<Order> findByStatus(OrderStatus status) {
+        return scan(status.ordinal(), null);
+    }
+
+    @Override
+    public List<Order> findBySupplierAndStatus(String supplierId, OrderStatus status) {
+        return scan(status.ordinal(), supplierId);
+    }
+
+    @Override
+    public List<Order> findCreatedBetween(LocalDateTime from, LocalDateTime to) {
+        List<Order> result = new ArrayList<>();
+        if (!from.isBefore(to)) {
+            return result;
+        }
+        lock.readLock().lock();
+        try {
+            // Время заказов хранится с точностью до миллисекунды, поэтому обе границы округляются вверх
+            int end = lowerBound(ceilMillis(to));
+            for (int position = lowerBound(ceilMillis(from)); position < end; position++) {
+                result.add(read(sorted.getInt(position * Integer.BYTES)));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    @Override
+    public void delete(String orderId) {
+        byte[] idBytes = orderId.getBytes(StandardCharsets.UTF_8);
+        lock.writeLock().lock();
+        try {
+            int slot = findSlot(idBytes, orderId.hashCode());
+            if (slot < 0) {
+                return;
+            }
+            removeHash(slot);
+            removeSorted(slot);
+            int base = slot * SLOT_SIZE;
+            release(slots.getLong(base + ADDRESS), slots.get(base + SIZE_CLASS));
+            slots.putLong(base + ADDRESS, FREE);
+            if (freeSlotCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeSlotCount * 2);
+            }
+            freeSlots[freeSlotCount++] = slot;
+            size--;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Прямая память, занятая слэбами и таблицами
+    public long offHeapBytes() {
+        lock.readLock().lock();
+        try {
+            return (long) slabs.size() * slabSize + slots.capacity() + hashTable.capacity() + sorted.capacity();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean compareAndStore(Order order, long expectedVersion, byte[] idBytes, byte[] record) {
+        int slot = findSlot(idBytes, order.getId().hashCode());
+        if (slot < 0 || slots.getLong(slot * SLOT_SIZE + VERSION) != expectedVersion) {
+            return false;
+        }
+        store(slot, order, idBytes, record);
+        return true;
+    }
+
+    // slot < 0 - новый заказ
+    private void store(int slot, Order order, byte[] idBytes, byte[] record) {
+        int sizeClass = sizeClass(record.length);
+        boolean created = slot < 0;
+        long address;
+        if (created) {
+            slot = newSlot();
+            address = allocateBlock(sizeClass);
+        } else {
+            int base = slot * SLOT_SIZE;
+            address = slots.getLong(base + ADDRESS);
+            int currentClass = slots.get(base + SIZE_CLASS);
+            if (sizeClass > currentClass) {
+                release(address, currentClass);
+                address = allocateBlock(sizeClass);
+            } else {
+                sizeClass = currentClass;
+            }
+        }
+        slab(address).put(offset(address), record);
+
+        int base = slot * SLOT_SIZE;
+        long previousCreatedAt = created ? 0 : slots.getLong(base + CREATED_AT);
+        boolean reorder = !created && previousCreatedAt != order.getCreatedAtMillis();
+        if (reorder) {
+            removeSorted(slot);
+        }
+        slots.putLong(base + ADDRESS, address);
+        slots.putLong(base + VERSION, order.getVersion());
+        slots.putLong(base + CREATED_AT, order.getCreatedAtMillis());
+        slots.putLong(base + UPDATED_AT, order.getUpdatedAtMillis());
+        slots.putInt(base + ID_HASH, order.getId().hashCode());
+        slots.putInt(base + SUPPLIER, supplierCode(order.getSupplierId()));
+        slots.putInt(base + RECORD_LENGTH, record.length);
+        slots.put(base + STATUS, (byte) order.getStatus().ordinal());
+        slots.put(base + SIZE_CLASS, (byte) sizeClass);
+        if (created) {
+            insertHash(slot);
+            size++;
+        }
+        if (created || reorder) {
+            insertSorted(slot, order.getCreatedAtMillis(), order.getId());
+        }
+    }
+
+    private List<Order> scan(int status, String supplierId) {
+        List<Order> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            int supplier = -1;
+            if (supplierId != null) {
+                Integer code = supplierCodes.get(supplierId);
+                if (code == null) {
+                    return result;
+                }
+                supplier = code;
+            }
+            for (int slot = 0; slot < slotCount; slot++) {
+                int base = slot * SLOT_SIZE;
+                if (slots.getLong(base + ADDRESS) != FREE
+                        && (status < 0 || slots.get(base + STATUS) == status)
+                        && (supplier < 0 || slots.getInt(base + SUPPLIER) == supplier)) {
+                    result.add(read(slot));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    // Запись: идентификатор, позиции (номер продукта, количество), комментарий,
+    // результат проверки качества, история (число записей, записи)
+    private byte[] encode(Order order, byte[] idBytes) {
+        byte[] note = utf8(order.getNote());
+        byte[] qualityControlResult = utf8(order.getQualityControlResult());
+        LineItems items = order.getItems().inRegistry(registry);
+        List<AuditEntry> entries = order.getAuditTrail().entries();
+        byte[][] reasons = new byte[entries.size()][];
+        int length = stringLength(idBytes) + Integer.BYTES + items.size() * 2 * Integer.BYTES
+                + stringLength(note) + stringLength(qualityControlResult) + Integer.BYTES;
+        for (int i = 0; i < reasons.length; i++) {
+            reasons[i] = utf8(entries.get(i).reason());
+            length += Long.BYTES + 2 + stringLength(reasons[i]);
+        }
+
+        ByteBuffer out = ByteBuffer.allocate(length).order(ORDER);
+        putString(out, idBytes);
+        out.putInt(items.size());
+        for (int line = 0; line < items.size(); line++) {
+            out.putInt(items.productIndex(line));
+            out.putInt(items.quantity(line));
+        }
+        putString(out, note);
+        putString(out, qualityControlResult);
+        out.putInt(reasons.length);
+        for (int i = 0; i < reasons.length; i++) {
+            AuditEntry entry = entries.get(i);
+            out.putLong(toEpochNanos(entry.timestamp()));
+            out.put((byte) entry.from().ordinal());
+            out.put((byte) entry.to().ordinal());
+            putString(out, reasons[i]);
+        }
+        return out.array();
+    }
+
+    private Order read(int slot) {
+        int base = slot * SLOT_SIZE;
+        long address = slots.getLong(base + ADDRESS);
+        ByteBuffer in = slab(address).slice(offset(address), slots.getInt(base + RECORD_LENGTH)).order(ORDER);
+
+        String id = getString(in);
+        int[] productIndices = new int[in.getInt()];
+        int[] quantities = new int[productIndices.length];
+        for (int line = 0; line < productIndices.length; line++) {
+            productIndices[line] = in.getInt();
+            quantities[line] = in.getInt();
+        }
+        String note = getString(in);
+        String qualityControlResult = getString(in);
+        int entryCount = in.getInt();
+        List<AuditEntry> entries = new ArrayList<>(entryCount);
+        for (int i = 0; i < entryCount; i++) {
+            entries.add(new AuditEntry(fromEpochNanos(in.getLong()), STATUSES[in.get()], STATUSES[in.get()],
+                    getString(in)));
+        }
+        return new Order(id, suppliers.get(slots.getInt(base + SUPPLIER)), STATUSES[slots.get(base + STATUS)],
+                slots.getLong(base + CREATED_AT), slots.getLong(base + UPDATED_AT),
+                LineItems.ofIndices(registry, productIndices, quantities), note, qualityControlResult,
+                slots.getLong(base + VERSION), AuditTrail.of(entries));
+    }
+
+    private int supplierCode(String supplierId) {
+        Integer code = supplierCodes.get(supplierId);
+        if (code == null) {
+            code = suppliers.size();
+            suppliers.add(supplierId);
+            supplierCodes.put(supplierId, code);
+        }
+        return code;
+    }
+
+    private int newSlot() {
+        if (freeSlotCount > 0) {
+            return freeSlots[--freeSlotCount];
+        }
+        if (slotCount == MAX_SLOTS) {
+            throw new IllegalStateException("Превышено число заказов в хранилище: " + MAX_SLOTS);
+        }
+        if ((slotCount + 1) * SLOT_SIZE > slots.capacity()) {
+            slots = grow(slots, (int) Math.min((long) MAX_SLOTS * SLOT_SIZE, 2L * slots.capacity()));
+        }
+        return slotCount++;
+    }
+
+    // Блоки: класс k занимает 64 << k байт; адрес - номер слэба и смещение в нем.
+    // В освобожденном блоке хранится адрес следующего свободного блока того же класса
+    private long allocateBlock(int sizeClass) {
+        long address = freeBlocks[sizeClass];
+        if (address != FREE) {
+            freeBlocks[sizeClass] = slab(address).getLong(offset(address));
+            return address;
+        }
+        int blockSize = 1 << (sizeClass + MIN_BLOCK_SHIFT);
+        if (slabs.isEmpty() || slabPosition + blockSize > slabSize) {
+            slabs.add(allocate(slabSize));
+            slabPosition = 0;
+        }
+        address = ((long) (slabs.size() - 1) << 32) | slabPosition;
+        slabPosition += blockSize;
+        return address;
+    }
+
+    private void release(long address, int sizeClass) {
+        slab(address).putLong(offset(address), freeBlocks[sizeClass]);
+        freeBlocks[sizeClass] = address;
+    }
+
+    private int sizeClass(int length) {
+        int sizeClass = Math.max(0, 32 - Integer.numberOfLeadingZeros(length - 1) - MIN_BLOCK_SHIFT);
+        if (sizeClass >= freeBlocks.length) {
+            throw new IllegalArgumentException("Заказ занимает " + length + " байт - больше размера слэба " + slabSize);
+        }
+        return sizeClass;
+    }
+
+    private ByteBuffer slab(long address) {
+        return slabs.get((int) (address >>> 32));
+    }
+
+    private static int offset(long address) {
+        return (int) address;
+    }
+
+    // Хэш-таблица с открытой адресацией: номер слота + 1, 0 - пусто, -1 - удаленный заказ
+    private int findSlot(byte[] idBytes, int hash) {
+        int mask = hashCapacity - 1;
+        for (int position = spread(hash) & mask; ; position = (position + 1) & mask) {
+            int entry = hashTable.getInt(position * Integer.BYTES);
+            if (entry == EMPTY) {
+                return -1;
+            }
+            if (entry != TOMBSTONE && slots.getInt((entry - 1) * SLOT_SIZE + ID_HASH) == hash
+                    && idEquals(entry - 1, idBytes)) {
+                return entry - 1;
+            }
+        }
+    }
+
+    private void insertHash(int slot) {
+        int mask = hashCapacity - 1;
+        int position = spread(slots.getInt(slot * SLOT_SIZE + ID_HASH)) & mask;
+        while (hashTable.getInt(position * Integer.BYTES) > 0) {
+            position = (position + 1) & mask;
+        }
+        if (hashTable.getInt(position * Integer.BYTES) == EMPTY) {
+            hashOccupied++;
+        }
+        hashTable.putInt(position * Integer.BYTES, slot + 1);
+        if (hashOccupied > hashCapacity / 2) {
+            rehash(size + 1 > hashCapacity / 4 ? hashCapacity * 2 : hashCapacity);
+        }
+    }
+
+    private void removeHash(int slot) {
+        int mask = hashCapacity - 1;
+        int position = spread(slots.getInt(slot * SLOT_SIZE + ID_HASH)) & mask;
+        while (hashTable.getInt(position * Integer.BYTES) != slot + 1) {
+            position = (position + 1) & mask;
+        }
+        hashTable.putInt(position * Integer.BYTES, TOMBSTONE);
+    }
+
+    private void rehash(int capacity) {
+        ByteBuffer previous = hashTable;
+        int previousCapacity = hashCapacity;
+        hashTable = allocate(capacity * Integer.BYTES);
+        hashCapacity = capacity;
+        hashOccupied = 0;
+        int mask = capacity - 1;
+        for (int i = 0; i < previousCapacity; i++) {
+            int entry = previous.getInt(i * Integer.BYTES);
+            if (entry > 0) {
+                int position = spread(slots.getInt((entry - 1) * SLOT_SIZE + ID_HASH)) & mask;
+                while (hashTable.getInt(position * Integer.BYTES) != EMPTY) {
+                    position = (position + 1) & mask;
+                }
+                hashTable.putInt(position * Integer.BYTES, entry);
+                hashOccupied++;
+            }
+        }
+    }
+
+    private boolean idEquals(int slot, byte[] idBytes) {
+        long address = slots.getLong(slot * SLOT_SIZE + ADDRESS);
+        ByteBuffer slab = slab(address);
+        int offset = offset(address);
+        if (slab.getInt(offset) != idBytes.length) {
+            return false;
+        }
+        offset += Integer.BYTES;
+        for (int i = 0; i < idBytes.length; i++) {
+            if (slab.get(offset + i) != idBytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Отсортированный массив слотов. Новые заказы обычно создаются позже уже сохраненных
+    // и добавляются в конец; вставка в середину и удаление сдвигают хвост массива
+    private void insertSorted(int slot, long createdAt, String orderId) {
+        if ((sortedSize + 1) * Integer.BYTES > sorted.capacity()) {
+            sorted = grow(sorted, 2 * sorted.capacity());
+        }
+        int position = upperBound(createdAt, orderId);
+        if (position < sortedSize) {
+            sorted.put((position + 1) * Integer.BYTES, sorted, position * Integer.BYTES,
+                    (sortedSize - position) * Integer.BYTES);
+        }
+        sorted.putInt(position * Integer.BYTES, slot);
+        sortedSize++;
+    }
+
+    private void removeSorted(int slot) {
+        int position = lowerBound(slots.getLong(slot * SLOT_SIZE + CREATED_AT));
+        while (sorted.getInt(position * Integer.BYTES) != slot) {
+            position++;
+        }
+        sorted.put(position * Integer.BYTES, sorted, (position + 1) * Integer.BYTES,
+                (sortedSize - position - 1) * Integer.BYTES);
+        sortedSize--;
+    }
+
+    // Первая позиция с временем создания не раньше createdAt
+    private int lowerBound(long createdAt) {
+        int low = 0;
+        int high = sortedSize;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (slots.getLong(sorted.getInt(middle * Integer.BYTES) * SLOT_SIZE + CREATED_AT) < createdAt) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    // Первая позиция после заказа с ключом (createdAt, orderId)
+    private int upperBound(long createdAt, String orderId) {
+        int low = lowerBound(createdAt);
+        int high = sortedSize;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int slot = sorted.getInt(middle * Integer.BYTES);
+            if (slots.getLong(slot * SLOT_SIZE + CREATED_AT) == createdAt && readId(slot).compareTo(orderId) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private String readId(int slot) {
+        long address = slots.getLong(slot * SLOT_SIZE + ADDRESS);
+        ByteBuffer slab = slab(address);
+        byte[] bytes = new byte[slab.getInt(offset(address))];
+        slab.get(offset(address) + Integer.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static ByteBuffer allocate(int capacity) {
+        return ByteBuffer.allocateDirect(capacity).order(ORDER);
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer, int capacity) {
+        if (capacity <= buffer.capacity()) {
+            throw new IllegalStateException("Таблица хранилища заказов достигла предельного размера");
+        }
+        ByteBuffer grown = allocate(capacity);
+        grown.put(0, buffer, 0, buffer.capacity());
+        return grown;
+    }
+
+    private static int spread(int hash) {
+        return (hash ^ (hash >>> 16)) * 0x9E3779B9;
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int stringLength(byte[] bytes) {
+        return Integer.BYTES + (bytes == null ? 0 : bytes.length);
+    }
+
+    private static void putString(ByteBuffer out, byte[] bytes) {
+        if (bytes == null) {
+            out.putInt(NULL_LENGTH);
+            return;
+        }
+        out.putInt(bytes.length);
+        out.put(bytes);
+    }
+
+    private static String getString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long toEpochNanos(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + time.getNano();
+    }
+
+    private static LocalDateTime fromEpochNanos(long nanos) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L),
+                (int) Math.floorMod(nanos, 1_000_000_000L), ZoneOffset.UTC);
+    }
+
+    private static long ceilMillis(LocalDateTime time) {
+        long millis = TimeSource.toMillis(time);
+        return time.getNano() % 1_000_000 == 0 ? millis : millis + 1;
+    }
+}
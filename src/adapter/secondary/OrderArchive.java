@@ -0,0 +1,319 @@
+package adapter.secondary;
+
+import domain.model.Order;
+import domain.model.ProductRegistry;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// Холодный архив заказов: неизменяемые сегменты, каждый - один проход архивации.
+// Заказы сегмента упорядочены по идентификатору и сжаты блоками по ORDERS_PER_BLOCK заказов
+// (Deflate, записи в формате OrderCodec). В конце сегмента - разреженный индекс: первый
+// идентификатор и смещение каждого блока, поэтому поиск читает и распаковывает один блок.
+// Сегмент пишется во временный файл и переименовывается, так что недописанных сегментов
+// не бывает. Удаленные из архива заказы перечисляются в отдельном файле
+final class OrderArchive implements AutoCloseable {
+    private static final String PREFIX = "segment-";
+    private static final String SUFFIX = ".arc";
+    private static final String DELETED = "deleted.ids";
+    private static final int MAGIC = 0x4F524441; // "ORDA"
+    private static final int ORDERS_PER_BLOCK = 64;
+    private static final int TRAILER_SIZE = Long.BYTES + Integer.BYTES;
+
+    private final Path directory;
+    private final ProductRegistry registry; // продукты прочитанных заказов
+    private final FileChannel deletedLog;
+    private final Set<String> deleted = ConcurrentHashMap.newKeySet();
+    private volatile List<Segment> segments; // в порядке записи, новые в конце
+    private long nextSegment;
+
+    OrderArchive(Path directory, ProductRegistry registry) throws IOException {
+        this.directory = directory;
+        this.registry = registry;
+        Files.createDirectories(directory);
+        List<Segment> opened = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.sorted().toList()) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(".tmp")) {
+                    Files.delete(file);
+                } else if (name.startsWith(PREFIX) && name.endsWith(SUFFIX)) {
+                    opened.add(Segment.open(file));
+                    nextSegment = Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())) + 1;
+                }
+            }
+        }
+        this.segments = List.copyOf(opened);
+        Path deletedFile = directory.resolve(DELETED);
+        if (Files.exists(deletedFile)) {
+            deleted.addAll(Files.readAllLines(deletedFile, StandardCharsets.UTF_8));
+        }
+        this.deletedLog = FileChannel.open(deletedFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    // После возврата заказы находятся через find: вызывающий код может удалять их из живого хранилища
+    synchronized void append(List<Order> orders) throws IOException {
+        if (orders.isEmpty()) {
+            return;
+        }
+        List<Order> sorted = new ArrayList<>(orders);
+        sorted.sort(Comparator.comparing(Order::getId));
+        Path target = directory.resolve(String.format("%s%020d%s", PREFIX, nextSegment, SUFFIX));
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel),
+                    1 << 16));
+            int blockCount = (sorted.size() + ORDERS_PER_BLOCK - 1) / ORDERS_PER_BLOCK;
+            long[] offsets = new long[blockCount];
+            long position = 0;
+            for (int block = 0; block < blockCount; block++) {
+                List<Order> blockOrders = sorted.subList(block * ORDERS_PER_BLOCK,
+                        Math.min(sorted.size(), (block + 1) * ORDERS_PER_BLOCK));
+                byte[] raw = encodeBlock(blockOrders);
+                byte[] compressed = deflate(raw);
+                offsets[block] = position;
+                out.writeInt(raw.length);
+                out.writeInt(compressed.length);
+                out.write(compressed);
+                position += 2 * Integer.BYTES + compressed.length;
+            }
+            // Разреженный индекс: смещение и первый идентификатор блока, затем последний идентификатор сегмента
+            out.writeInt(blockCount);
+            for (int block = 0; block < blockCount; block++) {
+                out.writeLong(offsets[block]);
+                OrderCodec.writeString(sorted.get(block * ORDERS_PER_BLOCK).getId(), out);
+            }
+            OrderCodec.writeString(sorted.get(sorted.size() - 1).getId(), out);
+            out.writeLong(position);
+            out.writeInt(MAGIC);
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        nextSegment++;
+
+        List<Segment> published = new ArrayList<>(segments);
+        published.add(Segment.open(target));
+        segments = List.copyOf(published);
+    }
+
+    // Более новые сегменты просматриваются первыми
+    Optional<Order> find(String orderId) {
+        if (deleted.contains(orderId)) {
+            return Optional.empty();
+        }
+        List<Segment> current = segments;
+        for (int i = current.size() - 1; i >= 0; i--) {
+            Order order = current.get(i).find(orderId, registry);
+            if (order != null) {
+                return Optional.of(order);
+            }
+        }
+        return Optional.empty();
+    }
+
+    synchronized void delete(String orderId) throws IOException {
+        if (deleted.contains(orderId) || find(orderId).isEmpty()) {
+            return;
+        }
+        ByteBuffer line = ByteBuffer.wrap((orderId + "\n").getBytes(StandardCharsets.UTF_8));
+        while (line.hasRemaining()) {
+            deletedLog.write(line);
+        }
+        deletedLog.force(false);
+        deleted.add(orderId);
+    }
+
+    // Все заказы архива; заказ, записанный в несколько сегментов (повтор архивации после сбоя),
+    // выдается один раз. Множество просмотренных идентификаторов держится в памяти на время обхода
+    Stream<Order> stream() {
+        List<Segment> current = segments;
+        Set<String> seen = new HashSet<>();
+        return IntStream.range(0, current.size())
+                .mapToObj(i -> current.get(current.size() - 1 - i))
+                .flatMap(segment -> IntStream.range(0, segment.blockCount())
+                        .mapToObj(block -> segment.readBlock(block, registry))
+                        .flatMap(List::stream))
+                .filter(order -> !deleted.contains(order.getId()) && seen.add(order.getId()));
+    }
+
+    int segmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (Segment segment : segments) {
+            segment.channel.close();
+        }
+        deletedLog.close();
+    }
+
+    // Блок: [длина][запись OrderCodec] по каждому заказу
+    private static byte[] encodeBlock(List<Order> orders) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(orders.size() * 256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        ByteArrayOutputStream record = new ByteArrayOutputStream(256);
+        DataOutputStream recordOut = new DataOutputStream(record);
+        for (Order order : orders) {
+            record.reset();
+            OrderCodec.write(order, recordOut);
+            out.writeInt(record.size());
+            record.writeTo(out);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater();
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.length / 4 + 64);
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                compressed.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return compressed.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static final class Segment {
+        private final Path file;
+        private final FileChannel channel;
+        private final long[] offsets;
+        private final String[] firstIds;
+        private final String lastId;
+
+        private Segment(Path file, FileChannel channel, long[] offsets, String[] firstIds, String lastId) {
+            this.file = file;
+            this.channel = channel;
+            this.offsets = offsets;
+            this.firstIds = firstIds;
+            this.lastId = lastId;
+        }
+
+        static Segment open(Path file) throws IOException {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+            try {
+                long size = channel.size();
+                ByteBuffer trailer = size < TRAILER_SIZE ? null : read(channel, size - TRAILER_SIZE, TRAILER_SIZE);
+                if (trailer == null || trailer.getInt(Long.BYTES) != MAGIC) {
+                    throw new IllegalStateException("Файл " + file + " не является сегментом архива заказов");
+                }
+                long indexOffset = trailer.getLong();
+                ByteBuffer index = read(channel, indexOffset, (int) (size - TRAILER_SIZE - indexOffset));
+                int blockCount = index.getInt();
+                long[] offsets = new long[blockCount];
+                String[] firstIds = new String[blockCount];
+                for (int block = 0; block < blockCount; block++) {
+                    offsets[block] = index.getLong();
+                    firstIds[block] = OrderCodec.readString(index);
+                }
+                return new Segment(file, channel, offsets, firstIds, OrderCodec.readString(index));
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        int blockCount() {
+            return offsets.length;
+        }
+
+        // null, если заказа в сегменте нет
+        Order find(String orderId, ProductRegistry registry) {
+            if (orderId.compareTo(firstIds[0]) < 0 || orderId.compareTo(lastId) > 0) {
+                return null;
+            }
+            int block = Arrays.binarySearch(firstIds, orderId);
+            if (block < 0) {
+                block = -block - 2;
+            }
+            ByteBuffer raw = inflateBlock(block);
+            while (raw.hasRemaining()) {
+                int length = raw.getInt();
+                ByteBuffer record = raw.slice(raw.position(), length);
+                raw.position(raw.position() + length);
+                int comparison = OrderCodec.readString(record.duplicate()).compareTo(orderId);
+                if (comparison == 0) {
+                    return OrderCodec.read(record, registry);
+                }
+                if (comparison > 0) {
+                    return null;
+                }
+            }
+            return null;
+        }
+
+        List<Order> readBlock(int block, ProductRegistry registry) {
+            ByteBuffer raw = inflateBlock(block);
+            List<Order> orders = new ArrayList<>(ORDERS_PER_BLOCK);
+            while (raw.hasRemaining()) {
+                int length = raw.getInt();
+                orders.add(OrderCodec.read(raw.slice(raw.position(), length), registry));
+                raw.position(raw.position() + length);
+            }
+            return orders;
+        }
+
+        private ByteBuffer inflateBlock(int block) {
+            Inflater inflater = new Inflater();
+            try {
+                ByteBuffer header = read(channel, offsets[block], 2 * Integer.BYTES);
+                byte[] raw = new byte[header.getInt()];
+                ByteBuffer compressed = read(channel, offsets[block] + 2 * Integer.BYTES, header.getInt());
+                inflater.setInput(compressed);
+                if (inflater.inflate(raw) != raw.length || !inflater.finished()) {
+                    throw new IllegalStateException("Блок " + block + " сегмента архива " + file + " поврежден");
+                }
+                return ByteBuffer.wrap(raw);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Не удалось прочитать сегмент архива " + file, e);
+            } catch (DataFormatException e) {
+                throw new IllegalStateException("Блок " + block + " сегмента архива " + file + " поврежден", e);
+            } finally {
+                inflater.end();
+            }
+        }
+
+        private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new IllegalStateException("Сегмент архива заказов оборван");
+                }
+            }
+            return buffer.flip();
+        }
+    }
+}
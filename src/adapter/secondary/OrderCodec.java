@@ -0,0 +1,139 @@
+package adapter.secondary;
+
+import domain.model.AuditEntry;
+import domain.model.AuditTrail;
+import domain.model.LineItems;
+import domain.model.Order;
+import domain.model.OrderStatus;
+import domain.model.Product;
+import domain.model.ProductRegistry;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+// Двоичное представление заказа для журнала и файлов хранилища
+final class OrderCodec {
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+    private static final int NULL_LENGTH = -1;
+
+    private OrderCodec() {
+    }
+
+    static void write(Order order, DataOutput out) throws IOException {
+        writeString(order.getId(), out);
+        writeString(order.getSupplierId(), out);
+        out.writeByte(order.getStatus().ordinal());
+        writeTimestamp(order.getCreatedAtMillis(), out);
+        writeTimestamp(order.getUpdatedAtMillis(), out);
+
+        LineItems items = order.getItems();
+        out.writeInt(items.size());
+        for (int line = 0; line < items.size(); line++) {
+            Product product = items.product(line);
+            writeString(product.getId(), out);
+            writeString(product.getName(), out);
+            writeString(product.getCategory(), out);
+            writeString(product.getTemperatureMode(), out);
+            out.writeInt(product.getShelfLifeDays());
+            out.writeInt(items.quantity(line));
+        }
+
+        writeString(order.getNote(), out);
+        writeString(order.getQualityControlResult(), out);
+        out.writeLong(order.getVersion());
+
+        AuditTrail auditTrail = order.getAuditTrail();
+        out.writeInt(auditTrail.size());
+        for (AuditEntry entry : auditTrail.entries()) {
+            writeTimestamp(entry.timestamp(), out);
+            out.writeByte(entry.from().ordinal());
+            out.writeByte(entry.to().ordinal());
+            writeString(entry.reason(), out);
+        }
+    }
+
+    // Продукты состава регистрируются в registry
+    static Order read(ByteBuffer in, ProductRegistry registry) {
+        String id = readString(in);
+        String supplierId = readString(in);
+        OrderStatus status = STATUSES[in.get()];
+        long createdAt = readTimestampMillis(in);
+        long updatedAt = readTimestampMillis(in);
+
+        int itemCount = in.getInt();
+        int[] productIndices = new int[itemCount];
+        int[] quantities = new int[itemCount];
+        for (int i = 0; i < itemCount; i++) {
+            Product product = new Product(readString(in), readString(in), readString(in), readString(in), in.getInt());
+            productIndices[i] = registry.register(product);
+            quantities[i] = in.getInt();
+        }
+        LineItems items = LineItems.ofIndices(registry, productIndices, quantities);
+
+        String note = readString(in);
+        String qualityControlResult = readString(in);
+        long version = in.getLong();
+        AuditTrail auditTrail = readAuditTrail(in);
+        return new Order(id, supplierId, status, createdAt, updatedAt, items, note, qualityControlResult, version,
+                auditTrail);
+    }
+
+    private static AuditTrail readAuditTrail(ByteBuffer in) {
+        int count = in.getInt();
+        List<AuditEntry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            entries.add(new AuditEntry(readTimestamp(in), STATUSES[in.get()], STATUSES[in.get()], readString(in)));
+        }
+        return AuditTrail.of(entries);
+    }
+
+    static void writeString(String value, DataOutput out) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL_LENGTH);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        if (in.hasArray()) {
+            String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+            in.position(in.position() + length);
+            return value;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void writeTimestamp(LocalDateTime value, DataOutput out) throws IOException {
+        out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(value.getNano());
+    }
+
+    static LocalDateTime readTimestamp(ByteBuffer in) {
+        return LocalDateTime.ofEpochSecond(in.getLong(), in.getInt(), ZoneOffset.UTC);
+    }
+
+    // Локальные миллисекунды (см. TimeSource) в том же формате: секунды и наносекунды
+    private static void writeTimestamp(long localMillis, DataOutput out) throws IOException {
+        out.writeLong(Math.floorDiv(localMillis, 1000));
+        out.writeInt(Math.floorMod(localMillis, 1000) * 1_000_000);
+    }
+
+    private static long readTimestampMillis(ByteBuffer in) {
+        return in.getLong() * 1000 + in.getInt() / 1_000_000;
+    }
+}
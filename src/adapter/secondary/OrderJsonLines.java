@@ -0,0 +1,268 @@
+package adapter.secondary;
+
+import adapter.json.Json;
+import domain.model.AuditEntry;
+import domain.model.AuditTrail;
+import domain.model.LineItems;
+import domain.model.Order;
+import domain.model.OrderStatus;
+import domain.model.Product;
+import domain.model.ProductRegistry;
+import domain.port.secondary.TimeSource;
+
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Заказ одной строкой JSON для выгрузки в формате JSON Lines: все поля, которые хранит
+// OrderCodec, включая описание продуктов, версию и историю, чтобы загрузка восстановила
+// заказ без каталога. Время - локальное в формате ISO-8601.
+// Строка читается сразу в поля заказа через Json.reader, без промежуточных Map и List: при
+// выгрузке миллионов заказов разбор общего вида заметно дороже. Неизвестные поля пропускаются
+final class OrderJsonLines {
+
+    private OrderJsonLines() {
+    }
+
+    static void write(Order order, StringBuilder out) {
+        out.append("{\"id\":");
+        Json.appendString(out, order.getId());
+        out.append(",\"supplierId\":");
+        Json.appendString(out, order.getSupplierId());
+        out.append(",\"status\":\"").append(order.getStatus().name());
+        out.append("\",\"createdAt\":\"").append(TimeSource.toLocalDateTime(order.getCreatedAtMillis()));
+        out.append("\",\"updatedAt\":\"").append(TimeSource.toLocalDateTime(order.getUpdatedAtMillis()));
+        out.append("\",\"version\":").append(order.getVersion());
+        out.append(",\"items\":[");
+        LineItems items = order.getItems();
+        for (int line = 0; line < items.size(); line++) {
+            if (line > 0) {
+                out.append(',');
+            }
+            Product product = items.product(line);
+            out.append("{\"productId\":");
+            Json.appendString(out, product.getId());
+            out.append(",\"name\":");
+            Json.appendString(out, product.getName());
+            out.append(",\"category\":");
+            Json.appendString(out, product.getCategory());
+            out.append(",\"temperatureMode\":");
+            Json.appendString(out, product.getTemperatureMode());
+            out.append(",\"shelfLifeDays\":").append(product.getShelfLifeDays());
+            out.append(",\"quantity\":").append(items.quantity(line)).append('}');
+        }
+        out.append("],\"note\":");
+        Json.appendString(out, order.getNote());
+        out.append(",\"qualityControlResult\":");
+        Json.appendString(out, order.getQualityControlResult());
+        AuditTrail auditTrail = order.getAuditTrail();
+        out.append(",\"audit\":[");
+        List<AuditEntry> entries = auditTrail.entries();
+        for (int i = 0; i < entries.size(); i++) {
+            AuditEntry entry = entries.get(i);
+            if (i > 0) {
+                out.append(',');
+            }
+            out.append("{\"timestamp\":\"").append(entry.timestamp());
+            out.append("\",\"from\":\"").append(entry.from().name());
+            out.append("\",\"to\":\"").append(entry.to().name());
+            out.append("\",\"reason\":");
+            Json.appendString(out, entry.reason());
+            out.append('}');
+        }
+        out.append("]}");
+    }
+
+    // Продукты состава регистрируются в registry
+    static Order read(String line, ProductRegistry registry) {
+        Json in = Json.reader(line);
+        String id = null;
+        String supplierId = null;
+        OrderStatus status = null;
+        long createdAt = Long.MIN_VALUE;
+        long updatedAt = Long.MIN_VALUE;
+        long version = 0;
+        LineItems items = null;
+        String note = null;
+        String qualityControlResult = null;
+        List<AuditEntry> audit = List.of();
+
+        in.expect('{');
+        if (!in.consume('}')) {
+            do {
+                String field = in.string();
+                in.expect(':');
+                switch (field) {
+                    case "id" -> id = in.string();
+                    case "supplierId" -> supplierId = in.string();
+                    case "status" -> status = status(in);
+                    case "createdAt" -> createdAt = TimeSource.toMillis(timestamp(in));
+                    case "updatedAt" -> updatedAt = TimeSource.toMillis(timestamp(in));
+                    case "version" -> version = in.longValue();
+                    case "items" -> items = readItems(in, registry);
+                    case "note" -> note = in.nullableString();
+                    case "qualityControlResult" -> qualityControlResult = in.nullableString();
+                    case "audit" -> audit = readAudit(in);
+                    default -> in.skipValue();
+                }
+            } while (in.consume(','));
+            in.expect('}');
+        }
+        in.expectEnd();
+
+        if (id == null || supplierId == null || status == null || items == null
+                || createdAt == Long.MIN_VALUE || updatedAt == Long.MIN_VALUE) {
+            throw new IllegalArgumentException("Не заполнены обязательные поля заказа");
+        }
+        return new Order(id, supplierId, status, createdAt, updatedAt, items, note, qualityControlResult, version,
+                AuditTrail.of(audit));
+    }
+
+    private static LineItems readItems(Json in, ProductRegistry registry) {
+        int[] productIndices = new int[4];
+        int[] quantities = new int[4];
+        int count = 0;
+        in.expect('[');
+        if (!in.consume(']')) {
+            do {
+                String productId = null;
+                String name = null;
+                String category = null;
+                String temperatureMode = null;
+                int shelfLifeDays = 0;
+                int quantity = 0;
+                in.expect('{');
+                do {
+                    String field = in.string();
+                    in.expect(':');
+                    switch (field) {
+                        case "productId" -> productId = in.string();
+                        case "name" -> name = in.nullableString();
+                        case "category" -> category = in.nullableString();
+                        case "temperatureMode" -> temperatureMode = in.nullableString();
+                        case "shelfLifeDays" -> shelfLifeDays = (int) in.longValue();
+                        case "quantity" -> quantity = (int) in.longValue();
+                        default -> in.skipValue();
+                    }
+                } while (in.consume(','));
+                in.expect('}');
+                if (productId == null || quantity <= 0) {
+                    throw new IllegalArgumentException("Позиция заказа без продукта или количества");
+                }
+                if (count == productIndices.length) {
+                    productIndices = Arrays.copyOf(productIndices, count * 2);
+                    quantities = Arrays.copyOf(quantities, count * 2);
+                }
+                productIndices[count] = registry.register(
+                        new Product(productId, name, category, temperatureMode, shelfLifeDays));
+                quantities[count++] = quantity;
+            } while (in.consume(','));
+            in.expect(']');
+        }
+        return LineItems.ofIndices(registry, Arrays.copyOf(productIndices, count), Arrays.copyOf(quantities, count));
+    }
+
+    private static List<AuditEntry> readAudit(Json in) {
+        List<AuditEntry> entries = new ArrayList<>();
+        in.expect('[');
+        if (!in.consume(']')) {
+            do {
+                LocalDateTime timestamp = null;
+                OrderStatus from = null;
+                OrderStatus to = null;
+                String reason = null;
+                in.expect('{');
+                do {
+                    String field = in.string();
+                    in.expect(':');
+                    switch (field) {
+                        case "timestamp" -> timestamp = timestamp(in);
+                        case "from" -> from = status(in);
+                        case "to" -> to = status(in);
+                        case "reason" -> reason = in.nullableString();
+                        default -> in.skipValue();
+                    }
+                } while (in.consume(','));
+                in.expect('}');
+                if (timestamp == null || from == null || to == null) {
+                    throw new IllegalArgumentException("Запись истории без времени или статусов");
+                }
+                entries.add(new AuditEntry(timestamp, from, to, reason));
+            } while (in.consume(','));
+            in.expect(']');
+        }
+        return entries;
+    }
+
+    private static OrderStatus status(Json in) {
+        String name = in.string();
+        try {
+            return OrderStatus.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            throw in.error("неизвестный статус " + name);
+        }
+    }
+
+    // Время в том виде, в каком его пишет write (LocalDateTime.toString), разбирается
+    // по позициям; остальные формы ISO-8601 - через LocalDateTime.parse
+    private static LocalDateTime timestamp(Json in) {
+        String value = in.string();
+        try {
+            LocalDateTime parsed = parseIsoLocal(value);
+            return parsed != null ? parsed : LocalDateTime.parse(value);
+        } catch (DateTimeException e) {
+            throw in.error("некорректное время " + value);
+        }
+    }
+
+    // yyyy-MM-ddTHH:mm[:ss[.доли секунды]]; null, если строка другого вида
+    private static LocalDateTime parseIsoLocal(String value) {
+        int length = value.length();
+        if (length < 16 || value.charAt(4) != '-' || value.charAt(7) != '-' || value.charAt(10) != 'T'
+                || value.charAt(13) != ':') {
+            return null;
+        }
+        int year = digits(value, 0, 4);
+        int month = digits(value, 5, 2);
+        int day = digits(value, 8, 2);
+        int hour = digits(value, 11, 2);
+        int minute = digits(value, 14, 2);
+        int second = 0;
+        int nanos = 0;
+        if (length > 16) {
+            if (length < 19 || value.charAt(16) != ':') {
+                return null;
+            }
+            second = digits(value, 17, 2);
+            if (length > 19) {
+                int fractionDigits = length - 20;
+                if (value.charAt(19) != '.' || fractionDigits < 1 || fractionDigits > 9) {
+                    return null;
+                }
+                nanos = digits(value, 20, fractionDigits);
+                for (int i = fractionDigits; i < 9; i++) {
+                    nanos *= 10;
+                }
+            }
+        }
+        if ((year | month | day | hour | minute | second | nanos) < 0) {
+            return null;
+        }
+        return LocalDateTime.of(year, month, day, hour, minute, second, nanos);
+    }
+
+    // -1, если среди символов есть не цифра
+    private static int digits(String value, int start, int count) {
+        int result = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = value.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            result = result * 10 + digit;
+        }
+        return result;
+    }
+}
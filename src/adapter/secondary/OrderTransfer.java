@@ -0,0 +1,238 @@
+package adapter.secondary;
+
+import domain.model.Order;
+import domain.model.ProductRegistry;
+import domain.port.secondary.OrderRepository;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Выгрузка и загрузка заказов потоком через файловые каналы: в памяти одновременно находится
+// не больше одного буфера ввода-вывода и одного пакета заказов, поэтому объем кучи не зависит
+// от числа заказов. Выгрузка пишется во временный файл и переименовывается после записи на
+// диск; загрузка сохраняет заказы пакетами через OrderRepository.saveAll(List) как есть,
+// с версиями и историей, заменяя заказы с теми же идентификаторами.
+// JSON_LINES - заказ на строку (OrderJsonLines), для просмотра и переноса в другие системы;
+// BINARY - записи OrderCodec с длиной, компактнее и быстрее в разборе
+public final class OrderTransfer {
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    private static final int MAGIC = 0x4F524458; // "ORDX"
+    private static final int FORMAT_VERSION = 2; // 2 - история OrderCodec без числа вытесненных записей
+    private static final int END_OF_RECORDS = -1;
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    public enum Format {
+        JSON_LINES,
+        BINARY;
+
+        // .jsonl и .json - JSON_LINES, остальные файлы - BINARY
+        public static Format of(Path file) {
+            String name = file.getFileName().toString();
+            return name.endsWith(".jsonl") || name.endsWith(".json") ? JSON_LINES : BINARY;
+        }
+    }
+
+    private OrderTransfer() {
+    }
+
+    public static long exportOrders(OrderRepository repository, Path target, Format format) throws IOException {
+        try (Stream<Order> orders = repository.streamAll()) {
+            return exportOrders(orders, target, format);
+        }
+    }
+
+    // Возвращает число выгруженных заказов
+    public static long exportOrders(Stream<Order> orders, Path target, Format format) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        long count;
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            count = format == Format.JSON_LINES ? writeJsonLines(orders, channel) : writeBinary(orders, channel);
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return count;
+    }
+
+    public static long importOrders(Path source, Format format, OrderRepository repository) throws IOException {
+        return importOrders(source, format, repository, new ProductRegistry(), DEFAULT_BATCH_SIZE);
+    }
+
+    public static long importOrders(Path source, Format format, OrderRepository repository, ProductRegistry registry)
+            throws IOException {
+        return importOrders(source, format, repository, registry, DEFAULT_BATCH_SIZE);
+    }
+
+    // Возвращает число загруженных заказов; продукты составов регистрируются в registry.
+    // При ошибке в записи уже сохраненные пакеты остаются в хранилище: повтор загрузки того же
+    // файла перезапишет их теми же версиями
+    public static long importOrders(Path source, Format format, OrderRepository repository, ProductRegistry registry,
+                                    int batchSize) throws IOException {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Размер пакета загрузки должен быть положительным: " + batchSize);
+        }
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            Batch batch = new Batch(repository, batchSize);
+            if (format == Format.JSON_LINES) {
+                readJsonLines(channel, batch, registry);
+            } else {
+                readBinary(channel, batch, registry, source);
+            }
+            batch.flush();
+            return batch.loaded;
+        }
+    }
+
+    private static long writeJsonLines(Stream<Order> orders, FileChannel channel) throws IOException {
+        Writer out = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), BUFFER_SIZE);
+        StringBuilder line = new StringBuilder(512);
+        long count = 0;
+        for (Iterator<Order> iterator = orders.iterator(); iterator.hasNext(); count++) {
+            line.setLength(0);
+            OrderJsonLines.write(iterator.next(), line);
+            line.append('\n');
+            out.append(line);
+        }
+        out.flush();
+        return count;
+    }
+
+    // [MAGIC][версия формата], затем [длина][запись OrderCodec] по каждому заказу,
+    // в конце [END_OF_RECORDS][число заказов] - по нему загрузка отличает оборванный файл
+    private static long writeBinary(Stream<Order> orders, FileChannel channel) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel),
+                BUFFER_SIZE));
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        ByteArrayOutputStream record = new ByteArrayOutputStream(512);
+        DataOutputStream recordOut = new DataOutputStream(record);
+        long count = 0;
+        for (Iterator<Order> iterator = orders.iterator(); iterator.hasNext(); count++) {
+            record.reset();
+            OrderCodec.write(iterator.next(), recordOut);
+            out.writeInt(record.size());
+            record.writeTo(out);
+        }
+        out.writeInt(END_OF_RECORDS);
+        out.writeLong(count);
+        out.flush();
+        return count;
+    }
+
+    private static void readJsonLines(FileChannel channel, Batch batch, ProductRegistry registry) throws IOException {
+        BufferedReader in = new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8), BUFFER_SIZE);
+        long lineNumber = 0;
+        for (String line = in.readLine(); line != null; line = in.readLine()) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                batch.add(OrderJsonLines.read(line, registry));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Строка " + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private static void readBinary(FileChannel channel, Batch batch, ProductRegistry registry, Path source)
+            throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).flip();
+        buffer = fill(channel, buffer, 2 * Integer.BYTES, source);
+        if (buffer.getInt() != MAGIC) {
+            throw new IllegalStateException("Файл " + source + " не является выгрузкой заказов");
+        }
+        int version = buffer.getInt();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalStateException("Неподдерживаемая версия выгрузки заказов " + version + " в " + source);
+        }
+        while (true) {
+            buffer = fill(channel, buffer, Integer.BYTES, source);
+            int length = buffer.getInt();
+            if (length == END_OF_RECORDS) {
+                buffer = fill(channel, buffer, Long.BYTES, source);
+                long expected = buffer.getLong();
+                if (expected != batch.loaded + batch.pending.size()) {
+                    throw new IllegalStateException("В выгрузке " + source + " " + expected + " заказов, прочитано "
+                            + (batch.loaded + batch.pending.size()));
+                }
+                return;
+            }
+            if (length < 0) {
+                throw new IllegalStateException("Выгрузка заказов " + source + " повреждена");
+            }
+            buffer = fill(channel, buffer, length, source);
+            batch.add(OrderCodec.read(buffer.slice(buffer.position(), length), registry));
+            buffer.position(buffer.position() + length);
+        }
+    }
+
+    // Дочитывает канал, пока в буфере не окажется хотя бы required байт; запись длиннее
+    // буфера получает буфер большего размера
+    private static ByteBuffer fill(FileChannel channel, ByteBuffer buffer, int required, Path source)
+            throws IOException {
+        if (buffer.remaining() >= required) {
+            return buffer;
+        }
+        if (required > buffer.capacity()) {
+            buffer = ByteBuffer.allocate(Integer.highestOneBit(required) << 1).put(buffer).flip();
+        }
+        buffer.compact();
+        while (buffer.position() < required) {
+            if (channel.read(buffer) < 0) {
+                throw new IllegalStateException("Выгрузка заказов " + source + " оборвана");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static final class Batch {
+        private final OrderRepository repository;
+        private final int size;
+        private final List<Order> pending;
+        private long loaded;
+
+        private Batch(OrderRepository repository, int size) {
+            this.repository = repository;
+            this.size = size;
+            this.pending = new ArrayList<>(size);
+        }
+
+        void add(Order order) {
+            pending.add(order);
+            if (pending.size() == size) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            repository.saveAll(List.copyOf(pending));
+            loaded += pending.size();
+            pending.clear();
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package adapter.secondary;
+
+import domain.model.OrderEvent;
+import domain.port.secondary.OrderEventListener;
+import domain.port.secondary.OrderEventPublisher;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Шина событий заказов на кольцевом буфере: слоты и номера событий в них выделяются один раз
+// при создании, публикация только записывает событие в слот и не ждет подписчиков, пока в кольце
+// есть место. Каждый подписчик читает кольцо своим потоком со своей позиции и получает пачкой все
+// события, опубликованные к этому моменту, поэтому медленный подписчик не задерживает ни
+// публикацию, ни остальных подписчиков, пока не отстанет на емкость кольца - тогда публикация
+// ждет его. Номер события выдается атомарным счетчиком: OrderService вызывают одновременно
+// потоки HTTP-сервера и консоли, поэтому публикующих потоков может быть несколько.
+// Исключение подписчика (RuntimeException) выводится в stderr, учитывается в failed и
+// lastFailure и не останавливает его поток; Error завершает поток подписчика. Подписчик, поток
+// которого завершился, не задерживает публикацию: места в кольце ждут только живые
+// подписчики, а если не осталось ни одного, события отбрасываются (dropped)
+public class RingBufferEventBus implements OrderEventPublisher, AutoCloseable {
+
+    // Снимок показателей шины: lag - число событий, которые еще не прочитал самый медленный подписчик;
+    // lastFailure - последнее исключение подписчика или null
+    public record Metrics(int capacity, long published, long lag, long failed, long dropped, long producerWaits,
+                          RuntimeException lastFailure) {
+    }
+
+    public static final int DEFAULT_CAPACITY = 8192;
+
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 100;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final OrderEvent[] slots;
+    // Номер события в слоте: событие s можно читать, когда published[s & mask] == s
+    private final AtomicLongArray published;
+    private final int mask;
+    private final AtomicLong cursor = new AtomicLong(); // номер, который получит следующее событие
+    private final Subscriber[] subscribers;
+    private volatile boolean closed;
+
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder producerWaits = new LongAdder();
+    private volatile RuntimeException lastFailure;
+
+    public RingBufferEventBus(List<OrderEventListener> listeners) {
+        this(DEFAULT_CAPACITY, listeners);
+    }
+
+    // capacity - степень двойки; у каждого подписчика свой поток
+    public RingBufferEventBus(int capacity, List<OrderEventListener> listeners) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Емкость кольца событий должна быть степенью двойки: " + capacity);
+        }
+        if (listeners.isEmpty()) {
+            throw new IllegalArgumentException("Шине событий нужен хотя бы один подписчик");
+        }
+        this.slots = new OrderEvent[capacity];
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            published.set(i, -1);
+        }
+        this.mask = capacity - 1;
+        this.subscribers = new Subscriber[listeners.size()];
+        for (int i = 0; i < subscribers.length; i++) {
+            subscribers[i] = new Subscriber(listeners.get(i));
+            subscribers[i].thread = Thread.ofPlatform().daemon().name("order-events-" + i)
+                    .unstarted(subscribers[i]);
+        }
+        for (Subscriber subscriber : subscribers) {
+            subscriber.thread.start();
+        }
+    }
+
+    @Override
+    public void publish(OrderEvent event) {
+        if (closed) {
+            dropped.increment();
+            return;
+        }
+        long sequence = cursor.getAndIncrement();
+        if (!awaitCapacity(sequence)) {
+            dropped.increment();
+            return;
+        }
+        int slot = (int) sequence & mask;
+        slots[slot] = event;
+        published.set(slot, sequence);
+        wakeSubscribers();
+    }
+
+    // События получают подряд идущие номера, поэтому подписчики видят их вместе и в одной пачке
+    @Override
+    public void publishAll(List<OrderEvent> events) {
+        for (int from = 0; from < events.size(); from += slots.length) {
+            int count = Math.min(slots.length, events.size() - from);
+            if (closed) {
+                dropped.add(count);
+                continue;
+            }
+            long first = cursor.getAndAdd(count);
+            if (!awaitCapacity(first + count - 1)) {
+                dropped.add(count);
+                continue;
+            }
+            for (int i = 0; i < count; i++) {
+                slots[(int) (first + i) & mask] = events.get(from + i);
+            }
+            for (int i = 0; i < count; i++) {
+                published.set((int) (first + i) & mask, first + i);
+            }
+            wakeSubscribers();
+        }
+    }
+
+    // Ждет, пока подписчики прочитают все события, опубликованные до вызова
+    public boolean awaitConsumed(Duration timeout) {
+        long target = cursor.get();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (minPosition() < target) {
+            if (System.nanoTime() - deadline > 0) {
+                return false;
+            }
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+        }
+        return true;
+    }
+
+    public Metrics metrics() {
+        long claimed = cursor.get();
+        return new Metrics(slots.length, claimed, claimed - minPosition(), failed.sum(), dropped.sum(),
+                producerWaits.sum(), lastFailure);
+    }
+
+    // Прекращает прием событий и дожидается, пока подписчики прочитают уже опубликованные.
+    // Событие, публикуемое одновременно с закрытием, может не дойти до подписчиков
+    @Override
+    public void close() {
+        closed = true;
+        for (Subscriber subscriber : subscribers) {
+            LockSupport.unpark(subscriber.thread);
+        }
+        for (Subscriber subscriber : subscribers) {
+            try {
+                subscriber.thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // Слот события sequence свободен, когда все живые подписчики прочитали событие sequence - capacity.
+    // false - потоки всех подписчиков завершились, событие некому читать
+    private boolean awaitCapacity(long sequence) {
+        long wrapPoint = sequence - slots.length;
+        int tries = 0;
+        while (true) {
+            if (allStopped()) {
+                return false;
+            }
+            if (minPosition() > wrapPoint) {
+                return true;
+            }
+            if (tries++ == 0) {
+                producerWaits.increment();
+            }
+            if (tries < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(FULL_PARK_NANOS);
+            }
+        }
+    }
+
+    // Позиция самого отстающего живого подписчика; без живых подписчиков - номер следующего события
+    private long minPosition() {
+        long min = Long.MAX_VALUE;
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.stopped) {
+                min = Math.min(min, subscriber.position);
+            }
+        }
+        return min == Long.MAX_VALUE ? cursor.get() : min;
+    }
+
+    private boolean allStopped() {
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.stopped) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Подписчик ставит parked до повторной проверки слота, а публикация читает parked после
+    // записи номера в слот, поэтому хотя бы одна из сторон видит действие другой
+    private void wakeSubscribers() {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.parked) {
+                LockSupport.unpark(subscriber.thread);
+            }
+        }
+    }
+
+    private final class Subscriber implements Runnable {
+        private final OrderEventListener listener;
+        private final List<OrderEvent> batch = new ArrayList<>();
+        private volatile long position; // номер следующего непрочитанного события
+        private volatile boolean parked;
+        private volatile boolean stopped;
+        private Thread thread;
+
+        private Subscriber(OrderEventListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void run() {
+            try {
+                consume();
+            } finally {
+                stopped = true;
+            }
+        }
+
+        private void consume() {
+            long next = 0;
+            int idle = 0;
+            while (true) {
+                long end = next;
+                while (end - next < slots.length && published.get((int) end & mask) == end) {
+                    end++;
+                }
+                if (end == next) {
+                    if (closed && cursor.get() == next) {
+                        return;
+                    }
+                    idle = idle(idle, next);
+                    continue;
+                }
+                idle = 0;
+                for (long sequence = next; sequence < end; sequence++) {
+                    batch.add(slots[(int) sequence & mask]);
+                }
+                try {
+                    listener.onEvents(batch);
+                } catch (RuntimeException e) {
+                    failed.add(batch.size());
+                    lastFailure = e;
+                    System.err.println("Подписчик " + thread.getName() + " не обработал " + batch.size()
+                            + " событий: " + e);
+                }
+                batch.clear();
+                next = end;
+                position = end;
+            }
+        }
+
+        // Сначала короткое ожидание в цикле, затем уступка процессора и только потом сон до
+        // публикации следующего события: будить спящего подписчика публикации дороже
+        private int idle(int idle, long next) {
+            if (idle < SPIN_TRIES) {
+                Thread.onSpinWait();
+                return idle + 1;
+            }
+            if (idle < SPIN_TRIES + YIELD_TRIES) {
+                Thread.yield();
+                return idle + 1;
+            }
+            parked = true;
+            if (published.get((int) next & mask) != next && !closed) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+            parked = false;
+            return idle;
+        }
+    }
+}
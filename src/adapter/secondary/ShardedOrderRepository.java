@@ -0,0 +1,322 @@
+package adapter.secondary;
+
+import domain.model.Order;
+import domain.model.OrderCursor;
+import domain.model.OrderPage;
+import domain.model.OrderStatus;
+import domain.port.secondary.OrderRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// Заказы, разделенные на независимые хранилища (шарды) по хешу поставщика: у каждого шарда
+// свои карты и индексы, поэтому потоки, работающие с заказами разных поставщиков, не
+// конкурируют за одни и те же структуры. Запросы по поставщику обращаются к одному шарду,
+// остальные выполняются во всех шардах параллельно в ForkJoinPool и объединяются.
+// Идентификатор заказа выдается вне хранилища и не указывает на шард, поэтому шард каждого
+// заказа запоминается в карте идентификаторов: чтение и удаление по идентификатору обращаются
+// к одному шарду. Карта заполняется при создании из уже сохраненных в шардах заказов и
+// держится в куче (несколько десятков байт на заказ) и при шардах вне кучи.
+// Поставщик заказа не меняется, поэтому все версии заказа хранятся в одном шарде
+public class ShardedOrderRepository implements OrderRepository {
+    // Порядок findPage и streamAll: время создания, затем идентификатор
+    private static final Comparator<Order> CREATION_ORDER = Comparator.comparingLong(Order::getCreatedAtMillis)
+            .thenComparing(Order::getId);
+
+    private final OrderRepository[] shards;
+    private final ForkJoinPool pool;
+    // Идентификатор заказа -> номер шарда; запись добавляется после сохранения в шард
+    private final Map<String, Integer> shardById = new ConcurrentHashMap<>();
+
+    public ShardedOrderRepository(int shardCount) {
+        this(shardCount, shard -> new InMemoryOrderRepository(), ForkJoinPool.commonPool());
+    }
+
+    // shardFactory создает хранилище шарда по его номеру
+    public ShardedOrderRepository(int shardCount, IntFunction<OrderRepository> shardFactory, ForkJoinPool pool) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Число шардов должно быть положительным: " + shardCount);
+        }
+        this.shards = new OrderRepository[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = shardFactory.apply(i);
+            Integer shard = i;
+            try (Stream<Order> orders = shards[i].streamAll()) {
+                orders.forEach(order -> shardById.put(order.getId(), shard));
+            }
+        }
+        this.pool = pool;
+    }
+
+    public int shardCount() {
+        return shards.length;
+    }
+
+    public int shardOf(String supplierId) {
+        int hash = supplierId.hashCode();
+        hash ^= hash >>> 16;
+        return Math.floorMod(hash, shards.length);
+    }
+
+    @Override
+    public Order save(Order order) {
+        int shard = shardOf(order.getSupplierId());
+        Order saved = shards[shard].save(order);
+        shardById.put(order.getId(), shard);
+        return saved;
+    }
+
+    @Override
+    public boolean save(Order order, long expectedVersion) {
+        int shard = shardOf(order.getSupplierId());
+        if (!shards[shard].save(order, expectedVersion)) {
+            return false;
+        }
+        shardById.put(order.getId(), shard);
+        return true;
+    }
+
+    // Пакет делится по шардам; результаты возвращаются в порядке входного списка
+    @Override
+    public boolean[] saveAll(List<Order> orders, long[] expectedVersions) {
+        boolean[] saved = new boolean[orders.size()];
+        Map<Integer, List<Integer>> positionsByShard = groupByShard(orders);
+        for (Map.Entry<Integer, List<Integer>> entry : positionsByShard.entrySet()) {
+            List<Integer> positions = entry.getValue();
+            List<Order> shardOrders = new ArrayList<>(positions.size());
+            long[] shardVersions = new long[positions.size()];
+            for (int i = 0; i < positions.size(); i++) {
+                shardOrders.add(orders.get(positions.get(i)));
+                shardVersions[i] = expectedVersions[positions.get(i)];
+            }
+            boolean[] shardSaved = shards[entry.getKey()].saveAll(shardOrders, shardVersions);
+            for (int i = 0; i < positions.size(); i++) {
+                saved[positions.get(i)] = shardSaved[i];
+                if (shardSaved[i]) {
+                    shardById.put(shardOrders.get(i).getId(), entry.getKey());
+                }
+            }
+        }
+        return saved;
+    }
+
+    // Массовая загрузка: части пакета сохраняются в своих шардах параллельно
+    @Override
+    public void saveAll(List<Order> orders) {
+        Map<Integer, List<Integer>> positionsByShard = groupByShard(orders);
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(positionsByShard.size());
+        for (Map.Entry<Integer, List<Integer>> entry : positionsByShard.entrySet()) {
+            List<Order> shardOrders = new ArrayList<>(entry.getValue().size());
+            for (int position : entry.getValue()) {
+                shardOrders.add(orders.get(position));
+            }
+            Integer shardNumber = entry.getKey();
+            OrderRepository shard = shards[shardNumber];
+            tasks.add(pool.submit(() -> {
+                shard.saveAll(shardOrders);
+                for (Order order : shardOrders) {
+                    shardById.put(order.getId(), shardNumber);
+                }
+            }));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+    }
+
+    @Override
+    public Optional<Order> findById(String orderId) {
+        Integer shard = shardById.get(orderId);
+        return shard == null ? Optional.empty() : shards[shard].findById(orderId);
+    }
+
+    // Идентификаторы делятся по шардам; каждый шард получает один пакетный запрос
+    @Override
+    public Map<String, Order> findAllById(Collection<String> orderIds) {
+        Map<Integer, List<String>> idsByShard = new HashMap<>();
+        for (String orderId : orderIds) {
+            Integer shard = shardById.get(orderId);
+            if (shard != null) {
+                idsByShard.computeIfAbsent(shard, number -> new ArrayList<>()).add(orderId);
+            }
+        }
+        Map<String, Order> found = new HashMap<>(Math.max(16, orderIds.size() * 2));
+        for (Map.Entry<Integer, List<String>> entry : idsByShard.entrySet()) {
+            found.putAll(shards[entry.getKey()].findAllById(entry.getValue()));
+        }
+        return found;
+    }
+
+    @Override
+    public List<Order> findAll() {
+        return concat(fanOut(OrderRepository::findAll));
+    }
+
+    // Страница собирается из первых limit заказов каждого шарда после курсора
+    @Override
+    public OrderPage findPage(OrderCursor after, int limit) {
+        List<OrderPage> pages = fanOut(shard -> shard.findPage(after, limit));
+        boolean more = false;
+        List<Order> merged = new ArrayList<>();
+        for (OrderPage page : pages) {
+            merged.addAll(page.orders());
+            more |= page.hasNext();
+        }
+        merged.sort(CREATION_ORDER);
+        if (merged.size() > limit) {
+            merged.subList(limit, merged.size()).clear();
+            more = true;
+        }
+        OrderCursor next = more && !merged.isEmpty() ? OrderCursor.after(merged.get(merged.size() - 1)) : null;
+        return new OrderPage(merged, next);
+    }
+
+    // Слияние упорядоченных потоков шардов: заказы читаются из шардов по мере обхода
+    @Override
+    public Stream<Order> streamAll() {
+        List<Stream<Order>> streams = new ArrayList<>(shards.length);
+        for (OrderRepository shard : shards) {
+            streams.add(shard.streamAll());
+        }
+        Iterator<Order> merged = new MergingIterator(streams);
+        Stream<Order> result = StreamSupport.stream(Spliterators.spliteratorUnknownSize(merged,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+        return result.onClose(() -> streams.forEach(Stream::close));
+    }
+
+    @Override
+    public List<Order> findBySupplier(String supplierId) {
+        return shards[shardOf(supplierId)].findBySupplier(supplierId);
+    }
+
+    @Override
+    public List<Order> findByStatus(OrderStatus status) {
+        return concat(fanOut(shard -> shard.findByStatus(status)));
+    }
+
+    @Override
+    public List<Order> findBySupplierAndStatus(String supplierId, OrderStatus status) {
+        return shards[shardOf(supplierId)].findBySupplierAndStatus(supplierId, status);
+    }
+
+    @Override
+    public List<Order> findCreatedBetween(LocalDateTime from, LocalDateTime to) {
+        List<Order> result = concat(fanOut(shard -> shard.findCreatedBetween(from, to)));
+        result.sort(CREATION_ORDER);
+        return result;
+    }
+
+    // Сохранение, завершившееся между удалением из шарда и из карты, возвращает заказ в шард -
+    // тогда запись карты восстанавливается
+    @Override
+    public void delete(String orderId) {
+        Integer shard = shardById.get(orderId);
+        if (shard == null) {
+            return;
+        }
+        shards[shard].delete(orderId);
+        shardById.remove(orderId);
+        if (shards[shard].findById(orderId).isPresent()) {
+            shardById.put(orderId, shard);
+        }
+    }
+
+    private Map<Integer, List<Integer>> groupByShard(List<Order> orders) {
+        Map<Integer, List<Integer>> positionsByShard = new HashMap<>();
+        for (int i = 0; i < orders.size(); i++) {
+            positionsByShard.computeIfAbsent(shardOf(orders.get(i).getSupplierId()), shard -> new ArrayList<>())
+                    .add(i);
+        }
+        return positionsByShard;
+    }
+
+    // Запрос выполняется во всех шардах параллельно; результаты - в порядке шардов
+    private <T> List<T> fanOut(Function<OrderRepository, T> query) {
+        if (shards.length == 1) {
+            return List.of(query.apply(shards[0]));
+        }
+        List<ForkJoinTask<T>> tasks = new ArrayList<>(shards.length);
+        for (OrderRepository shard : shards) {
+            tasks.add(pool.submit(() -> query.apply(shard)));
+        }
+        List<T> results = new ArrayList<>(shards.length);
+        for (ForkJoinTask<T> task : tasks) {
+            results.add(task.join());
+        }
+        return results;
+    }
+
+    private static List<Order> concat(List<List<Order>> parts) {
+        int size = 0;
+        for (List<Order> part : parts) {
+            size += part.size();
+        }
+        List<Order> result = new ArrayList<>(size);
+        for (List<Order> part : parts) {
+            result.addAll(part);
+        }
+        return result;
+    }
+
+    // k-путевое слияние по CREATION_ORDER: в очереди по одному текущему заказу от каждого шарда
+    private static final class MergingIterator implements Iterator<Order> {
+        private final PriorityQueue<Head> heads =
+                new PriorityQueue<>((a, b) -> CREATION_ORDER.compare(a.order, b.order));
+
+        private MergingIterator(List<Stream<Order>> streams) {
+            for (Stream<Order> stream : streams) {
+                Iterator<Order> iterator = stream.iterator();
+                if (iterator.hasNext()) {
+                    heads.add(new Head(iterator.next(), iterator));
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public Order next() {
+            Head head = heads.poll();
+            if (head == null) {
+                throw new NoSuchElementException();
+            }
+            Order order = head.order;
+            if (head.rest.hasNext()) {
+                head.order = head.rest.next();
+                heads.add(head);
+            }
+            return order;
+        }
+    }
+
+    private static final class Head {
+        private Order order;
+        private final Iterator<Order> rest;
+
+        private Head(Order order, Iterator<Order> rest) {
+            this.order = order;
+            this.rest = rest;
+        }
+    }
+}
@@ -0,0 +1,461 @@
+package adapter.secondary;
+
+import domain.model.AuditEntry;
+import domain.model.AuditTrail;
+import domain.model.LineItems;
+import domain.model.Order;
+import domain.model.OrderStatus;
+import domain.model.Product;
+import domain.model.ProductRegistry;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+// Снимки полного состояния заказов в компактном двоичном формате.
+// Номер в имени файла - первый сегмент журнала, который нужно проиграть после снимка.
+// Файл состоит из кадров [тег][длина varint][данные]; продукты и поставщики
+// записываются один раз в словарь при первой встрече и далее передаются номером
+final class SnapshotStore {
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".bin";
+    private static final int MAGIC = 0x4F524453; // "ORDS"
+    // 2 - версия заказа и история переходов после результата проверки качества;
+    // 3 - история без числа вытесненных записей
+    private static final int FORMAT_VERSION = 3;
+
+    private static final byte TAG_END = 0;
+    private static final byte TAG_PRODUCT = 1;
+    private static final byte TAG_SUPPLIER = 2;
+    private static final byte TAG_ORDER = 3;
+
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 20;
+    private static final long MAX_MAPPED_REGION = 1L << 30;
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    private final Path directory;
+    private final ProductRegistry registry;
+
+    SnapshotStore(Path directory, ProductRegistry registry) {
+        this.directory = directory;
+        this.registry = registry;
+    }
+
+    // Возвращает первый сегмент журнала для проигрывания или 0, если снимков нет
+    long loadLatest(Consumer<Order> sink) throws IOException {
+        List<Long> snapshots = listSnapshots();
+        if (snapshots.isEmpty()) {
+            return 0;
+        }
+        long firstSegment = snapshots.get(snapshots.size() - 1);
+        read(snapshotPath(firstSegment), sink);
+        return firstSegment;
+    }
+
+    void write(long firstSegment, Iterable<Order> orders) throws IOException {
+        Path target = snapshotPath(firstSegment);
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            Writer writer = new Writer(channel, registry);
+            writer.header();
+            for (Order order : orders) {
+                writer.order(order);
+            }
+            writer.finish();
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        for (long snapshot : listSnapshots()) {
+            if (snapshot < firstSegment) {
+                Files.deleteIfExists(snapshotPath(snapshot));
+            }
+        }
+    }
+
+    private void read(Path file, Consumer<Order> sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Reader reader = new Reader(channel);
+            reader.header(file);
+            // Номер продукта в словаре снимка -> номер в registry
+            List<Integer> products = new ArrayList<>();
+            List<String> suppliers = new ArrayList<>();
+            long expectedOrders = -1;
+            long readOrders = 0;
+
+            while (expectedOrders < 0) {
+                ByteBuffer frame;
+                try {
+                    frame = reader.next(file);
+                } catch (BufferUnderflowException e) {
+                    throw new IllegalStateException("Снимок " + file + " оборван", e);
+                }
+                byte tag = frame.get();
+                switch (tag) {
+                    case TAG_PRODUCT -> products.add(registry.register(new Product(getString(frame),
+                            getString(frame), getString(frame), getString(frame), getVarInt(frame))));
+                    case TAG_SUPPLIER -> suppliers.add(getString(frame));
+                    case TAG_ORDER -> {
+                        sink.accept(readOrder(frame, products, suppliers));
+                        readOrders++;
+                    }
+                    case TAG_END -> expectedOrders = getVarLong(frame);
+                    default -> throw new IllegalStateException("Неизвестный тег " + tag + " в снимке " + file);
+                }
+            }
+            if (expectedOrders != readOrders) {
+                throw new IllegalStateException("Снимок " + file + " неполон: " + readOrders + " из " + expectedOrders);
+            }
+        }
+    }
+
+    private Order readOrder(ByteBuffer in, List<Integer> products, List<String> suppliers) {
+        String id = getString(in);
+        String supplierId = suppliers.get(getVarInt(in));
+        OrderStatus status = STATUSES[in.get()];
+        long createdAt = getTimestampMillis(in);
+        long updatedAt = getTimestampMillis(in);
+
+        int itemCount = getVarInt(in);
+        int[] productIndices = new int[itemCount];
+        int[] quantities = new int[itemCount];
+        for (int i = 0; i < itemCount; i++) {
+            productIndices[i] = products.get(getVarInt(in));
+            quantities[i] = zigZagDecode(getVarInt(in));
+        }
+        LineItems items = LineItems.ofIndices(registry, productIndices, quantities);
+
+        String note = getString(in);
+        String qualityControlResult = getString(in);
+        long version = getVarLong(in);
+        int count = getVarInt(in);
+        List<AuditEntry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            entries.add(new AuditEntry(getTimestamp(in), STATUSES[in.get()], STATUSES[in.get()], getString(in)));
+        }
+        return new Order(id, supplierId, status, createdAt, updatedAt, items, note, qualityControlResult, version,
+                AuditTrail.of(entries));
+    }
+
+    private List<Long> listSnapshots() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(PREFIX) && name.endsWith(SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path snapshotPath(long firstSegment) {
+        return directory.resolve(String.format("%s%020d%s", PREFIX, firstSegment, SUFFIX));
+    }
+
+    private static final class Writer {
+        private final FileChannel channel;
+        private final ByteBuffer output = ByteBuffer.allocate(OUTPUT_BUFFER_SIZE);
+        private final Frame frame = new Frame();
+        private final ProductRegistry registry;
+        // Номер в registry -> номер в словаре снимка плюс один (0 - продукт еще не записан)
+        private int[] productRefs = new int[256];
+        private int productCount;
+        private final Map<String, Integer> suppliers = new HashMap<>();
+        private long orderCount;
+
+        private Writer(FileChannel channel, ProductRegistry registry) {
+            this.channel = channel;
+            this.registry = registry;
+        }
+
+        private void header() throws IOException {
+            output.putInt(MAGIC).putInt(FORMAT_VERSION);
+        }
+
+        private void order(Order order) throws IOException {
+            int supplier = supplierRef(order.getSupplierId());
+            LineItems items = order.getItems().inRegistry(registry);
+            int[] refs = new int[items.size()];
+            for (int line = 0; line < refs.length; line++) {
+                refs[line] = productRef(items.productIndex(line));
+            }
+
+            frame.begin(TAG_ORDER);
+            frame.putString(order.getId());
+            frame.putVarLong(supplier);
+            frame.put((byte) order.getStatus().ordinal());
+            frame.putTimestamp(order.getCreatedAtMillis());
+            frame.putTimestamp(order.getUpdatedAtMillis());
+            frame.putVarLong(refs.length);
+            for (int line = 0; line < refs.length; line++) {
+                frame.putVarLong(refs[line]);
+                frame.putVarLong(zigZagEncode(items.quantity(line)));
+            }
+            frame.putString(order.getNote());
+            frame.putString(order.getQualityControlResult());
+            frame.putVarLong(order.getVersion());
+            AuditTrail auditTrail = order.getAuditTrail();
+            frame.putVarLong(auditTrail.size());
+            for (AuditEntry entry : auditTrail.entries()) {
+                frame.putTimestamp(entry.timestamp());
+                frame.put((byte) entry.from().ordinal());
+                frame.put((byte) entry.to().ordinal());
+                frame.putString(entry.reason());
+            }
+            emit();
+            orderCount++;
+        }
+
+        private void finish() throws IOException {
+            frame.begin(TAG_END);
+            frame.putVarLong(orderCount);
+            emit();
+            flush();
+        }
+
+        private int supplierRef(String supplierId) throws IOException {
+            Integer ref = suppliers.get(supplierId);
+            if (ref == null) {
+                ref = suppliers.size();
+                suppliers.put(supplierId, ref);
+                frame.begin(TAG_SUPPLIER);
+                frame.putString(supplierId);
+                emit();
+            }
+            return ref;
+        }
+
+        private int productRef(int productIndex) throws IOException {
+            if (productIndex >= productRefs.length) {
+                productRefs = Arrays.copyOf(productRefs, Math.max(productIndex + 1, productRefs.length * 2));
+            }
+            int ref = productRefs[productIndex] - 1;
+            if (ref < 0) {
+                ref = productCount++;
+                productRefs[productIndex] = ref + 1;
+                Product product = registry.get(productIndex);
+                frame.begin(TAG_PRODUCT);
+                frame.putString(product.getId());
+                frame.putString(product.getName());
+                frame.putString(product.getCategory());
+                frame.putString(product.getTemperatureMode());
+                frame.putVarLong(product.getShelfLifeDays());
+                emit();
+            }
+            return ref;
+        }
+
+        private void emit() throws IOException {
+            int length = frame.size();
+            if (output.remaining() < length + 5) {
+                flush();
+            }
+            if (length + 5 > output.capacity()) {
+                ByteBuffer large = ByteBuffer.allocate(length + 5);
+                putVarLong(large, length);
+                large.put(frame.bytes, 0, length).flip();
+                while (large.hasRemaining()) {
+                    channel.write(large);
+                }
+                return;
+            }
+            putVarLong(output, length);
+            output.put(frame.bytes, 0, length);
+        }
+
+        private void flush() throws IOException {
+            output.flip();
+            while (output.hasRemaining()) {
+                channel.write(output);
+            }
+            output.clear();
+        }
+    }
+
+    // Буфер одного кадра: длина кадра должна быть известна до записи в файл
+    private static final class Frame {
+        private byte[] bytes = new byte[512];
+        private int size;
+
+        private void begin(byte tag) {
+            size = 0;
+            put(tag);
+        }
+
+        private int size() {
+            return size;
+        }
+
+        private void put(byte value) {
+            ensure(1);
+            bytes[size++] = value;
+        }
+
+        private void putVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        private void putTimestamp(LocalDateTime value) {
+            putVarLong(zigZagEncode(value.toEpochSecond(ZoneOffset.UTC)));
+            putVarLong(value.getNano());
+        }
+
+        // Локальные миллисекунды в том же формате: секунды и наносекунды
+        private void putTimestamp(long localMillis) {
+            putVarLong(zigZagEncode(Math.floorDiv(localMillis, 1000)));
+            putVarLong(Math.floorMod(localMillis, 1000) * 1_000_000);
+        }
+
+        // 0 означает null, иначе длина + 1
+        private void putString(String value) {
+            if (value == null) {
+                putVarLong(0);
+                return;
+            }
+            byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            putVarLong(encoded.length + 1L);
+            ensure(encoded.length);
+            System.arraycopy(encoded, 0, bytes, size, encoded.length);
+            size += encoded.length;
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+    }
+
+    // Читает файл через отображение в память окнами до 1 ГБ,
+    // переотображая окно на границе кадра
+    private static final class Reader {
+        private final FileChannel channel;
+        private final long fileSize;
+        private ByteBuffer region;
+        private long regionStart;
+
+        private Reader(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.fileSize = channel.size();
+            map(0);
+        }
+
+        private void header(Path file) {
+            if (region.remaining() < 8 || region.getInt() != MAGIC) {
+                throw new IllegalStateException("Файл " + file + " не является снимком заказов");
+            }
+            int version = region.getInt();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalStateException("Неподдерживаемая версия снимка " + version + " в " + file);
+            }
+        }
+
+        private ByteBuffer next(Path file) throws IOException {
+            if (region.remaining() < 10 && regionEnd() < fileSize) {
+                map(regionStart + region.position());
+            }
+            int frameStart = region.position();
+            int length = getVarInt(region);
+            if (length > region.remaining() && regionEnd() < fileSize) {
+                map(regionStart + frameStart);
+                getVarInt(region);
+            }
+            if (length > region.remaining()) {
+                throw new IllegalStateException("Снимок " + file + " оборван");
+            }
+            ByteBuffer frame = region.slice(region.position(), length);
+            region.position(region.position() + length);
+            return frame;
+        }
+
+        private long regionEnd() {
+            return regionStart + region.limit();
+        }
+
+        private void map(long position) throws IOException {
+            long size = Math.min(MAX_MAPPED_REGION, fileSize - position);
+            region = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+            regionStart = position;
+        }
+    }
+
+    private static void putVarLong(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    private static long getVarLong(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    private static int getVarInt(ByteBuffer in) {
+        return (int) getVarLong(in);
+    }
+
+    private static String getString(ByteBuffer in) {
+        int length = getVarInt(in) - 1;
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static LocalDateTime getTimestamp(ByteBuffer in) {
+        long epochSecond = zigZagDecode(getVarLong(in));
+        return LocalDateTime.ofEpochSecond(epochSecond, getVarInt(in), ZoneOffset.UTC);
+    }
+
+    private static long getTimestampMillis(ByteBuffer in) {
+        long epochSecond = zigZagDecode(getVarLong(in));
+        return epochSecond * 1000 + getVarInt(in) / 1_000_000;
+    }
+
+    private static long zigZagEncode(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long zigZagDecode(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static int zigZagDecode(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,60 @@
+package adapter.secondary;
+
+import domain.port.secondary.IdGenerator;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Идентификаторы по схеме Snowflake: 41 бит миллисекунд от EPOCH, 10 бит номера узла
+// и 12 бит последовательности внутри миллисекунды. Число записывается 13 символами
+// base32 (алфавит Crockford) фиксированной длины, поэтому строки сортируются в порядке
+// создания. Без блокировок: время и последовательность лежат в одном AtomicLong.
+// Если за миллисекунду выдано больше 4096 идентификаторов или часы пошли назад,
+// идентификаторы продолжают расти от последнего выданного, опережая часы
+public class SnowflakeIdGenerator implements IdGenerator {
+    public static final int MAX_NODE_ID = (1 << 10) - 1;
+
+    private static final long EPOCH = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    private static final int SEQUENCE_BITS = 12;
+    private static final int NODE_BITS = 10;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int ENCODED_LENGTH = 13;
+    private static final byte[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".getBytes(StandardCharsets.US_ASCII);
+
+    private final long nodeBits;
+    // Миллисекунды от EPOCH, сдвинутые на SEQUENCE_BITS, плюс последовательность
+    private final AtomicLong last = new AtomicLong();
+
+    public SnowflakeIdGenerator(int nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Номер узла должен быть от 0 до " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+    }
+
+    @Override
+    public String nextId() {
+        return encode(nextLong());
+    }
+
+    public long nextLong() {
+        long fromClock = (System.currentTimeMillis() - EPOCH) << SEQUENCE_BITS;
+        long previous;
+        long next;
+        do {
+            previous = last.get();
+            next = Math.max(fromClock, previous + 1);
+        } while (!last.compareAndSet(previous, next));
+        return (next >>> SEQUENCE_BITS) << (SEQUENCE_BITS + NODE_BITS) | nodeBits | (next & SEQUENCE_MASK);
+    }
+
+    private static String encode(long id) {
+        byte[] chars = new byte[ENCODED_LENGTH];
+        for (int i = ENCODED_LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars, StandardCharsets.US_ASCII);
+    }
+}
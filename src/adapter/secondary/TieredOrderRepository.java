@@ -0,0 +1,233 @@
+package adapter.secondary;
+
+import domain.model.Order;
+import domain.model.OrderCursor;
+import domain.model.OrderPage;
+import domain.model.OrderStatus;
+import domain.model.ProductRegistry;
+import domain.port.secondary.OrderRepository;
+import domain.port.secondary.TimeSource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Живое хранилище и холодный архив. Заказы в конечном статусе (завершенные и отмененные),
+// не менявшиеся дольше minAge, переносятся в OrderArchive и удаляются из живого хранилища.
+// Чтение по идентификатору прозрачно обращается к архиву, если заказа нет в живом хранилище;
+// обход и запросы по статусу, поставщику и датам видят только живые заказы, весь архив
+// читается отдельно через streamArchived().
+// Возвращенный заказ еще можно отменить, поэтому он остается в живом хранилище
+public class TieredOrderRepository implements OrderRepository, AutoCloseable {
+    private static final List<OrderStatus> FINAL_STATUSES = Stream.of(OrderStatus.values())
+            .filter(OrderStatus::isFinal)
+            .toList();
+
+    private final OrderRepository live;
+    private final OrderArchive archive;
+    private final Duration minAge;
+    private final TimeSource clock;
+    private volatile ScheduledExecutorService archiveScheduler; // null - архивация только вызовом archive()
+
+    public TieredOrderRepository(OrderRepository live, Path archiveDirectory, Duration minAge, TimeSource clock) {
+        this(live, archiveDirectory, minAge, clock, new ProductRegistry());
+    }
+
+    // registry - реестр, в котором регистрируются продукты заказов, прочитанных из архива
+    public TieredOrderRepository(OrderRepository live, Path archiveDirectory, Duration minAge, TimeSource clock,
+                                 ProductRegistry registry) {
+        this.live = live;
+        this.minAge = minAge;
+        this.clock = clock;
+        try {
+            this.archive = new OrderArchive(archiveDirectory, registry);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось открыть архив заказов в " + archiveDirectory, e);
+        }
+    }
+
+    // Запускает проходы архивации раз в interval в фоновом потоке; останавливаются они при close()
+    public synchronized void startArchiving(Duration interval) {
+        if (archiveScheduler != null) {
+            throw new IllegalStateException("Периодическая архивация уже запущена");
+        }
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-archive");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = interval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::archiveQuietly, period, period, TimeUnit.MILLISECONDS);
+        archiveScheduler = scheduler;
+    }
+
+    // Один проход архивации; возвращает число перенесенных заказов. Заказы удаляются из живого
+    // хранилища только после того, как сегмент записан и виден поиску, поэтому findById находит
+    // заказ в одном из хранилищ в любой момент. При сбое между записью сегмента и удалением
+    // заказ останется в обоих и будет заархивирован повторно
+    public synchronized int archive() throws IOException {
+        long cutoff = clock.currentMillis() - minAge.toMillis();
+        List<Order> expired = new ArrayList<>();
+        for (OrderStatus status : FINAL_STATUSES) {
+            for (Order order : live.findByStatus(status)) {
+                if (order.getUpdatedAtMillis() <= cutoff) {
+                    expired.add(order);
+                }
+            }
+        }
+        archive.append(expired);
+        for (Order order : expired) {
+            live.delete(order.getId());
+        }
+        return expired.size();
+    }
+
+    // Заказы архива, которых нет в живом хранилище, - например, для пересчета проекций при запуске
+    public Stream<Order> streamArchived() {
+        return archive.stream().filter(order -> live.findById(order.getId()).isEmpty());
+    }
+
+    // Все заказы обоих уровней без повторов - для выгрузки и пересчета проекций;
+    // streamAll, как и остальные запросы, видит только живое хранилище
+    public Stream<Order> streamWithArchived() {
+        return Stream.concat(live.streamAll(), streamArchived());
+    }
+
+    @Override
+    public Order save(Order order) {
+        return live.save(order);
+    }
+
+    // Заказы в архиве не изменяются: сохранение с проверкой версии для них не выполняется
+    @Override
+    public boolean save(Order order, long expectedVersion) {
+        return live.save(order, expectedVersion);
+    }
+
+    @Override
+    public boolean[] saveAll(List<Order> orders, long[] expectedVersions) {
+        return live.saveAll(orders, expectedVersions);
+    }
+
+    @Override
+    public void saveAll(List<Order> orders) {
+        live.saveAll(orders);
+    }
+
+    @Override
+    public Optional<Order> findById(String orderId) {
+        Optional<Order> order = live.findById(orderId);
+        return order.isPresent() ? order : archive.find(orderId);
+    }
+
+    @Override
+    public Map<String, Order> findAllById(Collection<String> orderIds) {
+        Map<String, Order> found = live.findAllById(orderIds);
+        if (found.size() == orderIds.size()) {
+            return found;
+        }
+        for (String orderId : orderIds) {
+            if (!found.containsKey(orderId)) {
+                archive.find(orderId).ifPresent(order -> found.put(orderId, order));
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public List<Order> findAll() {
+        return live.findAll();
+    }
+
+    @Override
+    public OrderPage findPage(OrderCursor after, int limit) {
+        return live.findPage(after, limit);
+    }
+
+    @Override
+    public Stream<Order> streamAll() {
+        return live.streamAll();
+    }
+
+    @Override
+    public List<Order> findBySupplier(String supplierId) {
+        return live.findBySupplier(supplierId);
+    }
+
+    @Override
+    public List<Order> findByStatus(OrderStatus status) {
+        return live.findByStatus(status);
+    }
+
+    @Override
+    public List<Order> findBySupplierAndStatus(String supplierId, OrderStatus status) {
+        return live.findBySupplierAndStatus(supplierId, status);
+    }
+
+    @Override
+    public List<Order> findCreatedBetween(LocalDateTime from, LocalDateTime to) {
+        return live.findCreatedBetween(from, to);
+    }
+
+    // Удаление ждет завершения прохода архивации: иначе заказ, уже отобранный проходом, но еще
+    // не записанный в архив, не нашелся бы в архиве для удаления и появился бы в нем после записи
+    @Override
+    public synchronized void delete(String orderId) {
+        live.delete(orderId);
+        try {
+            archive.delete(orderId);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось удалить заказ " + orderId + " из архива", e);
+        }
+    }
+
+    // Закрывает и живое хранилище, если его нужно закрывать (например, журнал)
+    @Override
+    public void close() throws IOException {
+        ScheduledExecutorService scheduler = archiveScheduler;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            try {
+                scheduler.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            archive.close();
+        } finally {
+            if (live instanceof AutoCloseable closeable) {
+                closeLive(closeable);
+            }
+        }
+    }
+
+    private static void closeLive(AutoCloseable closeable) throws IOException {
+        try {
+            closeable.close();
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    private void archiveQuietly() {
+        try {
+            archive();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Не удалось заархивировать заказы: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package adapter.secondary;
+
+import domain.port.secondary.TimeSource;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+// Отформатированное текущее время, пересчитываемое не чаще одного раза в секунду
+final class TimestampCache {
+    private final DateTimeFormatter formatter;
+    private final TimeSource clock;
+    private volatile Entry cached = new Entry(Long.MIN_VALUE, "");
+
+    TimestampCache(DateTimeFormatter formatter, TimeSource clock) {
+        this.formatter = formatter;
+        this.clock = clock;
+    }
+
+    String current() {
+        long epochSecond = Math.floorDiv(clock.currentMillis(), 1000);
+        Entry entry = cached;
+        if (entry.epochSecond() == epochSecond) {
+            return entry.text();
+        }
+        String text = formatter.format(LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC));
+        cached = new Entry(epochSecond, text);
+        return text;
+    }
+
+    private record Entry(long epochSecond, String text) {
+    }
+}
@@ -0,0 +1,375 @@
+package adapter.secondary;
+
+import domain.model.Order;
+import domain.model.OrderCursor;
+import domain.model.OrderPage;
+import domain.model.OrderStatus;
+import domain.model.ProductRegistry;
+import domain.port.secondary.OrderRepository;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+// Хранилище заказов с журналом упреждающей записи. Изменение проверяется, пишется в журнал
+// и после fsync применяется к состоянию в памяти под блокировкой заказа, поэтому порядок
+// записей одного заказа в журнале совпадает с порядком в памяти, а изменение, запись
+// которого не удалась, не видно ни читателям, ни снимку. Блокировки разбиты на полосы по
+// хешу идентификатора: изменения разных заказов ждут общий fsync одновременно.
+// При запуске загружается последний снимок и проигрывается хвост журнала
+public class WalOrderRepository implements OrderRepository, AutoCloseable {
+    private static final long DEFAULT_SEGMENT_SIZE = 64L * 1024 * 1024;
+    private static final byte SAVE = 1;
+    private static final byte DELETE = 2;
+    private static final int LOCK_STRIPES = 1024;
+
+    private final InMemoryOrderRepository state = new InMemoryOrderRepository();
+    private final ProductRegistry registry;
+    private final SnapshotStore snapshots;
+    private final WriteAheadLog log;
+    private ScheduledExecutorService snapshotScheduler; // null - периодические снимки не запущены
+    private final ReentrantLock[] orderLocks = new ReentrantLock[LOCK_STRIPES];
+
+    // Изменения берут блокировку на чтение от записи в журнал до применения к памяти; снимок
+    // берет блокировку на запись только на время переключения сегмента, чтобы все записи
+    // старых сегментов уже были видны в состоянии
+    private final ReadWriteLock rollLock = new ReentrantReadWriteLock();
+
+    public WalOrderRepository(Path directory) {
+        this(directory, DEFAULT_SEGMENT_SIZE);
+    }
+
+    public WalOrderRepository(Path directory, ProductRegistry registry) {
+        this(directory, DEFAULT_SEGMENT_SIZE, registry);
+    }
+
+    public WalOrderRepository(Path directory, long segmentSizeBytes) {
+        this(directory, segmentSizeBytes, new ProductRegistry());
+    }
+
+    // registry - реестр, в котором регистрируются продукты заказов из снимка и журнала
+    public WalOrderRepository(Path directory, long segmentSizeBytes, ProductRegistry registry) {
+        this.registry = registry;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            orderLocks[i] = new ReentrantLock();
+        }
+        this.snapshots = new SnapshotStore(directory, registry);
+        try {
+            long firstSegment = snapshots.loadLatest(state::save);
+            this.log = WriteAheadLog.open(directory, segmentSizeBytes, firstSegment, this::replay);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось открыть журнал заказов в " + directory, e);
+        }
+    }
+
+    // Запускает снимки раз в interval в фоновом потоке; останавливаются они при close()
+    public synchronized void startSnapshots(Duration interval) {
+        if (snapshotScheduler != null) {
+            throw new IllegalStateException("Периодические снимки уже запущены");
+        }
+        snapshotScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = interval.toMillis();
+        snapshotScheduler.scheduleWithFixedDelay(this::snapshotQuietly, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Order save(Order order) {
+        byte[] record = encode(SAVE, order, null);
+        lockOrders(List.of(order.getId()));
+        try {
+            await(log.append(record));
+            state.save(order);
+        } finally {
+            unlockOrders(List.of(order.getId()));
+        }
+        return order;
+    }
+
+    @Override
+    public boolean save(Order order, long expectedVersion) {
+        byte[] record = encode(SAVE, order, null);
+        lockOrders(List.of(order.getId()));
+        try {
+            if (!hasVersion(order.getId(), expectedVersion)) {
+                return false;
+            }
+            await(log.append(record));
+            state.save(order);
+            return true;
+        } finally {
+            unlockOrders(List.of(order.getId()));
+        }
+    }
+
+    // Все записи пакета ставятся в очередь до ожидания и фиксируются общими fsync, а не по одному на заказ.
+    // Заказ, встретившийся в пакете повторно, сравнивается с версией из пакета
+    @Override
+    public boolean[] saveAll(List<Order> orders, long[] expectedVersions) {
+        boolean[] saved = new boolean[orders.size()];
+        List<String> ids = ids(orders);
+        lockOrders(ids);
+        try {
+            Map<String, Long> batchVersions = new HashMap<>();
+            List<CompletableFuture<Long>> durable = new ArrayList<>(saved.length);
+            for (int i = 0; i < saved.length; i++) {
+                Order order = orders.get(i);
+                Long batchVersion = batchVersions.get(order.getId());
+                saved[i] = batchVersion != null ? batchVersion == expectedVersions[i]
+                        : hasVersion(order.getId(), expectedVersions[i]);
+                if (saved[i]) {
+                    batchVersions.put(order.getId(), order.getVersion());
+                    durable.add(log.append(encode(SAVE, order, null)));
+                }
+            }
+            List<Order> changed = new ArrayList<>(durable.size());
+            for (int i = 0; i < saved.length; i++) {
+                if (saved[i]) {
+                    changed.add(orders.get(i));
+                }
+            }
+            applyDurable(changed, durable);
+        } finally {
+            unlockOrders(ids);
+        }
+        return saved;
+    }
+
+    @Override
+    public void saveAll(List<Order> orders) {
+        List<String> ids = ids(orders);
+        lockOrders(ids);
+        try {
+            List<CompletableFuture<Long>> durable = new ArrayList<>(orders.size());
+            for (Order order : orders) {
+                durable.add(log.append(encode(SAVE, order, null)));
+            }
+            applyDurable(orders, durable);
+        } finally {
+            unlockOrders(ids);
+        }
+    }
+
+    @Override
+    public Optional<Order> findById(String orderId) {
+        return state.findById(orderId);
+    }
+
+    @Override
+    public Map<String, Order> findAllById(Collection<String> orderIds) {
+        return state.findAllById(orderIds);
+    }
+
+    @Override
+    public List<Order> findAll() {
+        return state.findAll();
+    }
+
+    @Override
+    public OrderPage findPage(OrderCursor after, int limit) {
+        return state.findPage(after, limit);
+    }
+
+    @Override
+    public Stream<Order> streamAll() {
+        return state.streamAll();
+    }
+
+    @Override
+    public List<Order> findBySupplier(String supplierId) {
+        return state.findBySupplier(supplierId);
+    }
+
+    @Override
+    public List<Order> findByStatus(OrderStatus status) {
+        return state.findByStatus(status);
+    }
+
+    @Override
+    public List<Order> findBySupplierAndStatus(String supplierId, OrderStatus status) {
+        return state.findBySupplierAndStatus(supplierId, status);
+    }
+
+    @Override
+    public List<Order> findCreatedBetween(LocalDateTime from, LocalDateTime to) {
+        return state.findCreatedBetween(from, to);
+    }
+
+    @Override
+    public void delete(String orderId) {
+        byte[] record = encode(DELETE, null, orderId);
+        lockOrders(List.of(orderId));
+        try {
+            if (state.findById(orderId).isPresent()) {
+                await(log.append(record));
+                state.delete(orderId);
+            }
+        } finally {
+            unlockOrders(List.of(orderId));
+        }
+    }
+
+    // Записывает снимок текущего состояния и удаляет покрытые им сегменты журнала.
+    // Запись снимка идет параллельно с новыми изменениями: они попадают в новые
+    // сегменты и при восстановлении проигрываются поверх снимка
+    public void snapshot() throws IOException {
+        long firstSegment;
+        rollLock.writeLock().lock();
+        try {
+            firstSegment = await(log.roll());
+        } finally {
+            rollLock.writeLock().unlock();
+        }
+        // Порядок по времени создания ускоряет построение индекса при загрузке снимка;
+        // заказы читаются по мере записи, без промежуточной копии всего хранилища
+        try (Stream<Order> orders = state.streamAll()) {
+            snapshots.write(firstSegment, orders::iterator);
+        }
+        log.deleteSegmentsBefore(firstSegment);
+    }
+
+    @Override
+    public void close() throws IOException {
+        ScheduledExecutorService scheduler;
+        synchronized (this) {
+            scheduler = snapshotScheduler;
+        }
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            try {
+                scheduler.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        log.close();
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Не удалось записать снимок заказов: " + e.getMessage());
+        }
+    }
+
+    private void replay(ByteBuffer record) {
+        byte type = record.get();
+        if (type == SAVE) {
+            state.save(OrderCodec.read(record, registry));
+        } else if (type == DELETE) {
+            state.delete(OrderCodec.readString(record));
+        } else {
+            throw new IllegalStateException("Неизвестный тип записи журнала: " + type);
+        }
+    }
+
+    private static byte[] encode(byte type, Order order, String orderId) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(type);
+            if (order != null) {
+                OrderCodec.write(order, out);
+            } else {
+                OrderCodec.writeString(orderId, out);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private boolean hasVersion(String orderId, long expectedVersion) {
+        Optional<Order> current = state.findById(orderId);
+        return current.isPresent() && current.get().getVersion() == expectedVersion;
+    }
+
+    // Применяет к памяти записи, дошедшие до диска, и только затем сообщает об ошибке остальных:
+    // запись, лежащая в журнале, должна быть видна и до перезапуска
+    private void applyDurable(List<Order> orders, List<CompletableFuture<Long>> durable) {
+        RuntimeException failure = null;
+        for (int i = 0; i < orders.size(); i++) {
+            try {
+                await(durable.get(i));
+                state.save(orders.get(i));
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    // Полосы блокируются по возрастанию номера, поэтому пакеты с пересекающимися заказами
+    // не блокируют друг друга навсегда
+    private void lockOrders(List<String> orderIds) {
+        rollLock.readLock().lock();
+        for (int stripe : stripes(orderIds)) {
+            orderLocks[stripe].lock();
+        }
+    }
+
+    private void unlockOrders(List<String> orderIds) {
+        for (int stripe : stripes(orderIds)) {
+            orderLocks[stripe].unlock();
+        }
+        rollLock.readLock().unlock();
+    }
+
+    private static int[] stripes(List<String> orderIds) {
+        if (orderIds.size() == 1) {
+            return new int[]{stripe(orderIds.get(0))};
+        }
+        return orderIds.stream().mapToInt(WalOrderRepository::stripe).distinct().sorted().toArray();
+    }
+
+    private static int stripe(String orderId) {
+        int hash = orderId.hashCode();
+        return (hash ^ hash >>> 16) & (LOCK_STRIPES - 1);
+    }
+
+    private static List<String> ids(List<Order> orders) {
+        List<String> ids = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            ids.add(order.getId());
+        }
+        return ids;
+    }
+
+    private static long await(CompletableFuture<Long> durable) {
+        try {
+            return durable.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package adapter.secondary;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+// Сегментированный журнал с групповой фиксацией: один поток-писатель забирает
+// все накопившиеся записи, пишет их одним проходом и делает один fsync на пачку.
+// Формат записи: [длина][crc32][данные]. Переключение сегмента тоже выполняется
+// писателем, поэтому все записи до него гарантированно лежат в старых сегментах.
+// При ошибке записи сегмент усекается до последнего fsync, чтобы за оборванной записью
+// не оказались следующие; если усечь не удалось, журнал отклоняет все дальнейшие записи
+final class WriteAheadLog implements AutoCloseable {
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int HEADER_SIZE = 8;
+    private static final int MAX_BATCH = 4096;
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final Path directory;
+    private final long segmentSizeBytes;
+    private final BlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final CRC32 crc = new CRC32();
+    private final PendingWrite shutdown = new PendingWrite(null);
+    private final Thread writer;
+
+    private FileChannel channel;
+    private long segmentIndex;
+    private long segmentPosition;
+    private long durablePosition; // длина активного сегмента на момент последнего fsync
+    private volatile boolean closed;
+    private volatile boolean stopped; // писатель завершился, записи в очереди не будут обработаны
+    private volatile IOException failure; // ошибка, после которой журнал не принимает записи
+
+    private WriteAheadLog(Path directory, long segmentSizeBytes) {
+        this.directory = directory;
+        this.segmentSizeBytes = segmentSizeBytes;
+        this.writer = new Thread(this::runWriter, "order-wal-writer");
+        this.writer.setDaemon(true);
+    }
+
+    // Сегменты с номером меньше firstSegment уже учтены в снимке и не проигрываются
+    static WriteAheadLog open(Path directory, long segmentSizeBytes, long firstSegment,
+                              Consumer<ByteBuffer> replay) throws IOException {
+        if (segmentSizeBytes <= HEADER_SIZE || segmentSizeBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Недопустимый размер сегмента журнала: " + segmentSizeBytes);
+        }
+        Files.createDirectories(directory);
+        WriteAheadLog log = new WriteAheadLog(directory, segmentSizeBytes);
+        log.recover(firstSegment, replay);
+        log.writer.start();
+        return log;
+    }
+
+    // Завершается номером сегмента, в который попала запись, после ее fsync
+    CompletableFuture<Long> append(byte[] payload) {
+        return enqueue(new PendingWrite(payload));
+    }
+
+    // Закрывает текущий сегмент и завершается номером нового активного сегмента
+    CompletableFuture<Long> roll() {
+        return enqueue(new PendingWrite(null));
+    }
+
+    void deleteSegmentsBefore(long index) throws IOException {
+        for (long segment : listSegments()) {
+            if (segment < index) {
+                Files.deleteIfExists(segmentPath(segment));
+            }
+        }
+    }
+
+    private CompletableFuture<Long> enqueue(PendingWrite write) {
+        if (closed) {
+            throw new IllegalStateException("Журнал заказов закрыт");
+        }
+        IOException error = failure;
+        if (error != null) {
+            throw new UncheckedIOException("Журнал заказов остановлен после ошибки записи", error);
+        }
+        queue.add(write);
+        // Писатель мог завершиться между проверкой и постановкой в очередь
+        if (stopped) {
+            failQueued();
+        }
+        return write.done;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        queue.add(shutdown);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+
+    private void recover(long firstSegment, Consumer<ByteBuffer> replay) throws IOException {
+        // Сегменты, оставшиеся от прерванного усечения после снимка
+        deleteSegmentsBefore(firstSegment);
+        List<Long> segments = listSegments();
+        for (int i = 0; i < segments.size(); i++) {
+            boolean last = i == segments.size() - 1;
+            Path file = segmentPath(segments.get(i));
+            long validLength = replaySegment(file, replay);
+            if (validLength < Files.size(file)) {
+                if (!last) {
+                    throw new IllegalStateException("Поврежден сегмент журнала " + file);
+                }
+                // Оборванная при сбое запись в хвосте последнего сегмента отбрасывается
+                try (FileChannel tail = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    tail.truncate(validLength);
+                    tail.force(true);
+                }
+            }
+        }
+        openSegment(segments.isEmpty() ? Math.max(1, firstSegment) : segments.get(segments.size() - 1));
+    }
+
+    private long replaySegment(Path file, Consumer<ByteBuffer> replay) throws IOException {
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer data = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+            CRC32 checksum = new CRC32();
+            while (data.remaining() >= HEADER_SIZE) {
+                int start = data.position();
+                int length = data.getInt();
+                int expected = data.getInt();
+                if (length <= 0 || length > data.remaining()) {
+                    return start;
+                }
+                ByteBuffer payload = data.slice(data.position(), length);
+                checksum.reset();
+                checksum.update(payload.duplicate());
+                if ((int) checksum.getValue() != expected) {
+                    return start;
+                }
+                replay.accept(payload);
+                data.position(data.position() + length);
+            }
+            return data.position();
+        }
+    }
+
+    private void runWriter() {
+        List<PendingWrite> batch = new ArrayList<>(MAX_BATCH);
+        boolean running = true;
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            queue.drainTo(batch, MAX_BATCH - 1);
+            // Записи пачки до переключения сегмента уже на диске: переключение делает fsync
+            int durableWrites = 0;
+            IOException batchError = null;
+            try {
+                for (int i = 0; i < batch.size(); i++) {
+                    PendingWrite write = batch.get(i);
+                    long segmentBefore = segmentIndex;
+                    if (write == shutdown) {
+                        running = false;
+                    } else if (write.payload == null) {
+                        nextSegment();
+                    } else {
+                        writeRecord(write.payload);
+                    }
+                    if (segmentIndex != segmentBefore) {
+                        durableWrites = write.payload == null ? i + 1 : i;
+                    }
+                    write.segment = segmentIndex;
+                }
+                flushBuffer();
+                channel.force(false);
+                durablePosition = segmentPosition;
+                durableWrites = batch.size();
+            } catch (IOException e) {
+                batchError = e;
+                rollBack(e);
+            }
+            UncheckedIOException batchFailure = batchError == null ? null
+                    : new UncheckedIOException("Ошибка записи журнала заказов", batchError);
+            for (int i = 0; i < batch.size(); i++) {
+                PendingWrite write = batch.get(i);
+                if (i < durableWrites) {
+                    write.done.complete(write.segment);
+                } else {
+                    write.done.completeExceptionally(batchFailure);
+                }
+            }
+            batch.clear();
+            if (failure != null) {
+                break;
+            }
+        }
+        stopped = true;
+        failQueued();
+    }
+
+    // Отбрасывает записанное после последнего fsync. Если это не удалось, в сегменте могла
+    // остаться оборванная запись, и журнал больше не принимает записи до перезапуска
+    private void rollBack(IOException cause) {
+        buffer.clear();
+        try {
+            channel.truncate(durablePosition);
+            channel.position(durablePosition);
+            channel.force(false);
+            segmentPosition = durablePosition;
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+            failure = cause;
+        }
+    }
+
+    // Записи, которые писатель уже не обработает
+    private void failQueued() {
+        IOException error = failure;
+        RuntimeException stoppedFailure = error != null
+                ? new UncheckedIOException("Журнал заказов остановлен после ошибки записи", error)
+                : new IllegalStateException("Журнал заказов закрыт");
+        for (PendingWrite write = queue.poll(); write != null; write = queue.poll()) {
+            write.done.completeExceptionally(stoppedFailure);
+        }
+    }
+
+    private void writeRecord(byte[] payload) throws IOException {
+        int recordSize = HEADER_SIZE + payload.length;
+        if (segmentPosition > 0 && segmentPosition + recordSize > segmentSizeBytes) {
+            nextSegment();
+        }
+
+        crc.reset();
+        crc.update(payload);
+        if (recordSize > buffer.remaining()) {
+            flushBuffer();
+        }
+        if (recordSize > buffer.capacity()) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(payload.length).putInt((int) crc.getValue()).flip();
+            writeFully(header);
+            writeFully(ByteBuffer.wrap(payload));
+        } else {
+            buffer.putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+        }
+        segmentPosition += recordSize;
+    }
+
+    private void nextSegment() throws IOException {
+        flushBuffer();
+        channel.force(false);
+        channel.close();
+        openSegment(segmentIndex + 1);
+    }
+
+    private void flushBuffer() throws IOException {
+        buffer.flip();
+        writeFully(buffer);
+        buffer.clear();
+    }
+
+    private void writeFully(ByteBuffer data) throws IOException {
+        while (data.hasRemaining()) {
+            channel.write(data);
+        }
+    }
+
+    private void openSegment(long index) throws IOException {
+        Path file = segmentPath(index);
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        segmentIndex = index;
+        segmentPosition = channel.size();
+        durablePosition = segmentPosition;
+        channel.position(segmentPosition);
+    }
+
+    private List<Long> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segmentPath(long index) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+    }
+
+    private static final class PendingWrite {
+        private final byte[] payload;
+        private final CompletableFuture<Long> done = new CompletableFuture<>();
+        private long segment;
+
+        private PendingWrite(byte[] payload) {
+            this.payload = payload;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package domain.model;
+
+import java.time.LocalDateTime;
+
+// Запись истории заказа: переход из статуса from в статус to; reason - причина,
+// указанная при отмене или возврате, иначе null
+public record AuditEntry(LocalDateTime timestamp, OrderStatus from, OrderStatus to, String reason) {
+}
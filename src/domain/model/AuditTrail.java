@@ -0,0 +1,149 @@
+package domain.model;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+// Неизменяемая история переходов заказа в виде односвязного списка от последней записи
+// к первой. Добавление создает один узел и не копирует предыдущие, поэтому новая версия
+// заказа разделяет историю с предыдущей. Таблица переходов OrderStatus не содержит циклов,
+// поэтому записей не больше длины самого длинного пути (8: CREATED -> ... -> QUALITY_CHECK ->
+// REJECTED -> RETURNED -> CANCELLED) и история целиком хранится в заказе
+public final class AuditTrail {
+    private static final AuditTrail EMPTY = new AuditTrail(null, 0, (byte) -1, (byte) -1, null, 0);
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    private final AuditTrail previous;
+    private final long timestampNanos; // наносекунды от эпохи, время локальное, как в Order
+    private final byte from;
+    private final byte to;
+    private final String reason;
+    private final int size;
+
+    private AuditTrail(AuditTrail previous, long timestampNanos, byte from, byte to, String reason, int size) {
+        this.previous = previous;
+        this.timestampNanos = timestampNanos;
+        this.from = from;
+        this.to = to;
+        this.reason = reason;
+        this.size = size;
+    }
+
+    public static AuditTrail empty() {
+        return EMPTY;
+    }
+
+    // История из записей в порядке от ранней к поздней
+    public static AuditTrail of(List<AuditEntry> entries) {
+        AuditTrail trail = EMPTY;
+        for (AuditEntry entry : entries) {
+            trail = trail.append(entry);
+        }
+        return trail;
+    }
+
+    public AuditTrail append(AuditEntry entry) {
+        return append(entry.timestamp(), entry.from(), entry.to(), entry.reason());
+    }
+
+    public AuditTrail append(LocalDateTime timestamp, OrderStatus from, OrderStatus to, String reason) {
+        long nanos = timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + timestamp.getNano();
+        return appendNanos(nanos, from, to, reason);
+    }
+
+    // timestampMillis - локальные миллисекунды, как в TimeSource
+    AuditTrail append(long timestampMillis, OrderStatus from, OrderStatus to, String reason) {
+        return appendNanos(timestampMillis * 1_000_000L, from, to, reason);
+    }
+
+    private AuditTrail appendNanos(long nanos, OrderStatus from, OrderStatus to, String reason) {
+        return new AuditTrail(size == 0 ? null : this, nanos, (byte) from.ordinal(), (byte) to.ordinal(), reason,
+                size + 1);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Записи от ранней к поздней
+    public List<AuditEntry> entries() {
+        List<AuditEntry> entries = new ArrayList<>(size);
+        for (AuditTrail node : nodes()) {
+            entries.add(node.toEntry());
+        }
+        return entries;
+    }
+
+    public AuditEntry latest() {
+        if (size == 0) {
+            throw new IllegalStateException("История заказа пуста");
+        }
+        return toEntry();
+    }
+
+    // Дописывает к комментарию записи с причиной в прежнем формате "\nОтмена: причина"
+    void appendComments(StringBuilder out) {
+        for (AuditTrail node : nodes()) {
+            if (node.reason != null) {
+                out.append('\n').append(label(STATUSES[node.to])).append(": ").append(node.reason);
+            }
+        }
+    }
+
+    // true, если в истории есть что выводить в комментарии
+    boolean hasComments() {
+        for (AuditTrail node = this; node != null && node.size > 0; node = node.previous) {
+            if (node.reason != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String label(OrderStatus to) {
+        return switch (to) {
+            case CANCELLED -> "Отмена";
+            case RETURNED -> "Возврат";
+            default -> to.getDescription();
+        };
+    }
+
+    private AuditTrail[] nodes() {
+        AuditTrail[] nodes = new AuditTrail[size];
+        AuditTrail node = this;
+        for (int i = size - 1; i >= 0; i--) {
+            nodes[i] = node;
+            node = node.previous;
+        }
+        return nodes;
+    }
+
+    private AuditEntry toEntry() {
+        LocalDateTime timestamp = LocalDateTime.ofEpochSecond(Math.floorDiv(timestampNanos, 1_000_000_000L),
+                (int) Math.floorMod(timestampNanos, 1_000_000_000L), ZoneOffset.UTC);
+        return new AuditEntry(timestamp, STATUSES[from], STATUSES[to], reason);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        AuditTrail other = (AuditTrail) o;
+        return size == other.size && entries().equals(other.entries());
+    }
+
+    @Override
+    public int hashCode() {
+        return entries().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "AuditTrail{entries=" + entries() + '}';
+    }
+}
@@ -0,0 +1,152 @@
+package domain.model;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ObjIntConsumer;
+
+// Неизменяемый состав заказа: параллельные массивы номеров продуктов в ProductRegistry
+// и количеств. Позиция занимает 8 байт вместо записи HashMap и Integer, а новая версия
+// заказа использует тот же экземпляр без копирования
+public final class LineItems {
+    private static final LineItems EMPTY = new LineItems(null, new int[0], new int[0]);
+
+    private final ProductRegistry registry; // реестр номеров productIndices; null только у пустого состава
+    private final int[] productIndices;
+    private final int[] quantities;
+
+    private LineItems(ProductRegistry registry, int[] productIndices, int[] quantities) {
+        this.registry = registry;
+        this.productIndices = productIndices;
+        this.quantities = quantities;
+    }
+
+    public static LineItems empty() {
+        return EMPTY;
+    }
+
+    public static LineItems of(Map<Product, Integer> items, ProductRegistry registry) {
+        if (items.isEmpty()) {
+            return EMPTY;
+        }
+        int[] productIndices = new int[items.size()];
+        int[] quantities = new int[productIndices.length];
+        int line = 0;
+        for (Map.Entry<Product, Integer> item : items.entrySet()) {
+            productIndices[line] = registry.register(item.getKey());
+            quantities[line] = item.getValue();
+            line++;
+        }
+        return new LineItems(registry, productIndices, quantities);
+    }
+
+    // Состав по номерам продуктов, уже зарегистрированных в registry; массивы передаются во владение,
+    // номера продуктов не должны повторяться
+    public static LineItems ofIndices(ProductRegistry registry, int[] productIndices, int[] quantities) {
+        if (productIndices.length != quantities.length) {
+            throw new IllegalArgumentException("Число продуктов и количеств в составе заказа не совпадает");
+        }
+        return productIndices.length == 0 ? EMPTY : new LineItems(registry, productIndices, quantities);
+    }
+
+    // Тот же состав с номерами продуктов в target; без копирования, если состав уже в нем
+    public LineItems inRegistry(ProductRegistry target) {
+        if (registry == target || productIndices.length == 0) {
+            return this;
+        }
+        int[] targetIndices = new int[productIndices.length];
+        for (int line = 0; line < productIndices.length; line++) {
+            targetIndices[line] = target.register(registry.get(productIndices[line]));
+        }
+        return new LineItems(target, targetIndices, quantities);
+    }
+
+    public int size() {
+        return productIndices.length;
+    }
+
+    public boolean isEmpty() {
+        return productIndices.length == 0;
+    }
+
+    public Product product(int line) {
+        return registry.get(productIndices[line]);
+    }
+
+    public int productIndex(int line) {
+        return productIndices[line];
+    }
+
+    public int quantity(int line) {
+        return quantities[line];
+    }
+
+    // Количество продукта в заказе или 0, если его нет
+    public int quantityOf(Product product) {
+        if (productIndices.length == 0) {
+            return 0;
+        }
+        int line = find(registry.indexOf(product));
+        return line < 0 ? 0 : quantities[line];
+    }
+
+    public void forEach(ObjIntConsumer<Product> action) {
+        for (int line = 0; line < productIndices.length; line++) {
+            action.accept(registry.get(productIndices[line]), quantities[line]);
+        }
+    }
+
+    // Копия в виде Map для кода, которому нужен прежний формат
+    public Map<Product, Integer> toMap() {
+        Map<Product, Integer> map = new LinkedHashMap<>(Math.max(4, productIndices.length * 2));
+        forEach(map::put);
+        return map;
+    }
+
+    private int find(int productIndex) {
+        if (productIndex < 0) {
+            return -1;
+        }
+        for (int line = 0; line < productIndices.length; line++) {
+            if (productIndices[line] == productIndex) {
+                return line;
+            }
+        }
+        return -1;
+    }
+
+    // Равенство по продуктам и количествам, без учета порядка позиций и реестра
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        LineItems other = (LineItems) o;
+        if (size() != other.size()) {
+            return false;
+        }
+        if (registry == other.registry && Arrays.equals(productIndices, other.productIndices)) {
+            return Arrays.equals(quantities, other.quantities);
+        }
+        for (int line = 0; line < productIndices.length; line++) {
+            if (other.quantityOf(product(line)) != quantities[line]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Совпадает с hashCode Map, возвращаемой toMap
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (int line = 0; line < productIndices.length; line++) {
+            hash += product(line).hashCode() ^ quantities[line];
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return toMap().toString();
+    }
+}
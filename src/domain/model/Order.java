@@ -1,126 +1,154 @@
 package domain.model;
 
+import domain.port.secondary.TimeSource;
+
 import java.time.LocalDateTime;
 import java.util.*;
 
 public class Order {
     private final String id;
-    private String supplierId;
+    private final String supplierId;
     private OrderStatus status;
-    private final LocalDateTime createdAt;
-    private LocalDateTime updatedAt;
-    private Map<Product, Integer> items; // продукт и количество
-    private String comments;
+    // Время хранится локальными миллисекундами (см. TimeSource), LocalDateTime создается при чтении
+    private final long createdAt;
+    private final long updatedAt;
+    private final LineItems items;
+    private String note; // комментарий без истории переходов
+    private AuditTrail auditTrail;
     private String qualityControlResult;
-
+    private final long version;
+    // Черновик новой версии (nextVersion): только его можно менять. Сохраненный экземпляр
+    // запечатан (seal), иначе его изменение обошло бы проверку версии и индексы хранилища
+    private boolean draft;
+    // События, записанные с создания экземпляра и еще не забранные pullEvents; null - событий нет
+    private List<OrderEvent> events;
+
+    // Продукты состава регистрируются в registry - общем реестре хранилища или приложения
     public Order(String id, String supplierId, OrderStatus status,
                  LocalDateTime createdAt, LocalDateTime updatedAt,
-                 Map<Product, Integer> items, String comments) {
+                 Map<Product, Integer> items, ProductRegistry registry, String comments) {
+        this(id, supplierId, status, TimeSource.toMillis(createdAt), TimeSource.toMillis(updatedAt),
+                LineItems.of(items, registry), comments, null, 0, AuditTrail.empty());
+    }
+
+    // createdAt и updatedAt - локальные миллисекунды (TimeSource.toMillis);
+    // note - комментарий без истории переходов (см. getNote)
+    public Order(String id, String supplierId, OrderStatus status, long createdAt, long updatedAt,
+                 LineItems items, String note, String qualityControlResult, long version, AuditTrail auditTrail) {
         this.id = id;
         this.supplierId = supplierId;
         this.status = status;
         this.createdAt = createdAt;
         this.updatedAt = updatedAt;
-        this.items = new HashMap<>(items);
-        this.comments = comments;
+        this.items = items;
+        this.note = note;
+        this.qualityControlResult = qualityControlResult;
+        this.version = version;
+        this.auditTrail = auditTrail;
+    }
+
+    public Order(String supplierId, Map<Product, Integer> items, ProductRegistry registry) {
+        this(UUID.randomUUID().toString(), supplierId, LineItems.of(items, registry), TimeSource.system());
     }
 
-    public Order(String supplierId, Map<Product, Integer> items) {
-        this.id = UUID.randomUUID().toString();
+    // Новый заказ с идентификатором, выданным IdGenerator; clock задает время создания
+    public Order(String id, String supplierId, LineItems items, TimeSource clock) {
+        this.id = id;
         this.supplierId = supplierId;
         this.status = OrderStatus.CREATED;
-        this.createdAt = LocalDateTime.now();
+        this.createdAt = clock.currentMillis();
         this.updatedAt = this.createdAt;
-        this.items = new HashMap<>(items);
-        this.comments = "";
-    }
-
-    public void confirm() {
-        if (status != OrderStatus.CREATED) {
-            throw new IllegalStateException("Нельзя подтвердить заказ, который не находится в статусе 'Создан'");
-        }
-        status = OrderStatus.CONFIRMED;
-        updateTimestamp();
-    }
-
-    public void send() {
-        if (status != OrderStatus.CONFIRMED) {
-            throw new IllegalStateException("Нельзя отправить заказ, который не был подтвержден");
-        }
-        status = OrderStatus.SENT;
-        updateTimestamp();
-    }
-
-    public void markInTransit() {
-        if (status != OrderStatus.SENT) {
-            throw new IllegalStateException("Заказ должен быть в статусе 'Отправлен' перед переходом в статус 'В пути'");
-        }
-        status = OrderStatus.IN_TRANSIT;
-        updateTimestamp();
-    }
-
-    public void markDelivered() {
-        if (status != OrderStatus.IN_TRANSIT) {
-            throw new IllegalStateException("Заказ должен быть в пути перед доставкой");
-        }
-        status = OrderStatus.DELIVERED;
-        updateTimestamp();
-    }
-
-    public void startQualityCheck() {
-        if (status != OrderStatus.DELIVERED) {
-            throw new IllegalStateException("Проверка качества возможна только для доставленных заказов");
-        }
-        status = OrderStatus.QUALITY_CHECK;
-        updateTimestamp();
-    }
-
-    public void acceptDelivery(String qualityCheckResult) {
-        if (status != OrderStatus.QUALITY_CHECK) {
-            throw new IllegalStateException("Принятие заказа возможно только после проверки качества");
+        this.items = items;
+        this.note = "";
+        this.auditTrail = AuditTrail.empty();
+        this.version = 0;
+    }
+
+    // Новый заказ с записанным событием Created - для сервиса, который публикует события заказов
+    public static Order create(String id, String supplierId, LineItems items, TimeSource clock) {
+        Order order = new Order(id, supplierId, items, clock);
+        order.record(new OrderEvent.Created(order));
+        return order;
+    }
+
+    // Копия заказа со следующим номером версии. Переход выполняется над копией,
+    // поэтому сохраненный экземпляр никогда не виден в частично измененном состоянии.
+    // Время новой версии (updatedAt и записи истории ее переходов) читается из clock один раз.
+    // Состав и история заказа неизменяемы и не копируются, записанные события не переносятся
+    public Order nextVersion(TimeSource clock) {
+        Order next = new Order(id, supplierId, status, createdAt, clock.currentMillis(), items, note,
+                qualityControlResult, version + 1, auditTrail);
+        next.draft = true;
+        return next;
+    }
+
+    // Запрещает дальнейшие изменения; хранилища вызывают перед тем, как сделать экземпляр видимым
+    public Order seal() {
+        draft = false;
+        return this;
+    }
+
+    // Переход по таблице OrderStatus без исключений. detail - результат проверки качества
+    // для ACCEPTED и REJECTED, причина для RETURNED и CANCELLED, для остальных не используется
+    public TransitionCode tryTransition(OrderStatus target, String detail) {
+        requireDraft();
+        if (!status.canTransitionTo(target)) {
+            return TransitionCode.NOT_ALLOWED;
         }
-        this.qualityControlResult = qualityCheckResult;
-        status = OrderStatus.ACCEPTED;
-        updateTimestamp();
-    }
-
-    public void rejectDelivery(String reason) {
-        if (status != OrderStatus.QUALITY_CHECK) {
-            throw new IllegalStateException("Отклонение заказа возможно только после проверки качества");
+        String reason = null;
+        switch (target) {
+            case ACCEPTED, REJECTED -> qualityControlResult = detail;
+            case RETURNED, CANCELLED -> reason = detail;
+            default -> {
+            }
         }
-        this.qualityControlResult = reason;
-        status = OrderStatus.REJECTED;
-        updateTimestamp();
-    }
-
-    public void returnToSupplier(String reason) {
-        if (status != OrderStatus.REJECTED) {
-            throw new IllegalStateException("Возврат возможен только для отклоненных заказов");
+        OrderStatus from = status;
+        moveTo(target, reason);
+        record(OrderEvent.transition(from, this, detail));
+        return TransitionCode.APPLIED;
+    }
+
+    // Забирает записанные события в порядке записи; следующий вызов вернет только новые
+    public List<OrderEvent> pullEvents() {
+        List<OrderEvent> pulled = events;
+        events = null;
+        return pulled == null ? List.of() : pulled;
+    }
+
+    // Исключение, которым сервис сообщает о недопустимом переходе в target
+    public static IllegalStateException transitionError(OrderStatus target) {
+        return new IllegalStateException(switch (target) {
+            case CONFIRMED -> "Нельзя подтвердить заказ, который не находится в статусе 'Создан'";
+            case SENT -> "Нельзя отправить заказ, который не был подтвержден";
+            case IN_TRANSIT -> "Заказ должен быть в статусе 'Отправлен' перед переходом в статус 'В пути'";
+            case DELIVERED -> "Заказ должен быть в пути перед доставкой";
+            case QUALITY_CHECK -> "Проверка качества возможна только для доставленных заказов";
+            case ACCEPTED -> "Принятие заказа возможно только после проверки качества";
+            case REJECTED -> "Отклонение заказа возможно только после проверки качества";
+            case RETURNED -> "Возврат возможен только для отклоненных заказов";
+            case CANCELLED -> "Нельзя отменить завершенный или уже отмененный заказ";
+            case COMPLETED -> "Только принятый заказ может быть завершен";
+            case CREATED -> "Заказ не может вернуться в статус 'Создан'";
+        });
+    }
+
+    private void requireDraft() {
+        if (!draft) {
+            throw new IllegalStateException("Заказ " + id + " изменяется только через новую версию (nextVersion)");
         }
-        this.comments = this.comments + "\nВозврат: " + reason;
-        status = OrderStatus.RETURNED;
-        updateTimestamp();
     }
 
-    public void cancel(String reason) {
-        if (status == OrderStatus.COMPLETED || status == OrderStatus.CANCELLED) {
-            throw new IllegalStateException("Нельзя отменить завершенный или уже отмененный заказ");
-        }
-        this.comments = this.comments + "\nОтмена: " + reason;
-        status = OrderStatus.CANCELLED;
-        updateTimestamp();
+    // Смена статуса с записью в историю; время записи - время версии (updatedAt)
+    private void moveTo(OrderStatus target, String reason) {
+        auditTrail = auditTrail.append(updatedAt, status, target, reason);
+        status = target;
     }
 
-    public void complete() {
-        if (status != OrderStatus.ACCEPTED) {
-            throw new IllegalStateException("Только принятый заказ может быть завершен");
+    private void record(OrderEvent event) {
+        if (events == null) {
+            events = new ArrayList<>(2);
         }
-        status = OrderStatus.COMPLETED;
-        updateTimestamp();
-    }
-
-    private void updateTimestamp() {
-        this.updatedAt = LocalDateTime.now();
+        events.add(event);
     }
 
     public String getId() {
@@ -136,44 +164,55 @@ public class Order {
     }
 
     public LocalDateTime getCreatedAt() {
-        return createdAt;
+        return TimeSource.toLocalDateTime(createdAt);
     }
 
     public LocalDateTime getUpdatedAt() {
+        return TimeSource.toLocalDateTime(updatedAt);
+    }
+
+    // Локальные миллисекунды без создания LocalDateTime - для индексов и кодеков
+    public long getCreatedAtMillis() {
+        return createdAt;
+    }
+
+    public long getUpdatedAtMillis() {
         return updatedAt;
     }
 
-    public Map<Product, Integer> getItems() {
-        return Collections.unmodifiableMap(items);
+    public LineItems getItems() {
+        return items;
+    }
+
+    // Состав в прежнем виде, как его возвращал getItems до LineItems
+    public Map<Product, Integer> getItemsMap() {
+        return Collections.unmodifiableMap(items.toMap());
     }
 
+    // Комментарий вместе с причинами отмены и возврата из истории; строка собирается при вызове
     public String getComments() {
-        return comments;
+        if (!auditTrail.hasComments()) {
+            return note;
+        }
+        StringBuilder comments = new StringBuilder(note == null ? "" : note);
+        auditTrail.appendComments(comments);
+        return comments.toString();
     }
 
-    public String getQualityControlResult() {
-        return qualityControlResult;
+    public String getNote() {
+        return note;
     }
 
-    public void setComments(String comments) {
-        this.comments = comments;
-        updateTimestamp();
+    public AuditTrail getAuditTrail() {
+        return auditTrail;
     }
 
-    public void addItem(Product product, int quantity) {
-        if (status != OrderStatus.CREATED) {
-            throw new IllegalStateException("Нельзя изменять состав заказа после его подтверждения");
-        }
-        items.put(product, items.getOrDefault(product, 0) + quantity);
-        updateTimestamp();
+    public String getQualityControlResult() {
+        return qualityControlResult;
     }
 
-    public void removeItem(Product product) {
-        if (status != OrderStatus.CREATED) {
-            throw new IllegalStateException("Нельзя изменять состав заказа после его подтверждения");
-        }
-        items.remove(product);
-        updateTimestamp();
+    public long getVersion() {
+        return version;
     }
 
     @Override
@@ -195,11 +234,13 @@ public class Order {
                 "id='" + id + '\'' +
                 ", supplierId='" + supplierId + '\'' +
                 ", status=" + status +
-                ", createdAt=" + createdAt +
-                ", updatedAt=" + updatedAt +
+                ", createdAt=" + getCreatedAt() +
+                ", updatedAt=" + getUpdatedAt() +
                 ", items=" + items.size() +
-                ", comments='" + comments + '\'' +
+                ", note='" + note + '\'' +
+                ", auditTrail=" + auditTrail.size() +
                 ", qualityControlResult='" + qualityControlResult + '\'' +
+                ", version=" + version +
                 '}';
     }
 }
\ No newline at end of file
@@ -0,0 +1,35 @@
+package domain.model;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+// Позиция в списке заказов, упорядоченном по времени создания и идентификатору.
+// Страница после курсора начинается со следующего за ним заказа, поэтому новые
+// и удаленные заказы не сдвигают уже выданные страницы
+public record OrderCursor(LocalDateTime createdAt, String orderId) {
+
+    public static OrderCursor after(Order order) {
+        return new OrderCursor(order.getCreatedAt(), order.getId());
+    }
+
+    // Непрозрачная строка для передачи курсора клиенту (например, в параметре запроса)
+    public String toToken() {
+        String value = createdAt + "_" + orderId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static OrderCursor fromToken(String token) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.indexOf('_');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Некорректный курсор: " + token);
+            }
+            return new OrderCursor(LocalDateTime.parse(value.substring(0, separator)), value.substring(separator + 1));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Некорректный курсор: " + token, e);
+        }
+    }
+}
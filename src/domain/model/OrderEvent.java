@@ -0,0 +1,64 @@
+package domain.model;
+
+// Событие заказа, которое записывает сам заказ: создание или переход в новый статус.
+// order - версия заказа после события, previousStatus - статус до перехода (у Created - null)
+public sealed interface OrderEvent {
+
+    Order order();
+
+    OrderStatus previousStatus();
+
+    record Created(Order order) implements OrderEvent {
+        @Override
+        public OrderStatus previousStatus() {
+            return null;
+        }
+    }
+
+    record Confirmed(Order order, OrderStatus previousStatus) implements OrderEvent {
+    }
+
+    record Sent(Order order, OrderStatus previousStatus) implements OrderEvent {
+    }
+
+    record InTransit(Order order, OrderStatus previousStatus) implements OrderEvent {
+    }
+
+    record Delivered(Order order, OrderStatus previousStatus) implements OrderEvent {
+    }
+
+    record QualityCheckStarted(Order order, OrderStatus previousStatus) implements OrderEvent {
+    }
+
+    record Accepted(Order order, OrderStatus previousStatus, String qualityCheckResult) implements OrderEvent {
+    }
+
+    record Rejected(Order order, OrderStatus previousStatus, String reason) implements OrderEvent {
+    }
+
+    record Returned(Order order, OrderStatus previousStatus, String reason) implements OrderEvent {
+    }
+
+    record Cancelled(Order order, OrderStatus previousStatus, String reason) implements OrderEvent {
+    }
+
+    record Completed(Order order, OrderStatus previousStatus) implements OrderEvent {
+    }
+
+    // Событие перехода заказа из from в его текущий статус; detail - как в Order.tryTransition
+    static OrderEvent transition(OrderStatus from, Order order, String detail) {
+        return switch (order.getStatus()) {
+            case CONFIRMED -> new Confirmed(order, from);
+            case SENT -> new Sent(order, from);
+            case IN_TRANSIT -> new InTransit(order, from);
+            case DELIVERED -> new Delivered(order, from);
+            case QUALITY_CHECK -> new QualityCheckStarted(order, from);
+            case ACCEPTED -> new Accepted(order, from, detail);
+            case REJECTED -> new Rejected(order, from, detail);
+            case RETURNED -> new Returned(order, from, detail);
+            case CANCELLED -> new Cancelled(order, from, detail);
+            case COMPLETED -> new Completed(order, from);
+            case CREATED -> throw new IllegalArgumentException("Переход в статус 'Создан' не является событием");
+        };
+    }
+}
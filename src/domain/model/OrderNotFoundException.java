@@ -0,0 +1,18 @@
+package domain.model;
+
+// Заказа с указанным идентификатором нет в хранилище. Наследует IllegalArgumentException,
+// как и прежняя ошибка поиска, поэтому существующие обработчики продолжают ее перехватывать
+public class OrderNotFoundException extends IllegalArgumentException {
+    private static final long serialVersionUID = 1L;
+
+    private final String orderId;
+
+    public OrderNotFoundException(String orderId) {
+        super("Заказ с ID " + orderId + " не найден");
+        this.orderId = orderId;
+    }
+
+    public String getOrderId() {
+        return orderId;
+    }
+}
@@ -0,0 +1,11 @@
+package domain.model;
+
+import java.util.List;
+
+// Страница заказов; nextCursor равен null, если страница последняя
+public record OrderPage(List<Order> orders, OrderCursor nextCursor) {
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
@@ -1,5 +1,9 @@
 package domain.model;
 
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum OrderStatus {
     CREATED("Создан"),
     CONFIRMED("Подтвержден"),
@@ -13,7 +17,25 @@ public enum OrderStatus {
     COMPLETED("Завершен"),
     CANCELLED("Отменен");
 
+    // Таблица переходов: единственное место, где описано, в какие статусы можно перейти.
+    // Отмена доступна из любого статуса, кроме завершенного и уже отмененного
+    static {
+        allow(CREATED, CONFIRMED, CANCELLED);
+        allow(CONFIRMED, SENT, CANCELLED);
+        allow(SENT, IN_TRANSIT, CANCELLED);
+        allow(IN_TRANSIT, DELIVERED, CANCELLED);
+        allow(DELIVERED, QUALITY_CHECK, CANCELLED);
+        allow(QUALITY_CHECK, ACCEPTED, REJECTED, CANCELLED);
+        allow(ACCEPTED, COMPLETED, CANCELLED);
+        allow(REJECTED, RETURNED, CANCELLED);
+        allow(RETURNED, CANCELLED);
+        allow(COMPLETED);
+        allow(CANCELLED);
+    }
+
     private final String description;
+    private int allowedMask; // бит ordinal() целевого статуса
+    private Set<OrderStatus> allowedTransitions;
 
     OrderStatus(String description) {
         this.description = description;
@@ -22,4 +44,27 @@ public enum OrderStatus {
     public String getDescription() {
         return description;
     }
-}
\ No newline at end of file
+
+    public boolean canTransitionTo(OrderStatus target) {
+        return (allowedMask & (1 << target.ordinal())) != 0;
+    }
+
+    // Из конечного статуса переходов нет: заказ завершен или отменен
+    public boolean isFinal() {
+        return allowedMask == 0;
+    }
+
+    // Неизменяемое множество допустимых целевых статусов в порядке объявления
+    public Set<OrderStatus> allowedTransitions() {
+        return allowedTransitions;
+    }
+
+    private static void allow(OrderStatus from, OrderStatus... targets) {
+        EnumSet<OrderStatus> allowed = EnumSet.noneOf(OrderStatus.class);
+        for (OrderStatus target : targets) {
+            allowed.add(target);
+            from.allowedMask |= 1 << target.ordinal();
+        }
+        from.allowedTransitions = Collections.unmodifiableSet(allowed);
+    }
+}
@@ -9,6 +9,7 @@ public class Product {
     private final String category;
     private final String temperatureMode;
     private final int shelfLifeDays;
+    private final int hash; // продукты - ключи составов и каталога, хэш считается один раз
 
     public Product(String id, String name, String category, String temperatureMode, int shelfLifeDays) {
         this.id = id;
@@ -16,6 +17,7 @@ public class Product {
         this.category = category;
         this.temperatureMode = temperatureMode;
         this.shelfLifeDays = shelfLifeDays;
+        this.hash = Objects.hashCode(id);
     }
 
     public Product(String name, String category, String temperatureMode, int shelfLifeDays) {
@@ -52,7 +54,7 @@ public class Product {
 
     @Override
     public int hashCode() {
-        return Objects.hash(id);
+        return hash;
     }
 
     @Override
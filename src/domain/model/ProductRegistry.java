@@ -0,0 +1,85 @@
+package domain.model;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Реестр продуктов: каждому продукту (по идентификатору) выдается плотный номер,
+// по которому позиции заказов хранят ссылку на продукт вместо самого объекта.
+// Номера не переиспользуются, а реестр не очищается - продуктов на порядки меньше, чем заказов.
+// Реестр создается при запуске и передается компонентам, которые хранят номера продуктов;
+// номера разных реестров несравнимы, поэтому состав заказа знает свой реестр (LineItems)
+public final class ProductRegistry {
+    private final Map<String, Integer> indices = new ConcurrentHashMap<>();
+    private volatile Product[] products = new Product[64];
+    private int size;
+
+    // Номер продукта; продукт регистрируется при первом обращении.
+    // Для равных продуктов возвращается один номер и хранится первый экземпляр
+    public int register(Product product) {
+        Integer index = indices.get(product.getId());
+        if (index != null) {
+            return index;
+        }
+        synchronized (this) {
+            ensureCapacity(size + 1);
+            return registerLocked(product);
+        }
+    }
+
+    // Пакетная регистрация (загрузка каталога): одна блокировка и одно расширение массива на весь пакет
+    public int[] registerAll(Collection<Product> batch) {
+        int[] result = new int[batch.size()];
+        synchronized (this) {
+            ensureCapacity(size + result.length);
+            int i = 0;
+            for (Product product : batch) {
+                result[i++] = registerLocked(product);
+            }
+        }
+        return result;
+    }
+
+    // Номер продукта или -1, если продукт не зарегистрирован
+    public int indexOf(Product product) {
+        return indexOf(product.getId());
+    }
+
+    public int indexOf(String productId) {
+        Integer index = indices.get(productId);
+        return index == null ? -1 : index;
+    }
+
+    public Product get(int index) {
+        Product[] current = products;
+        Product product = index >= 0 && index < current.length ? current[index] : null;
+        if (product == null) {
+            throw new IllegalArgumentException("Продукт с номером " + index + " не зарегистрирован");
+        }
+        return product;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private int registerLocked(Product product) {
+        Integer index = indices.get(product.getId());
+        if (index != null) {
+            return index;
+        }
+        Product[] current = products;
+        current[size] = product;
+        products = current; // повторная запись volatile-поля публикует добавленный продукт
+        indices.put(product.getId(), size);
+        return size++;
+    }
+
+    private void ensureCapacity(int required) {
+        Product[] current = products;
+        if (required > current.length) {
+            products = Arrays.copyOf(current, Math.max(required, current.length * 2));
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package domain.model;
+
+// Запрос не выполнен из-за временной нехватки ресурсов и может быть повторен без изменений.
+// Наследует IllegalStateException, как и прежняя ошибка, поэтому существующие обработчики
+// продолжают ее перехватывать; HTTP-сервер отвечает на нее 503, а не 409
+public class RetryLaterException extends IllegalStateException {
+    private static final long serialVersionUID = 1L;
+
+    public RetryLaterException(String message) {
+        super(message);
+    }
+}
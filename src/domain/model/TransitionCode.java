@@ -0,0 +1,8 @@
+package domain.model;
+
+// Исход попытки перехода заказа (Order.tryTransition)
+public enum TransitionCode {
+    APPLIED,
+    // Переход не разрешен таблицей переходов OrderStatus; заказ не изменен
+    NOT_ALLOWED
+}
@@ -0,0 +1,17 @@
+package domain.model;
+
+// Результат перехода одного заказа в пакетной операции
+public record TransitionResult(String orderId, Order order, RuntimeException error) {
+
+    public static TransitionResult success(Order order) {
+        return new TransitionResult(order.getId(), order, null);
+    }
+
+    public static TransitionResult failure(String orderId, RuntimeException error) {
+        return new TransitionResult(orderId, null, error);
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
@@ -0,0 +1,24 @@
+package domain.port.primary;
+
+import domain.model.OrderStatus;
+import domain.model.Product;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+// Показатели для панели мониторинга. Значения читаются из счетчиков, которые обновляются
+// при каждом изменении заказа, поэтому запрос не обходит заказы в хранилище
+public interface OrderDashboardQuery {
+
+    long countByStatus(OrderStatus status);
+
+    Map<OrderStatus, Long> countsByStatus();
+
+    long countBySupplier(String supplierId);
+
+    // Число заказов, созданных в указанный день
+    long countCreatedOn(LocalDate day);
+
+    // Суммарное количество продукта в заказах, которые еще не завершены и не отменены
+    long openQuantity(Product product);
+}
@@ -1,11 +1,19 @@
 package domain.port.primary;
 
+import domain.model.AuditEntry;
 import domain.model.Order;
+import domain.model.OrderCursor;
+import domain.model.OrderPage;
+import domain.model.OrderStatus;
 import domain.model.Product;
+import domain.model.TransitionResult;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 
 public interface OrderUseCase {
@@ -32,9 +40,43 @@ public interface OrderUseCase {
 
     Order completeOrder(String orderId);
 
+    // Варианты с ключом идемпотентности для повторяемых клиентом запросов: повтор с тем же ключом
+    // возвращает результат первого успешного вызова, не выполняя операцию снова.
+    // idempotencyKey == null - обычный вызов без запоминания результата
+    Order createOrder(String idempotencyKey, String supplierId, Map<Product, Integer> items);
+
+    // Переход в target с уведомлениями, как у соответствующей операции; detail - результат
+    // проверки качества или причина для статусов, которые ее требуют
+    Order transitionOrder(String idempotencyKey, String orderId, OrderStatus target, String detail);
+
+    // Пакетные переходы: результат по каждому заказу в порядке входного списка
+    List<TransitionResult> confirmOrders(List<String> orderIds);
+
+    List<TransitionResult> sendOrdersToSupplier(List<String> orderIds);
+
+    List<TransitionResult> markOrdersInTransit(List<String> orderIds);
+
+    List<TransitionResult> markOrdersDelivered(List<String> orderIds);
+
     Optional<Order> getOrderById(String orderId);
 
+    // Статусы, в которые заказ может перейти из текущего, по таблице переходов OrderStatus
+    Set<OrderStatus> getAllowedTransitions(String orderId);
+
+    // Полная история переходов заказа от ранней записи к поздней
+    List<AuditEntry> getOrderHistory(String orderId);
+
     List<Order> getAllOrders();
 
+    OrderPage getOrdersPage(OrderCursor after, int limit);
+
+    Stream<Order> streamAllOrders();
+
     List<Order> getOrdersBySupplier(String supplierId);
+
+    List<Order> getOrdersByStatus(OrderStatus status);
+
+    List<Order> getOrdersBySupplierAndStatus(String supplierId, OrderStatus status);
+
+    List<Order> getOrdersCreatedBetween(LocalDateTime from, LocalDateTime to);
 }
\ No newline at end of file
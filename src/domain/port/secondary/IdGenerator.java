@@ -0,0 +1,7 @@
+package domain.port.secondary;
+
+// Источник идентификаторов новых заказов и продуктов
+public interface IdGenerator {
+
+    String nextId();
+}
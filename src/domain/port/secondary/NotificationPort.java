@@ -2,6 +2,8 @@ package domain.port.secondary;
 
 import domain.model.Order;
 
+import java.util.List;
+
 public interface NotificationPort {
 
     boolean sendOrderNotification(Order order);
@@ -11,4 +13,21 @@ public interface NotificationPort {
     boolean sendReturnNotification(Order order, String reason);
 
     boolean requestOrderConfirmation(Order order);
+
+    // Пакетные варианты для массовых операций; адаптер может отправить пакет одним сообщением
+    default boolean sendOrderNotifications(List<Order> orders) {
+        boolean delivered = true;
+        for (Order order : orders) {
+            delivered &= sendOrderNotification(order);
+        }
+        return delivered;
+    }
+
+    default boolean requestOrderConfirmations(List<Order> orders) {
+        boolean delivered = true;
+        for (Order order : orders) {
+            delivered &= requestOrderConfirmation(order);
+        }
+        return delivered;
+    }
 }
\ No newline at end of file
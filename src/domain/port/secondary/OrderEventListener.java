@@ -0,0 +1,18 @@
+package domain.port.secondary;
+
+import domain.model.OrderEvent;
+
+import java.util.List;
+
+// Подписчик на события заказов
+public interface OrderEventListener {
+
+    void onEvent(OrderEvent event);
+
+    // Пачка событий в порядке публикации; подписчик может обработать ее одним вызовом
+    default void onEvents(List<OrderEvent> events) {
+        for (OrderEvent event : events) {
+            onEvent(event);
+        }
+    }
+}
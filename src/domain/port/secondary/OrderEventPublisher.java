@@ -0,0 +1,19 @@
+package domain.port.secondary;
+
+import domain.model.OrderEvent;
+
+import java.util.List;
+
+// Публикация событий заказов подписчикам. OrderService публикует события только после
+// сохранения версии заказа, в которой они записаны
+public interface OrderEventPublisher {
+
+    void publish(OrderEvent event);
+
+    // События одной операции в порядке записи; реализация может передать их подписчикам одной пачкой
+    default void publishAll(List<OrderEvent> events) {
+        for (OrderEvent event : events) {
+            publish(event);
+        }
+    }
+}
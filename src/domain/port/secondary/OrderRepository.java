@@ -1,19 +1,57 @@
 package domain.port.secondary;
 
 import domain.model.Order;
+import domain.model.OrderCursor;
+import domain.model.OrderPage;
+import domain.model.OrderStatus;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface OrderRepository {
 
     Order save(Order order);
 
+    // Сохраняет заказ, только если хранимая версия равна expectedVersion.
+    // false означает, что заказ был изменен или удален другой операцией
+    boolean save(Order order, long expectedVersion);
+
+    // Пакетный вариант save(order, expectedVersion): результат по каждому заказу в порядке списка
+    boolean[] saveAll(List<Order> orders, long[] expectedVersions);
+
+    // Сохраняет заказы без проверки версий, как save(order), - для массовой загрузки.
+    // Реализации с блокировкой или журналом выполняют пакет за одно обращение
+    default void saveAll(List<Order> orders) {
+        for (Order order : orders) {
+            save(order);
+        }
+    }
+
     Optional<Order> findById(String orderId);
 
+    // Найденные заказы по идентификатору; отсутствующие идентификаторы пропускаются
+    Map<String, Order> findAllById(Collection<String> orderIds);
+
     List<Order> findAll();
 
+    // Не более limit заказов после курсора (null - с начала) в порядке времени создания и идентификатора
+    OrderPage findPage(OrderCursor after, int limit);
+
+    // Все заказы в том же порядке, что и findPage; заказы читаются по мере обхода потока
+    Stream<Order> streamAll();
+
     List<Order> findBySupplier(String supplierId);
 
+    List<Order> findByStatus(OrderStatus status);
+
+    List<Order> findBySupplierAndStatus(String supplierId, OrderStatus status);
+
+    // Заказы, созданные в полуоткрытом интервале [from, to)
+    List<Order> findCreatedBetween(LocalDateTime from, LocalDateTime to);
+
     void delete(String orderId);
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package domain.port.secondary;
+
+import domain.model.Product;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+// Каталог продуктов, доступных для заказа. Каждый продукт хранится в одном экземпляре
+// и получает плотный целочисленный номер, по которому его можно получить без поиска по строке
+public interface ProductCatalog {
+
+    // Добавляет продукт и возвращает его номер; для уже добавленного продукта (по идентификатору)
+    // возвращается прежний номер
+    int add(Product product);
+
+    // Пакетная загрузка каталога; номера возвращаются в порядке коллекции
+    int[] addAll(Collection<Product> products);
+
+    // Продукт по номеру; IllegalArgumentException, если номера нет в каталоге
+    Product get(int productNumber);
+
+    boolean contains(int productNumber);
+
+    // Номер продукта по идентификатору или -1, если продукта нет в каталоге
+    int numberOf(String productId);
+
+    Optional<Product> findById(String productId);
+
+    // Продукты в порядке добавления
+    List<Product> findAll();
+
+    int size();
+}
@@ -0,0 +1,36 @@
+package domain.port.secondary;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+// Источник текущего времени для заказов и адаптеров. Время - локальное, в миллисекундах
+// от эпохи так, как если бы местное время было UTC: его можно хранить числом и переводить
+// в LocalDateTime без обращения к правилам часового пояса
+public interface TimeSource {
+
+    long currentMillis();
+
+    default LocalDateTime now() {
+        return toLocalDateTime(currentMillis());
+    }
+
+    // Часы системы без кэширования; используются, если источник времени не передан явно
+    static TimeSource system() {
+        return () -> {
+            long now = System.currentTimeMillis();
+            return now + ZoneId.systemDefault().getRules().getOffset(Instant.ofEpochMilli(now)).getTotalSeconds() * 1000L;
+        };
+    }
+
+    static LocalDateTime toLocalDateTime(long localMillis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(localMillis, 1000),
+                Math.floorMod(localMillis, 1000) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    // Доли миллисекунды отбрасываются
+    static long toMillis(LocalDateTime localDateTime) {
+        return localDateTime.toEpochSecond(ZoneOffset.UTC) * 1000 + localDateTime.getNano() / 1_000_000;
+    }
+}
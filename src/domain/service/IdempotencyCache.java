@@ -0,0 +1,202 @@
+package domain.service;
+
+import domain.model.RetryLaterException;
+import domain.port.secondary.TimeSource;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Результаты недавних операций по ключу идемпотентности: повтор запроса с тем же ключом
+// получает результат первого вызова, а не выполняет операцию снова. Повтор, пришедший пока
+// первый вызов еще выполняется, дожидается его результата.
+// Память ограничена заранее: таблица из capacity ячеек, разбитая на группы по WAYS ячеек;
+// ключ попадает в свою группу и при нехватке места вытесняет завершенную запись с самым ранним
+// сроком истечения. Выполняющиеся записи не вытесняются и не истекают, пока вызов не завершится:
+// иначе повтор выполнил бы операцию второй раз. Если вся группа занята выполняющимися вызовами,
+// новый ключ отклоняется с RetryLaterException. Поиск не блокируется, вставка блокирует одну из LOCK_STRIPES полос.
+// Неудачные вызовы не запоминаются: повтор выполнит операцию заново
+public class IdempotencyCache {
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(10);
+    public static final Duration DEFAULT_WAIT_TIMEOUT = Duration.ofSeconds(30);
+
+    private static final int WAYS = 4;
+    private static final int LOCK_STRIPES = 64;
+    private static final Object FAILED = new Object();
+
+    private final TimeSource clock;
+    private final long ttlMillis;
+    private final long waitTimeoutMillis;
+    private final AtomicReferenceArray<Entry> slots;
+    private final int groupMask;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private final LongAdder replays = new LongAdder();
+
+    public IdempotencyCache(TimeSource clock) {
+        this(clock, DEFAULT_CAPACITY, DEFAULT_TTL);
+    }
+
+    public IdempotencyCache(TimeSource clock, int capacity, Duration ttl) {
+        this(clock, capacity, ttl, DEFAULT_WAIT_TIMEOUT);
+    }
+
+    // capacity округляется вверх до степени двойки; waitTimeout - сколько повтор ждет результата
+    // первого вызова, который еще выполняется
+    public IdempotencyCache(TimeSource clock, int capacity, Duration ttl, Duration waitTimeout) {
+        if (capacity < WAYS || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Недопустимый размер кэша идемпотентности: " + capacity);
+        }
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("Срок хранения результатов должен быть положительным: " + ttl);
+        }
+        if (waitTimeout.isNegative()) {
+            throw new IllegalArgumentException("Время ожидания повтора не может быть отрицательным: " + waitTimeout);
+        }
+        this.clock = clock;
+        this.ttlMillis = ttl.toMillis();
+        this.waitTimeoutMillis = waitTimeout.toMillis();
+        int length = Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(length);
+        this.groupMask = length / WAYS - 1;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    // Число запросов, получивших сохраненный результат вместо повторного выполнения
+    public long replays() {
+        return replays.sum();
+    }
+
+    // operation описывает запрос; ключ, повторно использованный для другого запроса, отклоняется
+    // с IllegalStateException, как конфликт с уже выполненной операцией
+    @SuppressWarnings("unchecked")
+    <T> T execute(String key, String operation, Supplier<T> action) {
+        int hash = spread(key.hashCode());
+        int group = hash & groupMask;
+        while (true) {
+            long now = clock.currentMillis();
+            Entry entry = find(group, hash, key, now);
+            if (entry == null) {
+                Entry created = new Entry(hash, key, operation, now + ttlMillis);
+                synchronized (locks[group & (LOCK_STRIPES - 1)]) {
+                    entry = find(group, hash, key, now);
+                    if (entry == null && !insert(group, created, now)) {
+                        throw new RetryLaterException("Слишком много одновременных запросов с ключами "
+                                + "идемпотентности, повторите запрос позже");
+                    }
+                }
+                if (entry == null) {
+                    return run(group, created, action);
+                }
+            }
+            if (!entry.operation.equals(operation)) {
+                throw new IllegalStateException("Ключ идемпотентности " + key + " уже использован для другого запроса");
+            }
+            Object result = await(key, entry);
+            if (result != FAILED) {
+                replays.increment();
+                return (T) result;
+            }
+            // Первый вызов завершился ошибкой и уже удален из таблицы
+        }
+    }
+
+    private Object await(String key, Entry entry) {
+        try {
+            return entry.result.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new RetryLaterException("Запрос с ключом идемпотентности " + key + " еще выполняется");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ожидание запроса с ключом идемпотентности " + key + " прервано", e);
+        } catch (ExecutionException e) {
+            // результат всегда задается через complete
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private <T> T run(int group, Entry entry, Supplier<T> action) {
+        T result;
+        try {
+            result = action.get();
+        } catch (RuntimeException | Error e) {
+            int base = group * WAYS;
+            for (int i = base; i < base + WAYS; i++) {
+                if (slots.compareAndSet(i, entry, null)) {
+                    break;
+                }
+            }
+            entry.result.complete(FAILED);
+            throw e;
+        }
+        entry.result.complete(result);
+        return result;
+    }
+
+    private Entry find(int group, int hash, String key, long now) {
+        int base = group * WAYS;
+        for (int i = base; i < base + WAYS; i++) {
+            Entry entry = slots.get(i);
+            if (entry != null && entry.hash == hash && entry.key.equals(key) && entry.isLive(now)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    // Вызывается под блокировкой полосы группы. Свободная или просроченная ячейка занимается
+    // сразу, иначе вытесняется завершенная запись с самым ранним сроком. false - все записи
+    // группы еще выполняются
+    private boolean insert(int group, Entry entry, long now) {
+        int base = group * WAYS;
+        int victim = -1;
+        long victimExpiresAt = Long.MAX_VALUE;
+        for (int i = base; i < base + WAYS; i++) {
+            Entry current = slots.get(i);
+            if (current == null || !current.isLive(now)) {
+                slots.set(i, entry);
+                return true;
+            }
+            if (current.result.isDone() && current.expiresAt < victimExpiresAt) {
+                victim = i;
+                victimExpiresAt = current.expiresAt;
+            }
+        }
+        if (victim < 0) {
+            return false;
+        }
+        slots.set(victim, entry);
+        return true;
+    }
+
+    private static int spread(int hash) {
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        return (hash >>> 16) ^ hash;
+    }
+
+    private static final class Entry {
+        private final int hash;
+        private final String key;
+        private final String operation;
+        private final long expiresAt;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        private Entry(int hash, String key, String operation, long expiresAt) {
+            this.hash = hash;
+            this.key = key;
+            this.operation = operation;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isLive(long now) {
+            return expiresAt > now || !result.isDone();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package domain.service;
+
+import domain.model.Order;
+import domain.model.OrderEvent;
+import domain.port.secondary.NotificationPort;
+import domain.port.secondary.OrderEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+// Уведомления по событиям заказов: подтверждение запрашивается у поставщика после Confirmed,
+// заказ отправляется после Sent, отмена и возврат сообщаются с причиной. Подряд идущие
+// Confirmed и Sent из одной пачки уходят одним пакетным вызовом порта. Ошибка порта
+// учитывается в failedEvents и не мешает уведомлениям по остальным событиям пачки
+public class OrderEventNotifier implements OrderEventListener {
+    private final NotificationPort notificationPort;
+    private final LongAdder failedEvents = new LongAdder();
+
+    public OrderEventNotifier(NotificationPort notificationPort) {
+        this.notificationPort = notificationPort;
+    }
+
+    // Число событий, уведомления по которым завершились исключением порта
+    public long failedEvents() {
+        return failedEvents.sum();
+    }
+
+    @Override
+    public void onEvent(OrderEvent event) {
+        try {
+            notify(event);
+        } catch (RuntimeException e) {
+            failedEvents.increment();
+        }
+    }
+
+    private void notify(OrderEvent event) {
+        switch (event) {
+            case OrderEvent.Confirmed confirmed -> notificationPort.requestOrderConfirmation(confirmed.order());
+            case OrderEvent.Sent sent -> notificationPort.sendOrderNotification(sent.order());
+            case OrderEvent.Returned returned ->
+                    notificationPort.sendReturnNotification(returned.order(), returned.reason());
+            case OrderEvent.Cancelled cancelled ->
+                    notificationPort.sendCancellationNotification(cancelled.order(), cancelled.reason());
+            default -> {
+            }
+        }
+    }
+
+    @Override
+    public void onEvents(List<OrderEvent> events) {
+        int start = 0;
+        while (start < events.size()) {
+            Class<?> kind = events.get(start).getClass();
+            int end = start + 1;
+            while (end < events.size() && events.get(end).getClass() == kind) {
+                end++;
+            }
+            if (end - start > 1 && (kind == OrderEvent.Confirmed.class || kind == OrderEvent.Sent.class)) {
+                List<Order> orders = new ArrayList<>(end - start);
+                for (int i = start; i < end; i++) {
+                    orders.add(events.get(i).order());
+                }
+                try {
+                    if (kind == OrderEvent.Confirmed.class) {
+                        notificationPort.requestOrderConfirmations(orders);
+                    } else {
+                        notificationPort.sendOrderNotifications(orders);
+                    }
+                } catch (RuntimeException e) {
+                    failedEvents.add(orders.size());
+                }
+            } else {
+                for (int i = start; i < end; i++) {
+                    onEvent(events.get(i));
+                }
+            }
+            start = end;
+        }
+    }
+}
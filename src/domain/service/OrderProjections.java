@@ -0,0 +1,172 @@
+package domain.service;
+
+import domain.model.LineItems;
+import domain.model.Order;
+import domain.model.OrderEvent;
+import domain.model.OrderStatus;
+import domain.model.Product;
+import domain.model.ProductRegistry;
+import domain.port.primary.OrderDashboardQuery;
+import domain.port.secondary.OrderEventListener;
+import domain.port.secondary.OrderRepository;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+// Проекции для панели мониторинга: счетчики заказов по статусу, поставщику и дню создания
+// и открытые количества по продуктам. Проекции подписаны на события заказов; событие
+// раскладывается на приращения LongAdder, поэтому порядок обновлений из разных потоков
+// не важен и блокировок на пути записи нет
+public class OrderProjections implements OrderDashboardQuery, OrderEventListener {
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    private final LongAdder[] byStatus = newAdders(STATUSES.length);
+    private final Map<String, LongAdder> bySupplier = new ConcurrentHashMap<>();
+    private final Map<Long, LongAdder> byDay = new ConcurrentHashMap<>(); // ключ - номер дня от эпохи
+    private final ProductRegistry productRegistry;
+    // Индекс - номер продукта в productRegistry; массив расширяется под блокировкой
+    private volatile LongAdder[] openQuantities = newAdders(64);
+
+    // Проекции с собственным реестром продуктов: составы заказов из другого реестра
+    // перекладываются в него при каждом событии
+    public OrderProjections() {
+        this(new ProductRegistry());
+    }
+
+    public OrderProjections(ProductRegistry productRegistry) {
+        this.productRegistry = productRegistry;
+    }
+
+    // Пересчет по всем заказам хранилища при запуске, до того как сервис начнет принимать операции:
+    // одновременные с пересчетом изменения заказов могут быть учтены неверно
+    public void rebuild(OrderRepository repository) {
+        try (Stream<Order> orders = repository.streamAll()) {
+            rebuild(orders);
+        }
+    }
+
+    // Пересчет по произвольному набору заказов, например живых и архивных вместе
+    public void rebuild(Stream<Order> orders) {
+        clear();
+        orders.forEach(this::created);
+    }
+
+    void created(Order order) {
+        byStatus[order.getStatus().ordinal()].increment();
+        bySupplier.computeIfAbsent(order.getSupplierId(), supplier -> new LongAdder()).increment();
+        byDay.computeIfAbsent(Math.floorDiv(order.getCreatedAtMillis(), MILLIS_PER_DAY), day -> new LongAdder())
+                .increment();
+        if (!order.getStatus().isFinal()) {
+            addQuantities(order.getItems(), 1);
+        }
+    }
+
+    @Override
+    public void onEvent(OrderEvent event) {
+        if (event instanceof OrderEvent.Created) {
+            created(event.order());
+        } else {
+            moved(event.previousStatus(), event.order());
+        }
+    }
+
+    // Переход не меняет состав заказа, поэтому открытые количества снимаются по новой версии
+    private void moved(OrderStatus from, Order next) {
+        OrderStatus to = next.getStatus();
+        byStatus[from.ordinal()].decrement();
+        byStatus[to.ordinal()].increment();
+        if (!from.isFinal() && to.isFinal()) {
+            addQuantities(next.getItems(), -1);
+        } else if (from.isFinal() && !to.isFinal()) {
+            addQuantities(next.getItems(), 1);
+        }
+    }
+
+    @Override
+    public long countByStatus(OrderStatus status) {
+        return byStatus[status.ordinal()].sum();
+    }
+
+    @Override
+    public Map<OrderStatus, Long> countsByStatus() {
+        Map<OrderStatus, Long> counts = new EnumMap<>(OrderStatus.class);
+        for (OrderStatus status : STATUSES) {
+            counts.put(status, byStatus[status.ordinal()].sum());
+        }
+        return counts;
+    }
+
+    @Override
+    public long countBySupplier(String supplierId) {
+        LongAdder count = bySupplier.get(supplierId);
+        return count == null ? 0 : count.sum();
+    }
+
+    @Override
+    public long countCreatedOn(LocalDate day) {
+        LongAdder count = byDay.get(day.toEpochDay());
+        return count == null ? 0 : count.sum();
+    }
+
+    @Override
+    public long openQuantity(Product product) {
+        int index = productRegistry.indexOf(product);
+        LongAdder[] current = openQuantities;
+        return index < 0 || index >= current.length ? 0 : current[index].sum();
+    }
+
+    ProductRegistry productRegistry() {
+        return productRegistry;
+    }
+
+    private void addQuantities(LineItems orderItems, int sign) {
+        LineItems items = orderItems.inRegistry(productRegistry);
+        for (int line = 0; line < items.size(); line++) {
+            quantityAdder(items.productIndex(line)).add((long) sign * items.quantity(line));
+        }
+    }
+
+    private LongAdder quantityAdder(int productIndex) {
+        LongAdder[] current = openQuantities;
+        if (productIndex < current.length) {
+            return current[productIndex];
+        }
+        synchronized (this) {
+            current = openQuantities;
+            if (productIndex >= current.length) {
+                LongAdder[] grown = Arrays.copyOf(current, Math.max(productIndex + 1, current.length * 2));
+                for (int i = current.length; i < grown.length; i++) {
+                    grown[i] = new LongAdder();
+                }
+                openQuantities = grown;
+                current = grown;
+            }
+            return current[productIndex];
+        }
+    }
+
+    private void clear() {
+        for (LongAdder count : byStatus) {
+            count.reset();
+        }
+        bySupplier.clear();
+        byDay.clear();
+        for (LongAdder quantity : openQuantities) {
+            quantity.reset();
+        }
+    }
+
+    private static LongAdder[] newAdders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+        for (int i = 0; i < count; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+}
@@ -1,102 +1,230 @@
 package domain.service;
 
+import domain.model.AuditEntry;
+import domain.model.LineItems;
 import domain.model.Order;
+import domain.model.OrderCursor;
+import domain.model.OrderEvent;
+import domain.model.OrderNotFoundException;
+import domain.model.OrderPage;
+import domain.model.OrderStatus;
 import domain.model.Product;
+import domain.model.ProductRegistry;
+import domain.model.TransitionResult;
 import domain.port.primary.OrderUseCase;
+import domain.port.secondary.IdGenerator;
 import domain.port.secondary.NotificationPort;
+import domain.port.secondary.OrderEventListener;
+import domain.port.secondary.OrderEventPublisher;
 import domain.port.secondary.OrderRepository;
+import domain.port.secondary.TimeSource;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
 
 public class  OrderService implements OrderUseCase {
+    private static final int MAX_TRANSITION_ATTEMPTS = 16;
+
     private final OrderRepository orderRepository;
-    private final NotificationPort notificationPort;
+    private final IdGenerator idGenerator;
+    private final TimeSource clock;
+    private final IdempotencyCache idempotencyCache;
+    private final OrderEventPublisher events;
+    private final ProductRegistry productRegistry; // реестр, в котором собираются составы новых заказов
 
+    // Идентификаторы - UUID, время - системное; уведомления отправляются в потоке операции
     public OrderService(OrderRepository orderRepository, NotificationPort notificationPort) {
-        this.orderRepository = orderRepository;
-        this.notificationPort = notificationPort;
+        this(builder(orderRepository).notificationPort(notificationPort));
+    }
+
+    private OrderService(Builder builder) {
+        this.orderRepository = builder.orderRepository;
+        this.idGenerator = builder.idGenerator;
+        this.clock = builder.clock;
+        this.idempotencyCache = builder.idempotencyCache != null ? builder.idempotencyCache
+                : new IdempotencyCache(builder.clock);
+        this.events = builder.events != null ? builder.events
+                : new SynchronousEventPublisher(listeners(builder.notificationPort, builder.projections));
+        this.productRegistry = builder.productRegistry != null ? builder.productRegistry
+                : builder.projections != null ? builder.projections.productRegistry() : new ProductRegistry();
+    }
+
+    public static Builder builder(OrderRepository orderRepository) {
+        return new Builder(orderRepository);
+    }
+
+    // Необязательные зависимости сервиса. Подписчиков задает либо events, либо notificationPort
+    // и projections - тогда они обновляются в потоке операции. productRegistry стоит задавать тем же,
+    // что у хранилища и проекций: иначе составы заказов перекладываются между реестрами
+    public static final class Builder {
+        private final OrderRepository orderRepository;
+        private NotificationPort notificationPort;
+        private OrderProjections projections;
+        private OrderEventPublisher events;
+        private IdGenerator idGenerator = () -> UUID.randomUUID().toString();
+        private TimeSource clock = TimeSource.system();
+        private IdempotencyCache idempotencyCache; // null - кэш по умолчанию на clock
+        private ProductRegistry productRegistry; // null - реестр проекций или собственный
+
+        private Builder(OrderRepository orderRepository) {
+            this.orderRepository = orderRepository;
+        }
+
+        public Builder notificationPort(NotificationPort notificationPort) {
+            this.notificationPort = notificationPort;
+            return this;
+        }
+
+        public Builder projections(OrderProjections projections) {
+            this.projections = projections;
+            return this;
+        }
+
+        public Builder events(OrderEventPublisher events) {
+            this.events = events;
+            return this;
+        }
+
+        public Builder idGenerator(IdGenerator idGenerator) {
+            this.idGenerator = idGenerator;
+            return this;
+        }
+
+        public Builder clock(TimeSource clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        public Builder idempotencyCache(IdempotencyCache idempotencyCache) {
+            this.idempotencyCache = idempotencyCache;
+            return this;
+        }
+
+        public Builder productRegistry(ProductRegistry productRegistry) {
+            this.productRegistry = productRegistry;
+            return this;
+        }
+
+        public OrderService build() {
+            if (events != null && (notificationPort != null || projections != null)) {
+                throw new IllegalStateException("Уведомления и проекции подключаются к шине событий, а не к сервису");
+            }
+            if (events == null && notificationPort == null) {
+                throw new IllegalStateException("Не задан ни порт уведомлений, ни публикация событий");
+            }
+            return new OrderService(this);
+        }
     }
 
     @Override
     public Order createOrder(String supplierId, Map<Product, Integer> items) {
-        Order order = new Order(supplierId, items);
-        return orderRepository.save(order);
+        Order created = Order.create(idGenerator.nextId(), supplierId, LineItems.of(items, productRegistry), clock);
+        List<OrderEvent> recorded = created.pullEvents();
+        Order order = orderRepository.save(created);
+        publish(recorded);
+        return order;
     }
 
     @Override
     public Order confirmOrder(String orderId) {
-        Order order = getOrderOrThrow(orderId);
-        order.confirm();
-        notificationPort.requestOrderConfirmation(order);
-        return orderRepository.save(order);
+        return transition(orderId, OrderStatus.CONFIRMED, null);
     }
 
     @Override
     public Order sendOrderToSupplier(String orderId) {
-        Order order = getOrderOrThrow(orderId);
-        order.send();
-        notificationPort.sendOrderNotification(order);
-        return orderRepository.save(order);
+        return transition(orderId, OrderStatus.SENT, null);
     }
 
     @Override
     public Order markOrderInTransit(String orderId) {
-        Order order = getOrderOrThrow(orderId);
-        order.markInTransit();
-        return orderRepository.save(order);
+        return transition(orderId, OrderStatus.IN_TRANSIT, null);
     }
 
     @Override
     public Order markOrderDelivered(String orderId) {
-        Order order = getOrderOrThrow(orderId);
-        order.markDelivered();
-        return orderRepository.save(order);
+        return transition(orderId, OrderStatus.DELIVERED, null);
     }
 
     @Override
     public Order startQualityCheck(String orderId) {
-        Order order = getOrderOrThrow(orderId);
-        order.startQualityCheck();
-        return orderRepository.save(order);
+        return transition(orderId, OrderStatus.QUALITY_CHECK, null);
     }
 
     @Override
     public Order acceptDelivery(String orderId, String qualityCheckResult) {
-        Order order = getOrderOrThrow(orderId);
-        order.acceptDelivery(qualityCheckResult);
-        return orderRepository.save(order);
+        return transition(orderId, OrderStatus.ACCEPTED, qualityCheckResult);
     }
 
     @Override
     public Order rejectDelivery(String orderId, String reason) {
-        Order order = getOrderOrThrow(orderId);
-        order.rejectDelivery(reason);
-        return orderRepository.save(order);
+        return transition(orderId, OrderStatus.REJECTED, reason);
     }
 
     @Override
     public Order returnToSupplier(String orderId, String reason) {
-        Order order = getOrderOrThrow(orderId);
-        order.returnToSupplier(reason);
-        notificationPort.sendReturnNotification(order, reason);
-        return orderRepository.save(order);
+        return transition(orderId, OrderStatus.RETURNED, reason);
     }
 
     @Override
     public Order cancelOrder(String orderId, String reason) {
-        Order order = getOrderOrThrow(orderId);
-        order.cancel(reason);
-        notificationPort.sendCancellationNotification(order, reason);
-        return orderRepository.save(order);
+        return transition(orderId, OrderStatus.CANCELLED, reason);
     }
 
     @Override
     public Order completeOrder(String orderId) {
-        Order order = getOrderOrThrow(orderId);
-        order.complete();
-        return orderRepository.save(order);
+        return transition(orderId, OrderStatus.COMPLETED, null);
+    }
+
+    // Ключ привязан к поставщику и составу заказа: повтор с тем же ключом, но другим заказом отклоняется
+    @Override
+    public Order createOrder(String idempotencyKey, String supplierId, Map<Product, Integer> items) {
+        if (idempotencyKey == null) {
+            return createOrder(supplierId, items);
+        }
+        return idempotencyCache.execute(idempotencyKey, createFingerprint(supplierId, items),
+                () -> createOrder(supplierId, items));
+    }
+
+    @Override
+    public Order transitionOrder(String idempotencyKey, String orderId, OrderStatus target, String detail) {
+        if (idempotencyKey == null) {
+            return applyTransition(orderId, target, detail);
+        }
+        StringBuilder fingerprint = new StringBuilder("transition ");
+        appendField(fingerprint, orderId);
+        fingerprint.append(target.name()).append(' ');
+        appendField(fingerprint, detail);
+        return idempotencyCache.execute(idempotencyKey, fingerprint.toString(),
+                () -> applyTransition(orderId, target, detail));
+    }
+
+    @Override
+    public List<TransitionResult> confirmOrders(List<String> orderIds) {
+        return transitionAll(orderIds, OrderStatus.CONFIRMED);
+    }
+
+    @Override
+    public List<TransitionResult> sendOrdersToSupplier(List<String> orderIds) {
+        return transitionAll(orderIds, OrderStatus.SENT);
+    }
+
+    @Override
+    public List<TransitionResult> markOrdersInTransit(List<String> orderIds) {
+        return transitionAll(orderIds, OrderStatus.IN_TRANSIT);
+    }
+
+    @Override
+    public List<TransitionResult> markOrdersDelivered(List<String> orderIds) {
+        return transitionAll(orderIds, OrderStatus.DELIVERED);
     }
 
     @Override
@@ -104,18 +232,196 @@ public class  OrderService implements OrderUseCase {
         return orderRepository.findById(orderId);
     }
 
+    @Override
+    public Set<OrderStatus> getAllowedTransitions(String orderId) {
+        return getOrderOrThrow(orderId).getStatus().allowedTransitions();
+    }
+
+    @Override
+    public List<AuditEntry> getOrderHistory(String orderId) {
+        return getOrderOrThrow(orderId).getAuditTrail().entries();
+    }
+
     @Override
     public List<Order> getAllOrders() {
         return orderRepository.findAll();
     }
 
+    @Override
+    public OrderPage getOrdersPage(OrderCursor after, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Размер страницы должен быть положительным");
+        }
+        return orderRepository.findPage(after, limit);
+    }
+
+    @Override
+    public Stream<Order> streamAllOrders() {
+        return orderRepository.streamAll();
+    }
+
     @Override
     public List<Order> getOrdersBySupplier(String supplierId) {
         return orderRepository.findBySupplier(supplierId);
     }
 
+    @Override
+    public List<Order> getOrdersByStatus(OrderStatus status) {
+        return orderRepository.findByStatus(status);
+    }
+
+    @Override
+    public List<Order> getOrdersBySupplierAndStatus(String supplierId, OrderStatus status) {
+        return orderRepository.findBySupplierAndStatus(supplierId, status);
+    }
+
+    @Override
+    public List<Order> getOrdersCreatedBetween(LocalDateTime from, LocalDateTime to) {
+        return orderRepository.findCreatedBetween(from, to);
+    }
+
+    private Order applyTransition(String orderId, OrderStatus target, String detail) {
+        return switch (target) {
+            case CONFIRMED -> confirmOrder(orderId);
+            case SENT -> sendOrderToSupplier(orderId);
+            case IN_TRANSIT -> markOrderInTransit(orderId);
+            case DELIVERED -> markOrderDelivered(orderId);
+            case QUALITY_CHECK -> startQualityCheck(orderId);
+            case ACCEPTED -> acceptDelivery(orderId, detail);
+            case REJECTED -> rejectDelivery(orderId, detail);
+            case RETURNED -> returnToSupplier(orderId, detail);
+            case CANCELLED -> cancelOrder(orderId, detail);
+            case COMPLETED -> completeOrder(orderId);
+            case CREATED -> throw Order.transitionError(target);
+        };
+    }
+
+    // Переход применяется к новой версии заказа и сохраняется сравнением с прочитанной версией.
+    // При конфликте заказ перечитывается, и проверка по таблице переходов выполняется заново.
+    // Недопустимый переход отсекается до копирования заказа. События перехода публикуются
+    // только после успешного сохранения
+    private Order transition(String orderId, OrderStatus target, String detail) {
+        for (int attempt = 0; attempt < MAX_TRANSITION_ATTEMPTS; attempt++) {
+            Order current = getOrderOrThrow(orderId);
+            if (!current.getStatus().canTransitionTo(target)) {
+                throw Order.transitionError(target);
+            }
+            Order next = current.nextVersion(clock);
+            next.tryTransition(target, detail);
+            List<OrderEvent> recorded = next.pullEvents();
+            if (orderRepository.save(next, current.getVersion())) {
+                publish(recorded);
+                return next;
+            }
+            Thread.onSpinWait();
+        }
+        throw new ConcurrentModificationException("Заказ " + orderId + " одновременно изменяется другими операциями");
+    }
+
+    // Пакетный вариант transition: заказы читаются и сохраняются одним вызовом репозитория
+    // на попытку, повторяются только заказы с конфликтом версий, события публикуются одной пачкой
+    private List<TransitionResult> transitionAll(List<String> orderIds, OrderStatus target) {
+        TransitionResult[] results = new TransitionResult[orderIds.size()];
+        List<Integer> pending = new ArrayList<>(orderIds.size());
+        for (int i = 0; i < orderIds.size(); i++) {
+            pending.add(i);
+        }
+        List<OrderEvent> published = new ArrayList<>(orderIds.size());
+
+        for (int attempt = 0; attempt < MAX_TRANSITION_ATTEMPTS && !pending.isEmpty(); attempt++) {
+            List<String> pendingIds = new ArrayList<>(pending.size());
+            for (int position : pending) {
+                pendingIds.add(orderIds.get(position));
+            }
+            Map<String, Order> current = orderRepository.findAllById(pendingIds);
+
+            List<Integer> positions = new ArrayList<>(pending.size());
+            List<Order> changed = new ArrayList<>(pending.size());
+            List<List<OrderEvent>> recorded = new ArrayList<>(pending.size());
+            long[] expectedVersions = new long[pending.size()];
+            for (int position : pending) {
+                String orderId = orderIds.get(position);
+                Order order = current.get(orderId);
+                if (order == null) {
+                    results[position] = TransitionResult.failure(orderId, new OrderNotFoundException(orderId));
+                    continue;
+                }
+                if (!order.getStatus().canTransitionTo(target)) {
+                    results[position] = TransitionResult.failure(orderId, Order.transitionError(target));
+                    continue;
+                }
+                Order next = order.nextVersion(clock);
+                next.tryTransition(target, null);
+                recorded.add(next.pullEvents());
+                expectedVersions[changed.size()] = order.getVersion();
+                changed.add(next);
+                positions.add(position);
+            }
+
+            boolean[] saved = orderRepository.saveAll(changed, Arrays.copyOf(expectedVersions, changed.size()));
+            pending = new ArrayList<>();
+            for (int i = 0; i < saved.length; i++) {
+                if (saved[i]) {
+                    published.addAll(recorded.get(i));
+                    results[positions.get(i)] = TransitionResult.success(changed.get(i));
+                } else {
+                    pending.add(positions.get(i));
+                }
+            }
+        }
+
+        for (int position : pending) {
+            String orderId = orderIds.get(position);
+            results[position] = TransitionResult.failure(orderId,
+                    new ConcurrentModificationException("Заказ " + orderId + " одновременно изменяется другими операциями"));
+        }
+
+        publish(published);
+        return Arrays.asList(results);
+    }
+
+    private void publish(List<OrderEvent> recorded) {
+        if (recorded.size() == 1) {
+            events.publish(recorded.get(0));
+        } else if (!recorded.isEmpty()) {
+            events.publishAll(recorded);
+        }
+    }
+
+    // Описание запроса для кэша идемпотентности, не зависящее от порядка позиций в Map:
+    // позиции упорядочены по идентификатору продукта, затем по количеству
+    private static String createFingerprint(String supplierId, Map<Product, Integer> items) {
+        List<Map.Entry<Product, Integer>> lines = new ArrayList<>(items.entrySet());
+        lines.sort(Map.Entry.<Product, Integer>comparingByKey(
+                        Comparator.comparing(Product::getId, Comparator.nullsFirst(Comparator.naturalOrder())))
+                .thenComparing(Map.Entry.comparingByValue(Comparator.nullsFirst(Comparator.naturalOrder()))));
+        StringBuilder fingerprint = new StringBuilder("create ");
+        appendField(fingerprint, supplierId);
+        for (Map.Entry<Product, Integer> line : lines) {
+            appendField(fingerprint, line.getKey().getId());
+            fingerprint.append(line.getValue()).append(' ');
+        }
+        return fingerprint.toString();
+    }
+
+    // Значение с длиной впереди, чтобы разделители внутри значений не склеивали разные запросы;
+    // null отличается от строки "null"
+    private static void appendField(StringBuilder fingerprint, String value) {
+        if (value == null) {
+            fingerprint.append("- ");
+        } else {
+            fingerprint.append(value.length()).append(':').append(value).append(' ');
+        }
+    }
+
+    private static List<OrderEventListener> listeners(NotificationPort notificationPort,
+                                                      OrderProjections projections) {
+        OrderEventNotifier notifier = new OrderEventNotifier(notificationPort);
+        return projections == null ? List.of(notifier) : List.of(projections, notifier);
+    }
+
     private Order getOrderOrThrow(String orderId) {
         return orderRepository.findById(orderId)
-                .orElseThrow(() -> new IllegalArgumentException("Заказ с ID " + orderId + " не найден"));
+                .orElseThrow(() -> new OrderNotFoundException(orderId));
     }
 }
@@ -0,0 +1,46 @@
+package domain.service;
+
+import domain.model.OrderEvent;
+import domain.port.secondary.OrderEventListener;
+import domain.port.secondary.OrderEventPublisher;
+
+import java.util.List;
+
+// Публикация в потоке операции: подписчики вызываются до возврата из метода сервиса.
+// Используется конструкторами OrderService, которым передан порт уведомлений, а не шина событий.
+// Как и в шине событий, исключение подписчика выводится в stderr и не мешает остальным
+// подписчикам получить событие: переход к этому моменту уже сохранен
+final class SynchronousEventPublisher implements OrderEventPublisher {
+    private final List<OrderEventListener> listeners;
+
+    SynchronousEventPublisher(List<OrderEventListener> listeners) {
+        this.listeners = List.copyOf(listeners);
+    }
+
+    @Override
+    public void publish(OrderEvent event) {
+        for (OrderEventListener listener : listeners) {
+            try {
+                listener.onEvent(event);
+            } catch (RuntimeException e) {
+                onFailure(listener, 1, e);
+            }
+        }
+    }
+
+    @Override
+    public void publishAll(List<OrderEvent> events) {
+        for (OrderEventListener listener : listeners) {
+            try {
+                listener.onEvents(events);
+            } catch (RuntimeException e) {
+                onFailure(listener, events.size(), e);
+            }
+        }
+    }
+
+    private void onFailure(OrderEventListener listener, int events, RuntimeException e) {
+        System.err.println("Подписчик " + listener.getClass().getSimpleName() + " не обработал " + events
+                + " событий: " + e);
+    }
+}